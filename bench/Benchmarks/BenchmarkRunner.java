@@ -0,0 +1,32 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler on, so every result comes with its allocation rate
+ * (gc.alloc.rate and gc.alloc.rate.norm, bytes per operation) next to ops/sec.
+ *
+ * Takes the usual JMH command line, e.g.
+ *   BenchmarkRunner ContainerBenchmark -p n=100000 -p container=BetterQueue,LinkedList
+ *   BenchmarkRunner ManagerBenchmark -p lines=1000,1000000 -rf json -rff bench_output.json
+ * With no benchmark pattern it runs everything in this package.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        if (cmd.getIncludes().isEmpty()) {
+            builder.include("Benchmarks\\.");
+        }
+        Options options = builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import CommonUtils.BigLongArray;
+import Drones.ParallelCleanSwordScan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the parallel clean-sword scan alone, on columns loaded once up front and with no sink,
+ * so neither parsing nor boxing is timed and what is left is the scan itself.  Sweeping the
+ * pool's parallelism shows how it scales; parallelism 1 is the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class CleanSwordScanBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"1000000", "100000000"})
+    public long requests;
+
+    /**
+     * Swords in the queue at the start
+     */
+    @Param({"1000"})
+    public int swords;
+
+    private BigLongArray processingTimes;
+    private BigLongArray requestTimes;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.processingTimes = new BigLongArray(this.swords);
+        for (int i = 0; i < this.swords; i++) {
+            this.processingTimes.set(i, 1 + random.nextInt(6));
+        }
+        this.requestTimes = new BigLongArray(this.requests);
+        long time = 0;
+        for (int p = 0; p < this.requestTimes.pageCount(); p++) {
+            long[] page = this.requestTimes.page(p);
+            for (int i = 0; i < page.length; i++) {
+                time += random.nextInt(8);
+                page[i] = time;
+            }
+        }
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public long scan() {
+        return new ParallelCleanSwordScan(this.processingTimes, this.requestTimes, 4).run(this.pool, null);
+    }
+}
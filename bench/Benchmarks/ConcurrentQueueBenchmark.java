@@ -0,0 +1,86 @@
+package Benchmarks;
+
+import CommonUtils.ConcurrentBetterQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producers and consumers hammering one shared queue: ConcurrentBetterQueue against
+ * ConcurrentLinkedQueue.
+ *
+ * Each group has produce threads adding and consume threads removing from the same queue, and
+ * JMH reports the throughput of both sides.  A remove that finds the queue empty still counts
+ * as an operation, as it does for a real consumer polling.  Sweep the thread counts with the
+ * thread groups option, e.g.
+ *   BenchmarkRunner ConcurrentQueueBenchmark -tg 1,1
+ *   BenchmarkRunner ConcurrentQueueBenchmark -tg 4,4
+ * Producers that outrun the consumers leave the queue growing for the length of an iteration,
+ * hence the larger heap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Group)
+public class ConcurrentQueueBenchmark {
+
+    /**
+     * add/remove, the only operations the benchmark needs
+     */
+    interface Ops {
+        void add(Integer x);
+        Integer remove();
+    }
+
+    @Param({"ConcurrentBetterQueue", "ConcurrentLinkedQueue"})
+    public String queue;
+
+    /**
+     * boxed once up front so the benchmark doesn't measure Integer allocation
+     */
+    private final Integer value = 42;
+
+    private Ops ops;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        switch (this.queue) {
+            case "ConcurrentBetterQueue": {
+                ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+                this.ops = new Ops() {
+                    public void add(Integer x) { q.add(x); }
+                    public Integer remove() { return q.remove(); }
+                };
+                break;
+            }
+            case "ConcurrentLinkedQueue": {
+                ConcurrentLinkedQueue<Integer> q = new ConcurrentLinkedQueue<>();
+                this.ops = new Ops() {
+                    public void add(Integer x) { q.offer(x); }
+                    public Integer remove() { return q.poll(); }
+                };
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(this.queue);
+        }
+    }
+
+    @Benchmark
+    @Group("produceConsume")
+    @GroupThreads(1)
+    public void produce() {
+        this.ops.add(this.value);
+    }
+
+    @Benchmark
+    @Group("produceConsume")
+    @GroupThreads(1)
+    public void consume(Blackhole bh) {
+        bh.consume(this.ops.remove());
+    }
+}
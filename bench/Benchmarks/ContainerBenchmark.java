@@ -0,0 +1,170 @@
+package Benchmarks;
+
+import CommonUtils.BetterQueue;
+import CommonUtils.BetterStack;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares BetterQueue and BetterStack with the standard library containers they replace.
+ *
+ * Every container is driven through the same small Ops interface.  JMH runs every parameter
+ * combination in its own forked JVM, so each fork only ever sees one Ops implementation and
+ * the calls are inlined like direct calls would be.
+ *
+ * Patterns, for n elements:
+ *   fill      - n adds (growth only)
+ *   fillDrain - n adds, then n removes (every grow and every shrink)
+ *   mixed     - add, add, remove until n adds were made, then drain
+ *   sawtooth  - fill to n, then 16 rounds of removing 3n/4 and adding them back; crosses the
+ *               shrink/grow thresholds every round, which is where resize costs show
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContainerBenchmark {
+
+    /**
+     * The operations every pattern needs: add/remove for queues, push/pop for stacks
+     */
+    interface Ops {
+        void add(Integer x);
+        Integer remove();
+    }
+
+    @Param({"BetterQueue", "ArrayDequeFifo", "LinkedList", "BetterStack", "ArrayDequeLifo", "ArrayList"})
+    public String container;
+
+    @Param({"fill", "fillDrain", "mixed", "sawtooth"})
+    public String pattern;
+
+    @Param({"1000", "100000", "1000000"})
+    public int n;
+
+    /**
+     * boxed once up front so the benchmark doesn't measure Integer allocation
+     */
+    private Integer[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.values = new Integer[this.n];
+        for (int i = 0; i < this.n; i++) {
+            this.values[i] = i;
+        }
+    }
+
+    private Ops newContainer() {
+        switch (this.container) {
+            case "BetterQueue": {
+                BetterQueue<Integer> q = new BetterQueue<>();
+                return new Ops() {
+                    public void add(Integer x) { q.add(x); }
+                    public Integer remove() { return q.remove(); }
+                };
+            }
+            case "ArrayDequeFifo": {
+                ArrayDeque<Integer> q = new ArrayDeque<>();
+                return new Ops() {
+                    public void add(Integer x) { q.addLast(x); }
+                    public Integer remove() { return q.pollFirst(); }
+                };
+            }
+            case "LinkedList": {
+                LinkedList<Integer> q = new LinkedList<>();
+                return new Ops() {
+                    public void add(Integer x) { q.addLast(x); }
+                    public Integer remove() { return q.pollFirst(); }
+                };
+            }
+            case "BetterStack": {
+                BetterStack<Integer> s = new BetterStack<>();
+                return new Ops() {
+                    public void add(Integer x) { s.push(x); }
+                    public Integer remove() { return s.pop(); }
+                };
+            }
+            case "ArrayDequeLifo": {
+                ArrayDeque<Integer> s = new ArrayDeque<>();
+                return new Ops() {
+                    public void add(Integer x) { s.push(x); }
+                    public Integer remove() { return s.pop(); }
+                };
+            }
+            case "ArrayList": {
+                ArrayList<Integer> s = new ArrayList<>();
+                return new Ops() {
+                    public void add(Integer x) { s.add(x); }
+                    public Integer remove() { return s.remove(s.size() - 1); }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown container: " + this.container);
+        }
+    }
+
+    @Benchmark
+    public void run(Blackhole bh) {
+        Ops c = newContainer();
+        Integer[] v = this.values;
+        int count = this.n;
+        switch (this.pattern) {
+            case "fill":
+                for (int i = 0; i < count; i++) {
+                    c.add(v[i]);
+                }
+                bh.consume(c);
+                break;
+            case "fillDrain":
+                for (int i = 0; i < count; i++) {
+                    c.add(v[i]);
+                }
+                for (int i = 0; i < count; i++) {
+                    bh.consume(c.remove());
+                }
+                break;
+            case "mixed": {
+                int added = 0, size = 0;
+                while (added < count) {
+                    c.add(v[added++]);
+                    size++;
+                    if (added < count) {
+                        c.add(v[added++]);
+                        size++;
+                    }
+                    bh.consume(c.remove());
+                    size--;
+                }
+                for (; size > 0; size--) {
+                    bh.consume(c.remove());
+                }
+                break;
+            }
+            case "sawtooth": {
+                for (int i = 0; i < count; i++) {
+                    c.add(v[i]);
+                }
+                int swing = count - count / 4;
+                for (int round = 0; round < 16; round++) {
+                    for (int i = 0; i < swing; i++) {
+                        bh.consume(c.remove());
+                    }
+                    for (int i = 0; i < swing; i++) {
+                        c.add(v[i]);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown pattern: " + this.pattern);
+        }
+    }
+}
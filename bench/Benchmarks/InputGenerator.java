@@ -0,0 +1,152 @@
+package Benchmarks;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Writes random, valid input files for CleanSwordManager and ItemRequestManager, in the same
+ * formats as the files under test/DronesTest.  The same size and seed always give the same file.
+ *
+ * Clean-sword inputs are "N M T" followed by N increasing sword cleanliness values and M
+ * increasing request times, one per line; a file of L lines has N = L / 10 swords and
+ * M = L - N - 1 requests.  Item-request inputs are "N T" followed by the N increasing request
+ * times on a single line, so for them the size is the number of requests rather than lines.
+ */
+public class InputGenerator {
+
+    /**
+     * Seed used by the benchmarks, so every run measures the same inputs.
+     */
+    public static final long DEFAULT_SEED = 251;
+
+    /**
+     * Writes a clean-sword input with the given number of lines
+     *
+     * @param file file to write
+     * @param lines total number of lines, at least 2
+     * @param seed random seed
+     * @throws IOException if the file can't be written
+     */
+    public static void writeCleanSwordInput(File file, long lines, long seed) throws IOException {
+        Random random = new Random(seed);
+        long swords = Long.max(1, lines / 10);
+        long requests = Long.max(1, lines - swords - 1);
+        long cleaningTime = 1 + random.nextInt(100);
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            out.write(swords + " " + requests + " " + cleaningTime);
+            out.newLine();
+            long cleanliness = 0;
+            for (long i = 0; i < swords; i++) {
+                cleanliness = Long.min(cleaningTime, cleanliness + random.nextInt(2));
+                out.write(Long.toString(cleanliness));
+                out.newLine();
+            }
+            long time = 0;
+            for (long i = 0; i < requests; i++) {
+                /* requests arrive a bit faster than they can be cleaned on average */
+                time += random.nextInt((int) cleaningTime * 2);
+                out.write(Long.toString(time));
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes an item-request input with the given number of requests
+     *
+     * @param file file to write
+     * @param requests number of requests, at least 1
+     * @param seed random seed
+     * @throws IOException if the file can't be written
+     */
+    public static void writeItemRequestInput(File file, long requests, long seed) throws IOException {
+        Random random = new Random(seed);
+        long fieldLength = 1 + random.nextInt(1000);
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            out.write(requests + " " + fieldLength);
+            out.newLine();
+            long time = 0;
+            for (long i = 0; i < requests; i++) {
+                /* bursts of requests with gaps long enough to finish some of them */
+                time += (random.nextInt(8) == 0) ? random.nextInt((int) fieldLength * 4) : random.nextInt(3);
+                if (i > 0) {
+                    out.write(' ');
+                }
+                out.write(Long.toString(time));
+            }
+            out.newLine();
+        }
+    }
+
+    /**
+     * Returns a clean-sword input of the given size in dir, generating it if it isn't there yet
+     *
+     * @param dir directory for generated inputs
+     * @param lines total number of lines
+     * @return the input file
+     * @throws IOException if the file can't be written
+     */
+    public static File cleanSwordInput(File dir, long lines) throws IOException {
+        File file = new File(dir, "cleanSword_" + lines + "_" + DEFAULT_SEED + ".in");
+        if (!file.isFile()) {
+            generateAtomically(file, tmp -> writeCleanSwordInput(tmp, lines, DEFAULT_SEED));
+        }
+        return file;
+    }
+
+    /**
+     * Returns an item-request input of the given size in dir, generating it if it isn't there yet
+     *
+     * @param dir directory for generated inputs
+     * @param requests number of requests
+     * @return the input file
+     * @throws IOException if the file can't be written
+     */
+    public static File itemRequestInput(File dir, long requests) throws IOException {
+        File file = new File(dir, "itemRequest_" + requests + "_" + DEFAULT_SEED + ".in");
+        if (!file.isFile()) {
+            generateAtomically(file, tmp -> writeItemRequestInput(tmp, requests, DEFAULT_SEED));
+        }
+        return file;
+    }
+
+    private interface Writer {
+        void write(File file) throws IOException;
+    }
+
+    /**
+     * Writes to a temporary file first, so an interrupted run never leaves a truncated input behind
+     */
+    private static void generateAtomically(File file, Writer writer) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Couldn't create " + dir);
+        }
+        File tmp = new File(dir, file.getName() + ".tmp");
+        writer.write(tmp);
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Couldn't rename " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Generates inputs from the command line
+     *
+     * @param args "clean" or "item", the size, the output file and optionally a seed
+     * @throws IOException if the file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: InputGenerator clean|item <lines|requests> <file> [seed]");
+            System.exit(1);
+        }
+        long size = Long.parseLong(args[1]);
+        File file = new File(args[2]);
+        long seed = (args.length > 3) ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        if (args[0].equals("clean")) {
+            writeCleanSwordInput(file, size, seed);
+        } else {
+            writeItemRequestInput(file, size, seed);
+        }
+    }
+}
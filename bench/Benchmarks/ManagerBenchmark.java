@@ -0,0 +1,70 @@
+package Benchmarks;
+
+import Drones.CleanSwordManager;
+import Drones.CleanSwordManagerInterface.CleanSwordTimes;
+import Drones.ItemRequestManager;
+import Drones.ItemRequestManagerInterface.ItemRetrievalTimes;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs both drone managers end to end, file parsing included, on generated inputs.
+ *
+ * Inputs are generated once by {@link InputGenerator} into the directory given by the
+ * "bench.inputs" system property (default: bench_inputs in the temp directory) and reused by
+ * later runs.  The largest size writes files of roughly a gigabyte and needs a heap of several
+ * gigabytes; pick sizes with e.g. "-p lines=1000,100000".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class ManagerBenchmark {
+
+    /**
+     * Lines of the clean-sword input, and requests of the item-request input
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public long lines;
+
+    private File cleanSwordFile;
+    private File itemRequestFile;
+
+    private final CleanSwordManager cleanSwordManager = new CleanSwordManager();
+    private final CleanSwordManager parallelCleanSwordManager = new CleanSwordManager(ForkJoinPool.commonPool());
+    private final ItemRequestManager itemRequestManager = new ItemRequestManager();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = new File(System.getProperty("bench.inputs",
+                new File(System.getProperty("java.io.tmpdir"), "bench_inputs").getPath()));
+        this.cleanSwordFile = InputGenerator.cleanSwordInput(dir, this.lines);
+        this.itemRequestFile = InputGenerator.itemRequestInput(dir, this.lines);
+    }
+
+    @Benchmark
+    public ArrayList<CleanSwordTimes> cleanSwords() {
+        return this.cleanSwordManager.getCleaningTimes(this.cleanSwordFile.getPath());
+    }
+
+    /**
+     * The same as cleanSwords, computed as a parallel scan in the common pool.  Parsing and
+     * boxing dominate here; {@link CleanSwordScanBenchmark} times the scan alone per core count.
+     */
+    @Benchmark
+    public ArrayList<CleanSwordTimes> cleanSwordsParallel() {
+        return this.parallelCleanSwordManager.getCleaningTimes(this.cleanSwordFile.getPath());
+    }
+
+    @Benchmark
+    public ArrayList<ItemRetrievalTimes> itemRequests() {
+        return this.itemRequestManager.getRetrievalTimes(this.itemRequestFile.getPath());
+    }
+}
@@ -0,0 +1,230 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.util.Objects;
+
+/**
+ * @implNote A double-ended queue on a circular array, growing and shrinking like
+ * {@link BetterQueue} according to a {@link CapacityPolicy}.
+ *
+ * Elements can be added and removed at both ends in O(1).  The elements live in
+ * deque[head], deque[head + 1], ..., wrapping around the end of the array, and a resize puts
+ * them back at index 0, exactly like BetterQueue does.
+ *
+ * As a BetterQueueInterface, add() adds to the back and peek()/remove() look at the front,
+ * so a BetterDeque works wherever a BetterQueue does.  removeFirst/removeLast and
+ * peekFirst/peekLast return <code>null</code> when the deque is empty.
+ *
+ * @param <E> the type of object this deque will be holding
+ */
+public class BetterDeque<E> implements BetterQueueInterface<E> {
+
+    /**
+     * Decides the initial capacity and when/how far to grow and shrink.
+     * Defaults to {@link CapacityPolicy#defaultPolicy()} (start at 8, double, halve).
+     */
+    private final CapacityPolicy policy;
+
+    private E[] deque;
+    private int head;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty deque
+     */
+    public BetterDeque() {
+        this(CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty deque that grows and shrinks according to the given policy
+     *
+     * @param policy capacity policy to use
+     * @throws NullPointerException if policy is null
+     */
+    @SuppressWarnings("unchecked")
+    public BetterDeque(CapacityPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+        this.capacity = policy.initialCapacity();
+        this.deque = (E[]) new Object[this.capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the array index of the element offset places behind the front
+     */
+    private int slot(int offset) {
+        return (int)(((long)this.head + offset) % this.capacity);
+    }
+
+    /**
+     * Moves the elements into a new array of the given capacity, with the front at index 0
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int newCap) {
+        E[] newDeque = (E[])new Object[newCap];
+        int firstRun = Integer.min(this.size, this.capacity - this.head);
+        System.arraycopy(this.deque, this.head, newDeque, 0, firstRun);
+        System.arraycopy(this.deque, 0, newDeque, firstRun, this.size - firstRun);
+        this.deque = newDeque;
+        this.capacity = newCap;
+        this.head = 0;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size < this.capacity) {
+            return;
+        }
+        resize(this.policy.grow(this.capacity));
+    }
+
+    private void sizeDown() {
+        int newCap = this.policy.shrink(this.size, this.capacity);
+        if (newCap != this.capacity) {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Add an item to the front of the deque
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     */
+    public void addFirst(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        this.sizeUp();
+        this.head = (this.head == 0) ? this.capacity - 1 : this.head - 1;
+        this.deque[this.head] = item;
+        this.size++;
+    }
+
+    /**
+     * Add an item to the back of the deque
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     */
+    public void addLast(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        this.sizeUp();
+        this.deque[slot(this.size)] = item;
+        this.size++;
+    }
+
+    /**
+     * Returns and removes the front of the deque
+     *
+     * @return the front of the deque, or <code>null</code> if this deque is empty
+     */
+    public E removeFirst() {
+        if (this.isEmpty()) { return null; }
+        E item = this.deque[this.head];
+        this.deque[this.head] = null;
+        this.head = (this.head + 1 == this.capacity) ? 0 : this.head + 1;
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns and removes the back of the deque
+     *
+     * @return the back of the deque, or <code>null</code> if this deque is empty
+     */
+    public E removeLast() {
+        if (this.isEmpty()) { return null; }
+        int last = slot(this.size - 1);
+        E item = this.deque[last];
+        this.deque[last] = null;
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the front of the deque (does not remove it) or <code>null</code> if the deque is empty
+     *
+     * @return front of the deque or <code>null</code> if the deque is empty
+     */
+    public E peekFirst() {
+        if (this.isEmpty()) { return null; }
+        return this.deque[this.head];
+    }
+
+    /**
+     * Returns the back of the deque (does not remove it) or <code>null</code> if the deque is empty
+     *
+     * @return back of the deque or <code>null</code> if the deque is empty
+     */
+    public E peekLast() {
+        if (this.isEmpty()) { return null; }
+        return this.deque[slot(this.size - 1)];
+    }
+
+    /**
+     * Add an item to the back of the deque, same as addLast
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public void add(E item) {
+        this.addLast(item);
+    }
+
+    /**
+     * Returns the front of the deque (does not remove it), same as peekFirst
+     *
+     * @return front of the deque or <code>null</code> if the deque is empty
+     */
+    @Override
+    public E peek() {
+        return this.peekFirst();
+    }
+
+    /**
+     * Returns and removes the front of the deque, same as removeFirst
+     *
+     * @return the front of the deque, or <code>null</code> if this deque is empty
+     */
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    /**
+     * Returns the number of elements in the deque
+     *
+     * @return integer representing the number of elements in the deque
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the deque is empty
+     *
+     * @return true if the deque is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the deque how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
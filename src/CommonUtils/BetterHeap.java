@@ -0,0 +1,408 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * @implNote A priority queue on an implicit d-ary heap, growing and shrinking like
+ * {@link BetterQueue} according to a {@link CapacityPolicy}.
+ *
+ * The smallest element (by the comparator, or natural ordering if none is given) is at index
+ * 0 and the children of index i are d*i+1 .. d*i+d.  A larger arity makes the heap shallower,
+ * so add and decreaseKey do fewer moves, and the children of a node sit next to each other in
+ * memory, so the extra comparisons in remove are cheap; 4 is a good default.
+ *
+ * Elements added with insert() get a Handle, which always knows the element's current index
+ * in the heap (the index map), so decreaseKey and remove(Handle) find their element in O(1)
+ * and take O(log_d n).  Elements added with add() get no handle and cost nothing extra.
+ * addAll() of a large batch rebuilds the heap bottom-up in O(n) instead of adding one by one.
+ *
+ * As a BetterQueueInterface, peek() and remove() return the smallest element, or
+ * <code>null</code> if the heap is empty.
+ *
+ * @param <E> the type of object this heap will be holding
+ */
+public class BetterHeap<E> implements BetterQueueInterface<E> {
+
+    /**
+     * Arity used when none is given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Lets the caller find an element in the heap again, to change its priority or remove it
+     *
+     * @param <E> the type of the element
+     */
+    public static final class Handle<E> {
+        private final BetterHeap<E> owner;
+        private E item;
+        /**
+         * index of the element in the heap, or -1 once it has left the heap
+         */
+        private int pos;
+
+        private Handle(BetterHeap<E> owner, E item) {
+            this.owner = owner;
+            this.item = item;
+        }
+
+        /**
+         * Returns the element this handle refers to
+         *
+         * @return the element
+         */
+        public E get() {
+            return this.item;
+        }
+
+        /**
+         * Returns whether the element is still in the heap
+         *
+         * @return true if the element has not been removed yet
+         */
+        public boolean isQueued() {
+            return this.pos >= 0;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final int arity;
+    private final CapacityPolicy policy;
+
+    /**
+     * items[i] is the element at heap index i and handles[i] its handle (null if it has none)
+     */
+    private E[] items;
+    private Handle<E>[] handles;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty heap ordered by the elements' natural ordering
+     */
+    public BetterHeap() {
+        this(null);
+    }
+
+    /**
+     * Constructs an empty heap ordered by the given comparator
+     *
+     * @param comparator ordering of the elements, or null for their natural ordering
+     */
+    public BetterHeap(Comparator<? super E> comparator) {
+        this(comparator, DEFAULT_ARITY, CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty heap with the given ordering, arity and capacity policy
+     *
+     * @param comparator ordering of the elements, or null for their natural ordering
+     * @param arity number of children per node
+     * @param policy capacity policy to use
+     * @throws IllegalArgumentException if arity is less than 2
+     * @throws NullPointerException if policy is null
+     */
+    @SuppressWarnings("unchecked")
+    public BetterHeap(Comparator<? super E> comparator, int arity, CapacityPolicy policy) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2: " + arity);
+        }
+        this.policy = Objects.requireNonNull(policy);
+        this.comparator = (comparator != null) ? comparator
+                : (a, b) -> ((Comparable<? super E>) a).compareTo(b);
+        this.arity = arity;
+        this.capacity = policy.initialCapacity();
+        this.items = (E[]) new Object[this.capacity];
+        this.handles = (Handle<E>[]) new Handle<?>[this.capacity];
+        this.size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int newCap) {
+        E[] newItems = (E[]) new Object[newCap];
+        Handle<E>[] newHandles = (Handle<E>[]) new Handle<?>[newCap];
+        System.arraycopy(this.items, 0, newItems, 0, this.size);
+        System.arraycopy(this.handles, 0, newHandles, 0, this.size);
+        this.items = newItems;
+        this.handles = newHandles;
+        this.capacity = newCap;
+    }
+
+    /**
+     * Grows (at most once) so that at least required elements fit
+     */
+    private void sizeUpTo(long required) throws OutOfMemoryError {
+        if (required <= this.capacity) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        int newCap = this.capacity;
+        while (newCap < required) {
+            newCap = this.policy.grow(newCap);
+        }
+        resize(newCap);
+    }
+
+    private void sizeDown() {
+        int newCap = this.policy.shrink(this.size, this.capacity);
+        if (newCap != this.capacity) {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Puts item (and its handle) at heap index i
+     */
+    private void place(int i, E item, Handle<E> handle) {
+        this.items[i] = item;
+        this.handles[i] = handle;
+        if (handle != null) {
+            handle.pos = i;
+        }
+    }
+
+    /**
+     * Moves the hole at index i up until item fits there, then puts item in it
+     */
+    private void siftUp(int i, E item, Handle<E> handle) {
+        while (i > 0) {
+            int parent = (i - 1) / this.arity;
+            E p = this.items[parent];
+            if (this.comparator.compare(item, p) >= 0) {
+                break;
+            }
+            place(i, p, this.handles[parent]);
+            i = parent;
+        }
+        place(i, item, handle);
+    }
+
+    /**
+     * Moves the hole at index i down until item fits there, then puts item in it
+     * @return the index item ended up at
+     */
+    private int siftDown(int i, E item, Handle<E> handle) {
+        int n = this.size;
+        while (true) {
+            long first = (long) this.arity * i + 1;
+            if (first >= n) {
+                break;
+            }
+            int last = (int) Long.min(first + this.arity, n);
+            int best = (int) first;
+            E bestItem = this.items[best];
+            for (int c = best + 1; c < last; c++) {
+                if (this.comparator.compare(this.items[c], bestItem) < 0) {
+                    best = c;
+                    bestItem = this.items[c];
+                }
+            }
+            if (this.comparator.compare(bestItem, item) >= 0) {
+                break;
+            }
+            place(i, bestItem, this.handles[best]);
+            i = best;
+        }
+        place(i, item, handle);
+        return i;
+    }
+
+    /**
+     * Add an item to the heap
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public void add(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        this.sizeUpTo((long) this.size + 1);
+        this.size++;
+        siftUp(this.size - 1, item, null);
+    }
+
+    /**
+     * Add an item to the heap and return a handle to it, for decreaseKey and remove(Handle)
+     *
+     * @param item item to add
+     * @return handle to the item
+     * @throws NullPointerException if the specified element is null
+     */
+    public Handle<E> insert(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        Handle<E> handle = new Handle<>(this, item);
+        this.sizeUpTo((long) this.size + 1);
+        this.size++;
+        siftUp(this.size - 1, item, handle);
+        return handle;
+    }
+
+    /**
+     * Adds src[off], ..., src[off+len-1].  If the batch is at least as big as the heap, the
+     * whole heap is rebuilt bottom-up in O(size + len); otherwise they are added one by one.
+     * Either all of them are added or, if one of them is null, none are.
+     *
+     * @param src array holding the items to add
+     * @param off index of the first item to add
+     * @param len number of items to add
+     * @throws NullPointerException if src or any of the items is null
+     * @throws IndexOutOfBoundsException if off and len don't describe a range inside src
+     */
+    @Override
+    public void addAll(E[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        for (int i = off; i < off + len; i++) {
+            if (src[i] == null) { throw new NullPointerException(); }
+        }
+        this.sizeUpTo((long) this.size + len);
+        if (len < this.size) {
+            for (int i = off; i < off + len; i++) {
+                this.size++;
+                siftUp(this.size - 1, src[i], null);
+            }
+            return;
+        }
+        System.arraycopy(src, off, this.items, this.size, len);
+        this.size += len;
+        /* Floyd's heap construction: sift down every internal node, last one first */
+        for (int i = (this.size - 2) / this.arity; i >= 0; i--) {
+            siftDown(i, this.items[i], this.handles[i]);
+        }
+    }
+
+    /**
+     * Returns the smallest element (does not remove it) or <code>null</code> if the heap is empty
+     *
+     * @return smallest element or <code>null</code> if the heap is empty
+     */
+    @Override
+    public E peek() {
+        if (this.isEmpty()) { return null; }
+        return this.items[0];
+    }
+
+    /**
+     * Returns and removes the smallest element
+     *
+     * @return the smallest element, or <code>null</code> if this heap is empty
+     */
+    @Override
+    public E remove() {
+        if (this.isEmpty()) { return null; }
+        E item = this.items[0];
+        removeAt(0);
+        return item;
+    }
+
+    /**
+     * Removes the element at heap index i, filling the hole with the last element
+     */
+    private void removeAt(int i) {
+        Handle<E> handle = this.handles[i];
+        if (handle != null) {
+            handle.pos = -1;
+        }
+        this.size--;
+        int last = this.size;
+        E moved = this.items[last];
+        Handle<E> movedHandle = this.handles[last];
+        this.items[last] = null;
+        this.handles[last] = null;
+        if (i != last) {
+            if (siftDown(i, moved, movedHandle) == i) {
+                /* didn't go down, so it may have to go up (only possible when i > 0) */
+                siftUp(i, moved, movedHandle);
+            }
+        }
+        this.sizeDown();
+    }
+
+    /**
+     * Replaces the element of handle with one that orders no later, and moves it up accordingly
+     *
+     * @param handle handle returned by insert
+     * @param item new element, comparing less than or equal to the current one
+     * @throws NullPointerException if item is null
+     * @throws IllegalArgumentException if the handle's element is not in this heap, or item
+     *          orders after the current element
+     */
+    public void decreaseKey(Handle<E> handle, E item) {
+        if (item == null) { throw new NullPointerException(); }
+        checkHandle(handle);
+        if (this.comparator.compare(item, handle.item) > 0) {
+            throw new IllegalArgumentException("New element orders after the current one");
+        }
+        handle.item = item;
+        siftUp(handle.pos, item, handle);
+    }
+
+    /**
+     * Removes the element of handle from the heap
+     *
+     * @param handle handle returned by insert
+     * @return true if the element was removed, false if it had already left the heap
+     * @throws IllegalArgumentException if the handle belongs to a different heap
+     */
+    public boolean remove(Handle<E> handle) {
+        if (handle.owner != this) {
+            throw new IllegalArgumentException("Handle belongs to a different heap");
+        }
+        if (handle.pos < 0) {
+            return false;
+        }
+        removeAt(handle.pos);
+        return true;
+    }
+
+    private void checkHandle(Handle<E> handle) {
+        if (handle.owner != this || handle.pos < 0) {
+            throw new IllegalArgumentException("Handle's element is not in this heap");
+        }
+    }
+
+    /**
+     * Returns the number of children per node
+     *
+     * @return arity of the heap
+     */
+    public int arity() {
+        return this.arity;
+    }
+
+    /**
+     * Returns the number of elements in the heap
+     *
+     * @return integer representing the number of elements in the heap
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the heap is empty
+     *
+     * @return true if the heap is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the heap how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
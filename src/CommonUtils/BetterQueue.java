@@ -1,6 +1,14 @@
 package CommonUtils;
 
 import java.awt.*;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @implNote implement a queue using a circular array with initial capacity 8.
@@ -9,7 +17,8 @@ import java.awt.*;
  *
  * You are explicitly forbidden from using java.util.Queue and any subclass
  * (including LinkedList, for example) and any other java.util.* library EXCEPT java.util.Objects.
- * Write your own implementation of a Queue.
+ * Write your own implementation of a Queue.  (The iteration support uses the java.util
+ * iterator/spliterator interfaces, but none of their implementations.)
  *
  * Another great example of why we are implementing our own queue here is that
  * our queue is actually FASTER than Java's LinkedList (our solution is 2x faster!). This is due
@@ -21,36 +30,28 @@ import java.awt.*;
  *
  * @param <E> the type of object this queue will be holding
  */
-public class BetterQueue<E> implements BetterQueueInterface<E> {
+public class BetterQueue<E> implements BetterQueueInterface<E>, Iterable<E> {
 
     /**
-     * Initial size of queue.  Do not decrease capacity below this value.
+     * Decides the initial capacity and when/how far to grow and shrink.
+     * Defaults to {@link CapacityPolicy#defaultPolicy()} (start at 8, double, halve).
      */
-    private final int INIT_CAPACITY = 8;
-
+    private final CapacityPolicy policy;
 
     /**
-     * If the array needs to increase in size, it should be increased to
-     * old capacity * INCREASE_FACTOR.
-     *
-     * If it cannot increase by that much (old capacity * INCREASE_FACTOR > max int),
-     * it should increase by CONSTANT_INCREMENT.
-     *
-     * If that can't be done either throw OutOfMemoryError()
-     *
+     * Resizes of at most this many elements are always copied in one go.
      */
-    private final int INCREASE_FACTOR = 2;
-    private final int CONSTANT_INCREMENT = 1 << 5; // 32
-
-
+    private static final int EAGER_COPY_LIMIT = 1 << 6;
 
     /**
-     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
-     * the capacity of the UDS to max(capacity * DECREASE_FACTOR, initial capacity).
-     *
+     * Minimum number of elements an incremental resize moves per add/remove.
      */
-    private final double DECREASE_FACTOR = 0.5;
+    private static final int MIGRATION_STEP = 4;
 
+    /**
+     * If true, resizes are spread over the following operations, see {@link #BetterQueue(CapacityPolicy, boolean)}.
+     */
+    private final boolean incremental;
 
     /**
      * Array to store elements in (according to the implementation
@@ -77,67 +78,243 @@ public class BetterQueue<E> implements BetterQueueInterface<E> {
     private long capacity;
     private long size;
 
+    /**
+     * The array a resize is moving away from, or null if no resize is in progress.
+     *
+     * A resize lays the elements out in the new array with "first" at index 0, like a normal
+     * resize, but leaves them where they are for now: element k of the new layout is still at
+     * oldQueue[(oldOut + k) % oldQueue.length] for out_idx <= k < migrateTo.  Those slots of the
+     * new array stay reserved (the size counts them), so adds can never run into them.
+     */
+    private E[] oldQueue;
+    private int oldOut;
+    private int migrateTo;
+
+    /**
+     * Number of adds/removes so far, so iterators can tell the queue changed under them.
+     */
+    private int modCount;
+
     /**
      * Constructs an empty queue
      */
-    @SuppressWarnings("unchecked")
     public BetterQueue(){
+        this(CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty queue with room for expectedSize elements, so that filling it up to
+     * that size never resizes.  Once elements are removed the default policy may shrink it again.
+     *
+     * @param expectedSize number of elements the queue is expected to hold
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    @SuppressWarnings("unchecked")
+    public BetterQueue(int expectedSize){
+        this(CapacityPolicy.defaultPolicy());
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        if (expectedSize > this.capacity) {
+            /* allocated directly: nothing to move, and subclasses' onResize must not see it */
+            this.queue = (E[]) new Object[expectedSize];
+            this.capacity = expectedSize;
+        }
+    }
+
+    /**
+     * Constructs an empty queue that grows and shrinks according to the given policy
+     *
+     * @param policy capacity policy to use
+     * @throws NullPointerException if policy is null
+     */
+    public BetterQueue(CapacityPolicy policy){
+        this(policy, false);
+    }
+
+    /**
+     * Constructs an empty queue that grows and shrinks according to the given policy.
+     *
+     * In incremental mode a resize does not copy the whole array inside one add or remove.  The
+     * old and new arrays stay live side by side and every following add/remove moves a few
+     * elements over (never more than a constant number for a given policy) until the old array
+     * is empty.  Shrinking is postponed until the queue is at most half as full as the smaller
+     * array, so the move is guaranteed to be done before the new array could fill up.  Bulk
+     * operations (addAll, drainTo) finish any move in progress and resize in one go.
+     *
+     * @param policy capacity policy to use
+     * @param incremental true to spread resizes over many operations
+     * @throws NullPointerException if policy is null
+     */
+    @SuppressWarnings("unchecked")
+    public BetterQueue(CapacityPolicy policy, boolean incremental){
+        this.policy = Objects.requireNonNull(policy);
+        this.incremental = incremental;
         this.in_idx = 0;
         this.out_idx = 0;
         this.size = 0;
-        this.capacity = INIT_CAPACITY;
-        this.queue = (E[]) new Object[INIT_CAPACITY];
-    }
-    private int generateNewCapacityUpsize() throws OutOfMemoryError {
-        long newCap = ((long)this.capacity) * ((long)INCREASE_FACTOR);
-        if (newCap > Integer.MAX_VALUE) {
-            newCap = ((long)this.capacity) + ((long)CONSTANT_INCREMENT);
-            if (newCap > Integer.MAX_VALUE) {
-                throw new OutOfMemoryError();
-            }
-        }
-        return (int)newCap;
+        this.capacity = policy.initialCapacity();
+        this.queue = (E[]) new Object[(int)this.capacity];
+    }
+
+    /**
+     * Called whenever the queue switches to an array of a different capacity.  Does nothing
+     * here; {@link InstrumentedBetterQueue} overrides it to count resizes.
+     *
+     * @param oldCapacity capacity before the resize
+     * @param newCapacity capacity after the resize
+     */
+    protected void onResize(int oldCapacity, int newCapacity) {
+    }
+
+    /**
+     * Called whenever elements are copied from an old array to a new one, either all at once or,
+     * in incremental mode, a few at a time.  Does nothing here; {@link InstrumentedBetterQueue}
+     * overrides it to count copies.
+     *
+     * @param count number of elements copied
+     */
+    protected void onCopy(int count) {
+    }
+
+    /**
+     * Moves the elements into a new array of the given capacity, with "first" at index 0.
+     * The elements occupy at most two runs of the old array, so this is at most two copies.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int newCap) {
+        E[] newQueue = (E[])new Object[newCap];
+        int count = (int)this.size;
+        int firstRun = (int)Long.min(this.size, this.capacity - this.out_idx);
+        System.arraycopy(this.queue, (int)this.out_idx, newQueue, 0, firstRun);
+        System.arraycopy(this.queue, 0, newQueue, firstRun, count - firstRun);
+        onResize((int)this.capacity, newCap);
+        onCopy(count);
+        this.queue = newQueue;
+        this.capacity = newCap;
+        this.out_idx = 0;
+        this.in_idx = (count == newCap) ? 0 : count;
     }
 
+    /**
+     * Resizes right away, or in incremental mode starts moving the elements over bit by bit
+     */
     @SuppressWarnings("unchecked")
+    private void startResize(int newCap) {
+        if (!this.incremental || this.size <= EAGER_COPY_LIMIT) {
+            resize(newCap);
+            return;
+        }
+        this.oldQueue = this.queue;
+        this.oldOut = (int)this.out_idx;
+        this.migrateTo = (int)this.size;
+        onResize((int)this.capacity, newCap);
+        this.queue = (E[])new Object[newCap];
+        this.capacity = newCap;
+        this.out_idx = 0;
+        this.in_idx = this.size;
+    }
+
+    /**
+     * Returns the slot of the old array that still holds element k of the new layout
+     */
+    private int oldSlot(long k) {
+        return (int)((this.oldOut + k) % this.oldQueue.length);
+    }
+
+    /**
+     * Moves the next few elements of an incremental resize, from the back of the old array.
+     * Moves enough that the old array is empty before the new one runs out of room.
+     */
+    private void migrate() {
+        if (this.oldQueue == null) {
+            return;
+        }
+        long pending = this.migrateTo - this.out_idx;
+        long room = this.capacity - this.size;
+        long count = (room == 0) ? pending
+                : Long.min(pending, Long.max(MIGRATION_STEP, (pending + room - 1) / room));
+        for (long k = this.migrateTo - count; k < this.migrateTo; k++) {
+            this.queue[(int)k] = this.oldQueue[oldSlot(k)];
+        }
+        onCopy((int)count);
+        this.migrateTo -= (int)count;
+        if (this.migrateTo <= this.out_idx) {
+            this.oldQueue = null;
+            this.migrateTo = 0;
+        }
+    }
+
+    /**
+     * Moves whatever is left of an incremental resize
+     */
+    private void finishMigration() {
+        if (this.oldQueue == null) {
+            return;
+        }
+        for (long k = this.out_idx; k < this.migrateTo; k++) {
+            this.queue[(int)k] = this.oldQueue[oldSlot(k)];
+        }
+        onCopy((int)Long.max(0, this.migrateTo - this.out_idx));
+        this.oldQueue = null;
+        this.migrateTo = 0;
+    }
+
     private void sizeUp() throws OutOfMemoryError {
         if (this.size < this.capacity) {
             /* nothing to be done, yay! */
             return;
         }
-        /* let's determine what the new size will be */
-        int newCap = generateNewCapacityUpsize();
-        E[] newQueue = (E[])new Object[newCap];
-        /* copy over */
-        for (int i = 0; i < size; i++) {
-            long from = (this.in_idx + i) % this.capacity;
-            newQueue[i] = queue[(int)from];
+        /* normally already done, migrate() makes sure of it */
+        this.finishMigration();
+        startResize(this.policy.grow((int)this.capacity));
+    }
+
+    private void sizeDown() {
+        if (this.oldQueue != null) {
+            return;
         }
-        this.queue = newQueue;
-        this.capacity = newCap;
-        this.out_idx = 0;
-        this.in_idx = size;
+        int newCap = this.policy.shrink((int)this.size, (int)this.capacity);
+        if (newCap == this.capacity) {
+            return;
+        }
+        if (this.incremental && this.size > EAGER_COPY_LIMIT && this.size > newCap / 2) {
+            /* wait until the move can finish before the smaller array fills up */
+            return;
+        }
+        startResize(newCap);
     }
 
-    private void sizeDown() throws OutOfMemoryError {
-        /* too big to downsize */
-        if (this.size >= this.capacity * DECREASE_FACTOR) {
+    /**
+     * Grows (at most once) so that at least required elements fit
+     */
+    private void sizeUpTo(long required) throws OutOfMemoryError {
+        if (required <= this.capacity) {
             return;
         }
-        /* also, cannot go smaller than min capacity */
-        if (this.size <= INIT_CAPACITY) { return; }
+        if (required > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        /* step through the policy as many times as needed, but only copy once */
+        int newCap = (int)this.capacity;
+        while (newCap < required) {
+            newCap = this.policy.grow(newCap);
+        }
+        resize(newCap);
+    }
 
-        /* determine new capacity & generate */
-        int newCap = Integer.max((int)(DECREASE_FACTOR * this.capacity), INIT_CAPACITY);
-        E[] newQueue = (E[])new Object[newCap];
-        for (int i = 0; i < this.size; i++) {
-            long from = (this.out_idx + i) % this.capacity;
-            newQueue[i] = queue[(int)from];
+    /**
+     * Shrinks (at most once) as far as the policy allows after removing many elements
+     */
+    private void sizeDownFully() {
+        int newCap = (int)this.capacity;
+        int next;
+        while ((next = this.policy.shrink((int)this.size, newCap)) != newCap) {
+            newCap = next;
+        }
+        if (newCap != this.capacity) {
+            resize(newCap);
         }
-        this.queue = newQueue;
-        this.capacity = newCap;
-        this.out_idx = 0;
-        this.in_idx = size;
     }
     /**
      * Add an item to the back of the queue
@@ -156,6 +333,8 @@ public class BetterQueue<E> implements BetterQueueInterface<E> {
         /* update indices */
         this.in_idx = (this.in_idx + 1) % this.capacity;
         this.size++;
+        this.modCount++;
+        this.migrate();
     }
 
     /**
@@ -166,6 +345,9 @@ public class BetterQueue<E> implements BetterQueueInterface<E> {
     @Override
     public E peek() {
         if (this.isEmpty()) { return null; }
+        if (this.out_idx < this.migrateTo) {
+            return this.oldQueue[oldSlot(this.out_idx)];
+        }
         return this.queue[(int)this.out_idx];
     }
 
@@ -178,17 +360,128 @@ public class BetterQueue<E> implements BetterQueueInterface<E> {
     public E remove() {
         if (this.isEmpty()) { return null; }
         /*  take the item out */
-        E item = this.queue[(int)this.out_idx];
-        this.queue[(int)this.out_idx] = null;
+        E item;
+        if (this.out_idx < this.migrateTo) {
+            /* the front hasn't been moved yet */
+            int slot = oldSlot(this.out_idx);
+            item = this.oldQueue[slot];
+            this.oldQueue[slot] = null;
+        } else {
+            item = this.queue[(int)this.out_idx];
+            this.queue[(int)this.out_idx] = null;
+        }
         /* update out index and size */
         this.out_idx = (this.out_idx + 1) % this.capacity;
         this.size--;
+        this.modCount++;
+        this.migrate();
         /* size the array down, if necessary */
         this.sizeDown();
         /* return the item */
         return item;
     }
 
+    /**
+     * Adds src[off], src[off+1], ..., src[off+len-1] to the back of the queue, in that order.
+     * Either all of them are added or, if one of them is null, none are.
+     *
+     * @param src array holding the items to add
+     * @param off index of the first item to add
+     * @param len number of items to add
+     * @throws NullPointerException if src or any of the items is null
+     * @throws IndexOutOfBoundsException if off and len don't describe a range inside src
+     */
+    @Override
+    public void addAll(E[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        for (int i = off; i < off + len; i++) {
+            if (src[i] == null) { throw new NullPointerException(); }
+        }
+        this.finishMigration();
+        this.sizeUpTo(this.size + len);
+        /* the free space is at most two runs: [in, end) and [0, out) */
+        int in = (int)this.in_idx;
+        int firstRun = Integer.min(len, (int)this.capacity - in);
+        System.arraycopy(src, off, this.queue, in, firstRun);
+        System.arraycopy(src, off + firstRun, this.queue, 0, len - firstRun);
+        this.in_idx = (this.in_idx + len) % this.capacity;
+        this.size += len;
+        this.modCount++;
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and stores them in dst[0], dst[1], ...
+     * in the order they were removed
+     *
+     * @param dst array to store the removed items in
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IndexOutOfBoundsException if max is negative or greater than dst.length
+     */
+    @Override
+    public int drainTo(E[] dst, int max) {
+        Objects.checkIndex(max, dst.length + 1);
+        this.finishMigration();
+        int n = (int)Long.min(max, this.size);
+        int out = (int)this.out_idx;
+        int firstRun = Integer.min(n, (int)this.capacity - out);
+        System.arraycopy(this.queue, out, dst, 0, firstRun);
+        System.arraycopy(this.queue, 0, dst, firstRun, n - firstRun);
+        /* clear the slots we took from so they don't keep the items alive */
+        for (int i = out; i < out + firstRun; i++) {
+            this.queue[i] = null;
+        }
+        for (int i = 0; i < n - firstRun; i++) {
+            this.queue[i] = null;
+        }
+        this.out_idx = (this.out_idx + n) % this.capacity;
+        this.size -= n;
+        this.modCount++;
+        this.sizeDownFully();
+        return n;
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and passes them to sink in the order
+     * they were removed.  sink must not add to or remove from the queue; if it does, the drain
+     * stops right after that item, keeping the items handed out so far removed and whatever
+     * sink did to the queue.
+     *
+     * @param sink receives each removed item
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IllegalArgumentException if max is negative
+     * @throws ConcurrentModificationException if sink adds to or removes from the queue
+     */
+    @Override
+    public int drainTo(Consumer<? super E> sink, int max) {
+        if (max < 0) { throw new IllegalArgumentException("max must not be negative: " + max); }
+        this.finishMigration();
+        int n = (int)Long.min(max, this.size);
+        int out = (int)this.out_idx;
+        int cap = (int)this.capacity;
+        try {
+            for (int i = 0; i < n; i++) {
+                E item = this.queue[out];
+                this.queue[out] = null;
+                if (++out == cap) { out = 0; }
+                this.out_idx = out;
+                this.size--;
+                int expectedModCount = ++this.modCount;
+                sink.accept(item);
+                /* out and cap are stale once sink has changed the queue */
+                if (this.modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        } finally {
+            /* whatever was handed out stays removed, even if sink threw or started a move */
+            this.finishMigration();
+            this.sizeDownFully();
+        }
+        return n;
+    }
+
     /**
      * Returns the number of elements in the queue
      *
@@ -209,6 +502,226 @@ public class BetterQueue<E> implements BetterQueueInterface<E> {
         return (this.size == 0);
     }
 
+    /**
+     * Makes sure the queue can hold at least minCapacity elements without resizing.  If it
+     * has to grow, it grows the way the policy would, only in one go, so the new capacity may
+     * be larger than minCapacity.
+     *
+     * @param minCapacity number of elements that must fit
+     * @throws OutOfMemoryError if the queue cannot grow that far
+     */
+    public void ensureCapacity(int minCapacity) throws OutOfMemoryError {
+        if (minCapacity <= this.capacity) {
+            return;
+        }
+        this.finishMigration();
+        this.sizeUpTo(minCapacity);
+    }
+
+    /**
+     * Shrinks the array to exactly the number of elements in the queue (at least 1), giving
+     * back all unused memory.  The next add will have to grow it again.
+     */
+    public void trimToSize() {
+        this.finishMigration();
+        int newCap = (int)Long.max(1, this.size);
+        if (newCap != this.capacity) {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Returns the number of elements the queue can hold before it has to grow
+     *
+     * @return current capacity
+     */
+    public int capacity() {
+        return (int)this.capacity;
+    }
+
+    /**
+     * Returns an estimate of the heap memory the queue itself holds on to: the queue object
+     * and its array (both arrays during an incremental resize).  The elements are not counted,
+     * since they belong to the caller; add size() times their size to budget for them.
+     *
+     * @return estimated size of the queue in bytes, not counting its elements
+     */
+    public long estimatedRetainedBytes() {
+        long bytes = Footprint.object(3, 45) + Footprint.array(this.queue.length, Footprint.REFERENCE_BYTES);
+        if (this.oldQueue != null) {
+            bytes += Footprint.array(this.oldQueue.length, Footprint.REFERENCE_BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns an iterator over the elements from front to back.  The iterator is fail-fast: if
+     * the queue is added to or removed from while iterating, it throws
+     * ConcurrentModificationException.
+     *
+     * @return an iterator over the queue, front first
+     */
+    @Override
+    public Iterator<E> iterator() {
+        this.finishMigration();
+        return new Itr();
+    }
+
+    /**
+     * Passes every element to action, from front to back, without removing any and without
+     * allocating anything
+     *
+     * @param action receives each element
+     * @throws ConcurrentModificationException if action adds to or removes from the queue
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        this.finishMigration();
+        int expectedModCount = this.modCount;
+        E[] q = this.queue;
+        int out = (int)this.out_idx;
+        int n = (int)this.size;
+        int firstRun = Integer.min(n, q.length - out);
+        for (int i = out; i < out + firstRun && this.modCount == expectedModCount; i++) {
+            action.accept(q[i]);
+        }
+        for (int i = 0; i < n - firstRun && this.modCount == expectedModCount; i++) {
+            action.accept(q[i]);
+        }
+        if (this.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sized, splittable spliterator over the elements from front to back.  It is
+     * fail-fast like the iterator.  Splitting halves the remaining range, so a parallel stream
+     * over a large queue splits evenly across threads.
+     *
+     * @return a spliterator over the queue, front first
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        this.finishMigration();
+        return new RingSpliterator(0, (int)this.size, this.modCount);
+    }
+
+    /**
+     * Returns a sequential stream over the elements from front to back; call parallel() on it
+     * to aggregate across threads.  The queue must not be changed while the stream runs.
+     *
+     * @return a stream over the queue
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Iterator over the queue, front first.  k is the position from the front.
+     */
+    private final class Itr implements Iterator<E> {
+        private int k;
+        private final int expectedModCount = BetterQueue.this.modCount;
+
+        @Override
+        public boolean hasNext() {
+            return this.k < BetterQueue.this.size;
+        }
+
+        @Override
+        public E next() {
+            if (BetterQueue.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.k >= BetterQueue.this.size) {
+                throw new NoSuchElementException();
+            }
+            return BetterQueue.this.queue[(int)((BetterQueue.this.out_idx + this.k++) % BetterQueue.this.capacity)];
+        }
+    }
+
+    /**
+     * Spliterator over positions [lo, hi) from the front of the queue
+     */
+    private final class RingSpliterator implements Spliterator<E> {
+        private int lo;
+        private final int hi;
+        private final int expectedModCount;
+
+        RingSpliterator(int lo, int hi, int expectedModCount) {
+            this.lo = lo;
+            this.hi = hi;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (BetterQueue.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.lo >= this.hi) {
+                return false;
+            }
+            action.accept(BetterQueue.this.queue[(int)((BetterQueue.this.out_idx + this.lo++) % BetterQueue.this.capacity)]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (BetterQueue.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            /* the range is at most two runs of the array: up to the end, then from 0 */
+            E[] q = BetterQueue.this.queue;
+            int start = (int)((BetterQueue.this.out_idx + this.lo) % BetterQueue.this.capacity);
+            int n = this.hi - this.lo;
+            int firstRun = Integer.min(n, q.length - start);
+            this.lo = this.hi;
+            for (int i = start; i < start + firstRun; i++) {
+                action.accept(q[i]);
+            }
+            for (int i = 0; i < n - firstRun; i++) {
+                action.accept(q[i]);
+            }
+            if (BetterQueue.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (this.lo + this.hi) >>> 1;
+            if (mid <= this.lo) {
+                return null;
+            }
+            Spliterator<E> prefix = new RingSpliterator(this.lo, mid, this.expectedModCount);
+            this.lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.hi - this.lo;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+
+    /**
+     * Returns how many elements an incremental resize still has to move (0 when none is in progress)
+     *
+     * @return number of elements still in the old array
+     */
+    public int pendingMigration() {
+        return (this.oldQueue == null) ? 0 : (int)(this.migrateTo - this.out_idx);
+    }
+
     public int getInIndex() {
         return (int)this.in_idx;
     }
@@ -1,5 +1,8 @@
 package CommonUtils;
 
+import java.util.Objects;
+import java.util.function.Consumer;
+
 /**
  * Interface for our new BetterQueue object.
  *
@@ -41,6 +44,60 @@ public interface BetterQueueInterface<E> {
      */
     boolean isEmpty();
 
+    /**
+     * Adds src[off], src[off+1], ..., src[off+len-1] to the back of the queue, in that order.
+     * Either all of them are added or, if one of them is null, none are.
+     * @param src array holding the items to add
+     * @param off index of the first item to add
+     * @param len number of items to add
+     * @throws NullPointerException if src or any of the items is null
+     * @throws IndexOutOfBoundsException if off and len don't describe a range inside src
+     */
+    default void addAll(E[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        for (int i = off; i < off + len; i++) {
+            Objects.requireNonNull(src[i]);
+        }
+        for (int i = off; i < off + len; i++) {
+            add(src[i]);
+        }
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and stores them in dst[0], dst[1], ...
+     * in the order they were removed
+     * @param dst array to store the removed items in
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IndexOutOfBoundsException if max is negative or greater than dst.length
+     */
+    default int drainTo(E[] dst, int max) {
+        Objects.checkIndex(max, dst.length + 1);
+        int n = 0;
+        while (n < max && !isEmpty()) {
+            dst[n++] = remove();
+        }
+        return n;
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and passes them to sink in the order
+     * they were removed
+     * @param sink receives each removed item
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IllegalArgumentException if max is negative
+     */
+    default int drainTo(Consumer<? super E> sink, int max) {
+        if (max < 0) { throw new IllegalArgumentException("max must not be negative: " + max); }
+        int n = 0;
+        while (n < max && !isEmpty()) {
+            sink.accept(remove());
+            n++;
+        }
+        return n;
+    }
+
     /**
      * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
      * @param g graphics object to draw on
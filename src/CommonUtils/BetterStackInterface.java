@@ -45,6 +45,63 @@ public interface BetterStackInterface<E> {
      */
     int size();
 
+    /**
+     * Pushes src[off], src[off+1], ..., src[off+len-1] onto the stack, in that order,
+     * so src[off+len-1] ends up on top.  Either all of them are pushed or, if one of them
+     * is null, none are.
+     * @param src array holding the items to push
+     * @param off index of the first item to push
+     * @param len number of items to push
+     * @throws NullPointerException if src or any of the items is null
+     * @throws IndexOutOfBoundsException if off and len don't describe a range inside src
+     * @throws OutOfMemoryError if the underlying data structure cannot hold any more elements
+     */
+    default void pushAll(E[] src, int off, int len) throws OutOfMemoryError {
+        if (off < 0 || len < 0 || off > src.length - len) {
+            throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+                    + ") out of bounds for length " + src.length);
+        }
+        for (int i = off; i < off + len; i++) {
+            if (src[i] == null) { throw new NullPointerException(); }
+        }
+        for (int i = off; i < off + len; i++) {
+            push(src[i]);
+        }
+    }
+
+    /**
+     * Pops up to n items off the stack.  They are stored in dst[0], ..., dst[count-1] in stack
+     * order, so dst[count-1] is the item that was on top; pushAll(dst, 0, count) undoes the call.
+     * @param dst array to store the popped items in
+     * @param n maximum number of items to pop
+     * @return the number of items popped (less than n only if the stack ran out)
+     * @throws IndexOutOfBoundsException if n is negative or greater than dst.length
+     */
+    default int popN(E[] dst, int n) {
+        if (n < 0 || n > dst.length) {
+            throw new IndexOutOfBoundsException("Index " + n + " out of bounds for length " + (dst.length + 1));
+        }
+        int count = Integer.min(n, size());
+        for (int i = count - 1; i >= 0; i--) {
+            dst[i] = pop();
+        }
+        return count;
+    }
+
+    /**
+     * Discards items from the top of the stack until it holds newSize items
+     * @param newSize number of items to keep
+     * @throws IllegalArgumentException if newSize is negative or greater than size()
+     */
+    default void truncate(int newSize) {
+        if (newSize < 0 || newSize > size()) {
+            throw new IllegalArgumentException("Cannot truncate a stack of size " + size() + " to " + newSize);
+        }
+        while (size() > newSize) {
+            pop();
+        }
+    }
+
     /**
      * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
      * @param g graphics object to draw on
@@ -0,0 +1,255 @@
+package CommonUtils;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * @implNote A queue that can hold more than Integer.MAX_VALUE elements.
+ *
+ * A single Java array is limited to 2^31 - 1 slots, so the elements are kept in fixed-size
+ * pages of 2^pageShift slots each, and a directory array holds the pages.  Element i of the
+ * queue (counting from the front) lives at page (out_idx + i) >>> pageShift past the head
+ * page, slot (out_idx + i) & (pageSize - 1), so get(long) is two array loads and no
+ * division.  Sizes and indices are longs.
+ *
+ * The directory is itself circular, indexed by absolute page number modulo its length (a
+ * power of two).  add only ever allocates a whole new page at the back, and remove drops the
+ * head page once it has been emptied, so elements are never copied.  Only the directory is
+ * resized, by the usual doubling/halving, and that copies page references, not elements.  The
+ * most recently dropped page is kept and reused for the next new one, so a queue whose size
+ * hovers around a page boundary does not keep allocating.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class BigBetterQueue<E> {
+
+    /**
+     * Default log2 of the number of elements per page.
+     */
+    private static final int DEFAULT_PAGE_SHIFT = 12;
+
+    /**
+     * Initial length of the page directory.  Do not shrink it below this value.
+     */
+    private static final int INIT_PAGES = 8;
+
+    /**
+     * Largest directory length; a power of two, like every other directory length.
+     */
+    private static final int MAX_PAGES = 1 << 30;
+
+    private final int pageShift;
+    private final int pageSize;
+    private final int pageMask;
+
+    /**
+     * Circular directory of pages: page number p is at pages[p & (pages.length - 1)].
+     * Elements are read from page headPage at out_idx and written to page tailPage at in_idx.
+     */
+    private Object[][] pages;
+    private long headPage;
+    private long tailPage;
+    private int out_idx;
+    private int in_idx;
+    private long size;
+
+    /**
+     * Last page dropped from the front, emptied and ready for reuse, or null
+     */
+    private Object[] sparePage;
+
+    /**
+     * Constructs an empty queue
+     */
+    public BigBetterQueue() {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    /**
+     * Constructs an empty queue with 2^pageShift elements per page
+     *
+     * @param pageShift log2 of the number of elements per page, from 0 to 30
+     * @throws IllegalArgumentException if pageShift is out of range
+     */
+    public BigBetterQueue(int pageShift) {
+        if (pageShift < 0 || pageShift > 30) {
+            throw new IllegalArgumentException("pageShift must be between 0 and 30: " + pageShift);
+        }
+        this.pageShift = pageShift;
+        this.pageSize = 1 << pageShift;
+        this.pageMask = this.pageSize - 1;
+        this.pages = new Object[INIT_PAGES][];
+        this.pages[0] = new Object[this.pageSize];
+        this.headPage = 0;
+        this.tailPage = 0;
+        this.out_idx = 0;
+        this.in_idx = 0;
+        this.size = 0;
+    }
+
+    private Object[] page(long pageNumber) {
+        return this.pages[(int) (pageNumber & (this.pages.length - 1))];
+    }
+
+    /**
+     * Moves the live page references into a directory of the given length
+     */
+    private void resizeDirectory(int newLength) {
+        Object[][] newPages = new Object[newLength][];
+        for (long p = this.headPage; p <= this.tailPage; p++) {
+            newPages[(int) (p & (newLength - 1))] = this.page(p);
+        }
+        this.pages = newPages;
+    }
+
+    private Object[] obtainPage() {
+        Object[] page = this.sparePage;
+        if (page == null) {
+            return new Object[this.pageSize];
+        }
+        this.sparePage = null;
+        return page;
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     * @throws OutOfMemoryError if the page directory cannot grow any further
+     */
+    public void add(E item) throws OutOfMemoryError {
+        if (item == null) { throw new NullPointerException(); }
+        if (this.in_idx == this.pageSize) {
+            if (this.tailPage - this.headPage + 1 == this.pages.length) {
+                if (this.pages.length == MAX_PAGES) {
+                    throw new OutOfMemoryError();
+                }
+                this.resizeDirectory(this.pages.length * 2);
+            }
+            this.tailPage++;
+            this.pages[(int) (this.tailPage & (this.pages.length - 1))] = this.obtainPage();
+            this.in_idx = 0;
+        }
+        this.page(this.tailPage)[this.in_idx++] = item;
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (this.size == 0) { return null; }
+        return (E) this.page(this.headPage)[this.out_idx];
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        if (this.size == 0) { return null; }
+        Object[] head = this.page(this.headPage);
+        E item = (E) head[this.out_idx];
+        head[this.out_idx] = null;
+        this.size--;
+        if (this.size == 0) {
+            /* the last element always lives in the tail page, so head == tail: start it over */
+            this.out_idx = 0;
+            this.in_idx = 0;
+        } else if (++this.out_idx == this.pageSize) {
+            this.pages[(int) (this.headPage & (this.pages.length - 1))] = null;
+            this.sparePage = head;
+            this.headPage++;
+            this.out_idx = 0;
+            long livePages = this.tailPage - this.headPage + 1;
+            if (this.pages.length > INIT_PAGES && livePages <= this.pages.length / 4) {
+                this.resizeDirectory(this.pages.length / 2);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Returns the element at the given position, counting from the front of the queue
+     *
+     * @param index position of the element, 0 being the front
+     * @return the element at index
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        long position = this.out_idx + index;
+        return (E) this.page(this.headPage + (position >>> this.pageShift))[(int) (position & this.pageMask)];
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return number of elements in the queue
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Passes every element to action, from the front of the queue to the back.  The queue must
+     * not be changed while this runs.
+     *
+     * @param action receives each element
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        long remaining = this.size;
+        long p = this.headPage;
+        int from = this.out_idx;
+        while (remaining > 0) {
+            Object[] page = this.page(p++);
+            int to = (int) Long.min(this.pageSize, from + remaining);
+            for (int i = from; i < to; i++) {
+                action.accept((E) page[i]);
+            }
+            remaining -= to - from;
+            from = 0;
+        }
+    }
+
+    /**
+     * Returns the number of pages currently allocated
+     *
+     * @return number of pages holding elements, plus the spare page if there is one
+     */
+    public long pageCount() {
+        return this.tailPage - this.headPage + 1 + ((this.sparePage == null) ? 0 : 1);
+    }
+
+    /**
+     * Returns an estimate of the heap memory the queue holds on to: the queue object, its
+     * directory and its pages, not counting the elements themselves
+     *
+     * @return estimated size of the queue in bytes
+     */
+    public long estimatedRetainedBytes() {
+        return Footprint.object(2, 44)
+                + Footprint.array(this.pages.length, Footprint.REFERENCE_BYTES)
+                + this.pageCount() * Footprint.array(this.pageSize, Footprint.REFERENCE_BYTES);
+    }
+}
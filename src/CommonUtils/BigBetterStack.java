@@ -0,0 +1,238 @@
+package CommonUtils;
+
+import java.util.EmptyStackException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * @implNote A stack that can hold more than Integer.MAX_VALUE elements.
+ *
+ * The elements are kept in fixed-size pages of 2^pageShift slots, held by a directory array:
+ * element i (counting from the bottom) is at page i >>> pageShift, slot i & (pageSize - 1).
+ * The page holding the top is also kept in a field, so push, pop and peek touch a single
+ * array just like BetterStack, and only cross into the directory at a page boundary.  Sizes
+ * and indices are longs.
+ *
+ * Pages are allocated when the stack first grows into them and are never copied.  When the
+ * stack pops below a page boundary, the page above the new top page is freed, so one page
+ * of slack stays allocated and a stack going up and down across a boundary does not keep
+ * allocating.  Only the directory is resized, by doubling and halving, which copies page
+ * references, not elements.
+ *
+ * @param <E> the type of object this stack will be holding
+ */
+public class BigBetterStack<E> {
+
+    /**
+     * Default log2 of the number of elements per page.
+     */
+    private static final int DEFAULT_PAGE_SHIFT = 12;
+
+    /**
+     * Initial length of the page directory.  Do not shrink it below this value.
+     */
+    private static final int INIT_PAGES = 8;
+
+    /**
+     * Largest directory length.
+     */
+    private static final int MAX_PAGES = 1 << 30;
+
+    private final int pageShift;
+    private final int pageSize;
+    private final int pageMask;
+
+    /**
+     * pages[p] holds elements p * pageSize up to (p + 1) * pageSize - 1.  The top is
+     * topPage[top_idx - 1], where topPage is pages[topPageNumber]; top_idx is only 0 when the
+     * stack is empty.
+     */
+    private Object[][] pages;
+    private Object[] topPage;
+    private int topPageNumber;
+    private int top_idx;
+    private long size;
+
+    /**
+     * Constructs an empty stack
+     */
+    public BigBetterStack() {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    /**
+     * Constructs an empty stack with 2^pageShift elements per page
+     *
+     * @param pageShift log2 of the number of elements per page, from 0 to 30
+     * @throws IllegalArgumentException if pageShift is out of range
+     */
+    public BigBetterStack(int pageShift) {
+        if (pageShift < 0 || pageShift > 30) {
+            throw new IllegalArgumentException("pageShift must be between 0 and 30: " + pageShift);
+        }
+        this.pageShift = pageShift;
+        this.pageSize = 1 << pageShift;
+        this.pageMask = this.pageSize - 1;
+        this.pages = new Object[INIT_PAGES][];
+        this.topPage = new Object[this.pageSize];
+        this.pages[0] = this.topPage;
+        this.topPageNumber = 0;
+        this.top_idx = 0;
+        this.size = 0;
+    }
+
+    private void resizeDirectory(int newLength) {
+        Object[][] newPages = new Object[newLength][];
+        System.arraycopy(this.pages, 0, newPages, 0, Integer.min(newLength, this.pages.length));
+        this.pages = newPages;
+    }
+
+    /**
+     * Push an item onto the top of the stack
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     * @throws OutOfMemoryError if the page directory cannot grow any further
+     */
+    public void push(E item) throws OutOfMemoryError {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        if (this.top_idx == this.pageSize) {
+            int next = this.topPageNumber + 1;
+            if (next == this.pages.length) {
+                if (this.pages.length == MAX_PAGES) {
+                    throw new OutOfMemoryError();
+                }
+                this.resizeDirectory(this.pages.length * 2);
+            }
+            if (this.pages[next] == null) {
+                this.pages[next] = new Object[this.pageSize];
+            }
+            this.topPage = this.pages[next];
+            this.topPageNumber = next;
+            this.top_idx = 0;
+        }
+        this.topPage[this.top_idx++] = item;
+        this.size++;
+    }
+
+    /**
+     * Remove and return the top item on the stack
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        E item = (E) this.topPage[--this.top_idx];
+        this.topPage[this.top_idx] = null;
+        this.size--;
+        if (this.top_idx == 0 && this.topPageNumber > 0) {
+            /* the emptied page stays as slack; the one above it goes */
+            int above = this.topPageNumber + 1;
+            if (above < this.pages.length) {
+                this.pages[above] = null;
+            }
+            this.topPageNumber--;
+            this.topPage = this.pages[this.topPageNumber];
+            this.top_idx = this.pageSize;
+            if (this.pages.length > INIT_PAGES && this.topPageNumber + 2 <= this.pages.length / 4) {
+                this.resizeDirectory(this.pages.length / 2);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Returns the top of the stack (does not remove it).
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return (E) this.topPage[this.top_idx - 1];
+    }
+
+    /**
+     * Returns the element at the given position, counting from the bottom of the stack
+     *
+     * @param index position of the element, 0 being the bottom
+     * @return the element at index
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return (E) this.pages[(int) (index >>> this.pageShift)][(int) (index & this.pageMask)];
+    }
+
+    /**
+     * Returns whether the stack is empty
+     *
+     * @return true if the stack is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of elements in the stack
+     *
+     * @return number of elements in the stack
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Passes every element to action, from the bottom of the stack to the top.  The stack must
+     * not be changed while this runs.
+     *
+     * @param action receives each element
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (int p = 0; p < this.topPageNumber; p++) {
+            for (Object item : this.pages[p]) {
+                action.accept((E) item);
+            }
+        }
+        for (int i = 0; i < this.top_idx; i++) {
+            action.accept((E) this.topPage[i]);
+        }
+    }
+
+    /**
+     * Returns the number of pages currently allocated
+     *
+     * @return number of pages, including the empty one kept above the top if there is one
+     */
+    public int pageCount() {
+        int above = this.topPageNumber + 1;
+        boolean slack = above < this.pages.length && this.pages[above] != null;
+        return above + (slack ? 1 : 0);
+    }
+
+    /**
+     * Returns an estimate of the heap memory the stack holds on to: the stack object, its
+     * directory and its pages, not counting the elements themselves
+     *
+     * @return estimated size of the stack in bytes
+     */
+    public long estimatedRetainedBytes() {
+        return Footprint.object(2, 28)
+                + Footprint.array(this.pages.length, Footprint.REFERENCE_BYTES)
+                + this.pageCount() * Footprint.array(this.pageSize, Footprint.REFERENCE_BYTES);
+    }
+}
@@ -0,0 +1,125 @@
+package CommonUtils;
+
+/**
+ * @implNote A fixed-length array of longs that may be longer than Integer.MAX_VALUE.
+ *
+ * The values are kept in pages of PAGE_SIZE longs, like {@link BigBetterStack}: value i is at
+ * page i >>> PAGE_SHIFT, slot i & (PAGE_SIZE - 1).  Every page but the last is full, so a loop
+ * over the whole array can work on one plain long[] at a time through {@link #page(int)},
+ * and pages make natural units of work to hand to separate threads.  Different threads may
+ * write different pages at the same time.
+ */
+public class BigLongArray {
+
+    /**
+     * log2 of the number of values per page
+     */
+    public static final int PAGE_SHIFT = 16;
+
+    /**
+     * Number of values per page
+     */
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final long[][] pages;
+    private final long length;
+
+    /**
+     * Constructs an array of the given length, filled with zeros
+     *
+     * @param length number of values
+     * @throws IllegalArgumentException if length is negative
+     * @throws OutOfMemoryError if the pages cannot be allocated
+     */
+    public BigLongArray(long length) throws OutOfMemoryError {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        long pageCount = (length + PAGE_MASK) >>> PAGE_SHIFT;
+        if (pageCount > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError();
+        }
+        this.length = length;
+        this.pages = new long[(int) pageCount][];
+        for (int p = 0; p < this.pages.length; p++) {
+            this.pages[p] = new long[this.pageLength(p)];
+        }
+    }
+
+    /**
+     * Returns the number of values
+     *
+     * @return length of the array
+     */
+    public long length() {
+        return this.length;
+    }
+
+    /**
+     * Returns the value at index
+     *
+     * @param index index of the value
+     * @return the value at index
+     * @throws IndexOutOfBoundsException if index is negative or not less than length()
+     */
+    public long get(long index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.length);
+        }
+        return this.pages[(int) (index >>> PAGE_SHIFT)][(int) (index & PAGE_MASK)];
+    }
+
+    /**
+     * Replaces the value at index
+     *
+     * @param index index of the value
+     * @param value new value
+     * @throws IndexOutOfBoundsException if index is negative or not less than length()
+     */
+    public void set(long index, long value) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.length);
+        }
+        this.pages[(int) (index >>> PAGE_SHIFT)][(int) (index & PAGE_MASK)] = value;
+    }
+
+    /**
+     * Returns the number of pages
+     *
+     * @return number of pages
+     */
+    public int pageCount() {
+        return this.pages.length;
+    }
+
+    /**
+     * Returns page p itself, not a copy: slot i of it is value p * PAGE_SIZE + i.  Its length is
+     * PAGE_SIZE, except for the last page, which only holds what is left.
+     *
+     * @param p page number
+     * @return the page
+     * @throws ArrayIndexOutOfBoundsException if p is negative or not less than pageCount()
+     */
+    public long[] page(int p) {
+        return this.pages[p];
+    }
+
+    private int pageLength(int p) {
+        return (int) Long.min(PAGE_SIZE, this.length - ((long) p << PAGE_SHIFT));
+    }
+
+    /**
+     * Returns an estimate of the heap memory the array holds on to
+     *
+     * @return estimated size of the array in bytes
+     */
+    public long estimatedRetainedBytes() {
+        long bytes = Footprint.object(1, 8) + Footprint.array(this.pages.length, Footprint.REFERENCE_BYTES);
+        for (long[] page : this.pages) {
+            bytes += Footprint.array(page.length, Long.BYTES);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,613 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * @implNote A fixed-capacity queue that any number of threads may add to and remove from, and
+ * that makes producers wait when it is full instead of growing.
+ *
+ * The ring is the classic bounded MPMC array queue: every slot has a sequence number that
+ * says whether it is ready to be written (sequence == position) or read (sequence ==
+ * position + 1).  A producer claims a position with a CAS on the enqueue counter, writes the
+ * slot and publishes it by advancing the slot's sequence; consumers do the same on the other
+ * side.  tryAdd/remove never block.
+ *
+ * put/take and the timed offer/poll first retry for a short while (spinning is the fastest way
+ * to hand off when the other side is running), then register a Waiter in a
+ * {@link ConcurrentBetterQueue} and park.  Every successful add wakes one waiting consumer and
+ * every successful remove wakes one waiting producer.  A waiter re-checks the ring after
+ * registering, and both sides put a full fence between "publish my change" and "look at the
+ * other side", so a wake-up can't get lost in between.  Each wait list counts the threads
+ * still waiting on it, and a signal with nobody to wake stops at that count instead of
+ * probing the list.
+ *
+ * A thread that stops waiting without being woken (timeout, interrupt, or it found what it
+ * wanted after registering) leaves its Waiter in the list, where the next signal skips it.
+ * Once those outnumber the threads still waiting, the thread that gave up last empties the
+ * list and wakes everyone still in it; they re-check the ring and register again.  So the
+ * lists stay in proportion to the threads actually waiting.
+ *
+ * add() is put() without interruption, so code written against BetterQueueInterface gets
+ * backpressure for free.  remove() and peek() return <code>null</code> when the queue is
+ * empty, like BetterQueue.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class BoundedBetterQueue<E> implements BetterQueueInterface<E> {
+
+    /**
+     * How many times a blocking call retries before it parks.
+     */
+    private static final int SPINS = 1 << 6;
+
+    private static final VarHandle ENQ_POS;
+    private static final VarHandle DEQ_POS;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle STATE;
+    private static final VarHandle WAITING_COUNT;
+    private static final VarHandle ENTRIES;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENQ_POS = lookup.findVarHandle(BoundedBetterQueue.class, "enqueuePos", long.class);
+            DEQ_POS = lookup.findVarHandle(BoundedBetterQueue.class, "dequeuePos", long.class);
+            STATE = lookup.findVarHandle(Waiter.class, "state", int.class);
+            WAITING_COUNT = lookup.findVarHandle(WaitList.class, "waiting", int.class);
+            ENTRIES = lookup.findVarHandle(WaitList.class, "entries", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int WAITING = 0;
+    private static final int SIGNALED = 1;
+    private static final int CANCELLED = 2;
+
+    /**
+     * How many more given-up Waiters than waiting ones a list may hold before it is emptied.
+     */
+    private static final int SWEEP_SLACK = 1 << 5;
+
+    /**
+     * A parked thread.  Whoever moves state away from WAITING first decides whether it was
+     * woken up (SIGNALED) or gave up (CANCELLED).
+     */
+    private static final class Waiter {
+        final Thread thread;
+        volatile int state;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * Threads waiting for one side of the ring.  waiting counts the Waiters still WAITING,
+     * entries everything in waiters, including the ones that have since been cancelled.
+     */
+    private static final class WaitList {
+        final ConcurrentBetterQueue<Waiter> waiters = new ConcurrentBetterQueue<>();
+        volatile int waiting;
+        volatile int entries;
+    }
+
+    /**
+     * ring of slots; length is a power of two and mask is length - 1
+     */
+    private final Object[] buffer;
+    private final long[] sequence;
+    private final int mask;
+
+    private volatile long enqueuePos;
+    private volatile long dequeuePos;
+
+    /**
+     * Producers waiting for room and consumers waiting for an element.
+     */
+    private final WaitList notFull = new WaitList();
+    private final WaitList notEmpty = new WaitList();
+
+    /**
+     * Constructs an empty queue that holds at most capacity elements
+     *
+     * @param capacity maximum number of elements, rounded up to a power of two (at least 2)
+     * @throws IllegalArgumentException if capacity is not positive or too large
+     */
+    public BoundedBetterQueue(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        int size = Integer.max(2, Integer.highestOneBit(capacity));
+        if (size < capacity) { size <<= 1; }
+        this.buffer = new Object[size];
+        this.sequence = new long[size];
+        for (int i = 0; i < size; i++) {
+            this.sequence[i] = i;
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an item to the back of the queue if there is room, without waiting
+     *
+     * @param item item to add
+     * @return true if the item was added, false if the queue was full
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean tryAdd(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        while (true) {
+            long pos = this.enqueuePos;
+            int slot = (int) pos & this.mask;
+            long dif = (long) SEQUENCE.getAcquire(this.sequence, slot) - pos;
+            if (dif == 0) {
+                if (ENQ_POS.compareAndSet(this, pos, pos + 1)) {
+                    this.buffer[slot] = item;
+                    /* the release publishes the slot write to the consumer */
+                    SEQUENCE.setRelease(this.sequence, slot, pos + 1);
+                    signal(this.notEmpty);
+                    return true;
+                }
+            } else if (dif < 0) {
+                /* the slot still holds an element from one lap ago: full */
+                return false;
+            }
+            /* otherwise another producer got this position first, try the next one */
+        }
+    }
+
+    /**
+     * Returns and removes the front of the queue, without waiting
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        while (true) {
+            long pos = this.dequeuePos;
+            int slot = (int) pos & this.mask;
+            long dif = (long) SEQUENCE.getAcquire(this.sequence, slot) - (pos + 1);
+            if (dif == 0) {
+                if (DEQ_POS.compareAndSet(this, pos, pos + 1)) {
+                    E item = (E) this.buffer[slot];
+                    this.buffer[slot] = null;
+                    /* hand the slot to the producer one lap ahead */
+                    SEQUENCE.setRelease(this.sequence, slot, pos + this.buffer.length);
+                    signal(this.notFull);
+                    return item;
+                }
+            } else if (dif < 0) {
+                /* the slot hasn't been written yet: empty */
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and stores them in dst[0], dst[1], ...
+     * in the order they were removed, without waiting.  All the items ready at the front are
+     * claimed with a single CAS on the dequeue counter, so other consumers only ever make the
+     * batch shorter, and one producer is woken for every slot freed.
+     *
+     * @param dst array to store the removed items in
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IndexOutOfBoundsException if max is negative or greater than dst.length
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(E[] dst, int max) {
+        Objects.checkIndex(max, dst.length + 1);
+        if (max == 0) {
+            return 0;
+        }
+        while (true) {
+            long pos = this.dequeuePos;
+            long dif = (long) SEQUENCE.getAcquire(this.sequence, (int) pos & this.mask) - (pos + 1);
+            if (dif < 0) {
+                /* the front slot hasn't been written yet: empty */
+                return 0;
+            }
+            if (dif > 0) {
+                /* another consumer moved on meanwhile, look again */
+                continue;
+            }
+            int n = 1;
+            while (n < max && (long) SEQUENCE.getAcquire(this.sequence, (int) (pos + n) & this.mask) == pos + n + 1) {
+                n++;
+            }
+            if (DEQ_POS.compareAndSet(this, pos, pos + n)) {
+                for (int i = 0; i < n; i++) {
+                    int slot = (int) (pos + i) & this.mask;
+                    dst[i] = (E) this.buffer[slot];
+                    this.buffer[slot] = null;
+                    /* hand the slot to the producer one lap ahead */
+                    SEQUENCE.setRelease(this.sequence, slot, pos + i + this.buffer.length);
+                }
+                signal(this.notFull, n);
+                return n;
+            }
+        }
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and passes them to sink in the order
+     * they were removed, without waiting.  Stops as soon as remove finds the queue empty.
+     *
+     * @param sink receives each removed item
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IllegalArgumentException if max is negative
+     */
+    @Override
+    public int drainTo(Consumer<? super E> sink, int max) {
+        if (max < 0) { throw new IllegalArgumentException("max must not be negative: " + max); }
+        int n = 0;
+        E item;
+        /* one at a time: a sink that throws must not leave claimed slots behind */
+        while (n < max && (item = remove()) != null) {
+            sink.accept(item);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Adds an item to the back of the queue, waiting for room if necessary
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(E item) throws InterruptedException {
+        addWaiting(item, false, 0, true);
+    }
+
+    /**
+     * Adds an item to the back of the queue, waiting up to the given time for room
+     *
+     * @param item item to add
+     * @param timeout how long to wait
+     * @param unit unit of timeout
+     * @return true if the item was added, false if the time ran out first
+     * @throws NullPointerException if the specified element is null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offer(E item, long timeout, TimeUnit unit) throws InterruptedException {
+        return addWaiting(item, true, unit.toNanos(timeout), true);
+    }
+
+    /**
+     * Removes and returns the front of the queue, waiting for an element if necessary
+     *
+     * @return the head of the queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E take() throws InterruptedException {
+        return removeWaiting(false, 0);
+    }
+
+    /**
+     * Removes and returns the front of the queue, waiting up to the given time for an element
+     *
+     * @param timeout how long to wait
+     * @param unit unit of timeout
+     * @return the head of the queue, or <code>null</code> if the time ran out first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return removeWaiting(true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Add an item to the back of the queue, waiting for room if necessary.  Interrupts don't
+     * stop the wait; the thread's interrupt status is kept.
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public void add(E item) {
+        try {
+            addWaiting(item, false, 0, false);
+        } catch (InterruptedException e) {
+            /* not thrown when interruptible is false */
+            throw new AssertionError(e);
+        }
+    }
+
+    private boolean addWaiting(E item, boolean timed, long nanos, boolean interruptible) throws InterruptedException {
+        for (int i = 0; i < SPINS; i++) {
+            if (tryAdd(item)) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        long deadline = timed ? System.nanoTime() + nanos : 0;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                Waiter w = register(this.notFull);
+                /* registering, then looking at the ring: pairs with the fence in signal() */
+                VarHandle.fullFence();
+                if (tryAdd(item)) {
+                    cancel(w, this.notFull);
+                    return true;
+                }
+                int outcome = park(w, this.notFull, timed, deadline, interruptible);
+                if (outcome == PARK_INTERRUPTED) {
+                    if (interruptible) {
+                        throw new InterruptedException();
+                    }
+                    interrupted = true;
+                }
+                if (tryAdd(item)) {
+                    return true;
+                }
+                if (timed && System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private E removeWaiting(boolean timed, long nanos) throws InterruptedException {
+        E item;
+        for (int i = 0; i < SPINS; i++) {
+            if ((item = remove()) != null) {
+                return item;
+            }
+            Thread.onSpinWait();
+        }
+        long deadline = timed ? System.nanoTime() + nanos : 0;
+        while (true) {
+            Waiter w = register(this.notEmpty);
+            /* registering, then looking at the ring: pairs with the fence in signal() */
+            VarHandle.fullFence();
+            if ((item = remove()) != null) {
+                cancel(w, this.notEmpty);
+                return item;
+            }
+            if (park(w, this.notEmpty, timed, deadline, true) == PARK_INTERRUPTED) {
+                throw new InterruptedException();
+            }
+            if ((item = remove()) != null) {
+                return item;
+            }
+            if (timed && System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+        }
+    }
+
+    private static final int PARK_SIGNALED = 0;
+    private static final int PARK_TIMED_OUT = 1;
+    private static final int PARK_INTERRUPTED = 2;
+
+    /**
+     * Parks until w is signaled, the deadline passes or (if interruptible) the thread is
+     * interrupted.  On timeout/interrupt the waiter is cancelled; if a signal arrives anyway the
+     * caller still retries (timeout), or the signal is passed on to another waiter (interrupt).
+     */
+    private int park(Waiter w, WaitList waiters, boolean timed, long deadline,
+                     boolean interruptible) {
+        while (w.state == WAITING) {
+            if (timed) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return leave(w, waiters) ? PARK_TIMED_OUT : PARK_SIGNALED;
+                }
+                LockSupport.parkNanos(this, left);
+            } else {
+                LockSupport.park(this);
+            }
+            if (interruptible && Thread.interrupted()) {
+                if (!leave(w, waiters)) {
+                    /* signaled, but we are leaving: wake someone else in our place */
+                    signal(waiters);
+                }
+                return PARK_INTERRUPTED;
+            }
+            if (!interruptible && Thread.currentThread().isInterrupted()) {
+                /* park() returns right away while interrupted; clear it and report it later */
+                Thread.interrupted();
+                if (!leave(w, waiters)) {
+                    return PARK_SIGNALED;
+                }
+                return PARK_INTERRUPTED;
+            }
+        }
+        return PARK_SIGNALED;
+    }
+
+    /**
+     * Adds a Waiter for the current thread to the list.  The caller fences before it looks at
+     * the ring again, and the count goes up before that, so a signal that misses the count
+     * is one the caller sees in the ring.
+     */
+    private static Waiter register(WaitList waiters) {
+        Waiter w = new Waiter(Thread.currentThread());
+        WAITING_COUNT.getAndAdd(waiters, 1);
+        ENTRIES.getAndAdd(waiters, 1);
+        waiters.waiters.add(w);
+        return w;
+    }
+
+    /**
+     * Cancels w, unless it has been signaled already, and empties the list if it is mostly
+     * cancelled Waiters by now
+     *
+     * @return true if w was cancelled, false if it was signaled
+     */
+    private static boolean leave(Waiter w, WaitList waiters) {
+        if (!STATE.compareAndSet(w, WAITING, CANCELLED)) {
+            return false;
+        }
+        int waiting = (int) WAITING_COUNT.getAndAdd(waiters, -1) - 1;
+        if (waiters.entries - waiting > waiting + SWEEP_SLACK) {
+            sweep(waiters);
+        }
+        return true;
+    }
+
+    /**
+     * Gives up on a waiter that turned out not to be needed
+     */
+    private static void cancel(Waiter w, WaitList waiters) {
+        if (!leave(w, waiters)) {
+            /* someone signaled us meanwhile, but we already got what we wanted */
+            signal(waiters);
+        }
+    }
+
+    /**
+     * Takes the oldest Waiter off the list, or returns null if it is empty
+     */
+    private static Waiter unlink(WaitList waiters) {
+        Waiter w = waiters.waiters.remove();
+        if (w != null) {
+            ENTRIES.getAndAdd(waiters, -1);
+        }
+        return w;
+    }
+
+    /**
+     * Wakes w up unless it has been cancelled or woken already
+     *
+     * @return true if w was woken up by this call
+     */
+    private static boolean wake(Waiter w, WaitList waiters) {
+        if (!STATE.compareAndSet(w, WAITING, SIGNALED)) {
+            return false;
+        }
+        WAITING_COUNT.getAndAdd(waiters, -1);
+        LockSupport.unpark(w.thread);
+        return true;
+    }
+
+    /**
+     * Wakes up one waiter of the list, if there is one
+     */
+    private static void signal(WaitList waiters) {
+        signal(waiters, 1);
+    }
+
+    /**
+     * Wakes up count waiters of the list, or as many as there are
+     */
+    private static void signal(WaitList waiters, int count) {
+        /* publishing the change, then looking for waiters: pairs with the fence after registering */
+        VarHandle.fullFence();
+        Waiter w;
+        while (count > 0 && waiters.waiting > 0 && (w = unlink(waiters)) != null) {
+            if (wake(w, waiters)) {
+                count--;
+            }
+            /* otherwise that one gave up already, try the next */
+        }
+    }
+
+    /**
+     * Empties the list.  Threads still waiting in it get woken up, find the ring as it is, and
+     * register again if they have to, so nobody misses a signal.
+     */
+    private static void sweep(WaitList waiters) {
+        for (int n = waiters.entries; n > 0; n--) {
+            Waiter w = unlink(waiters);
+            if (w == null) {
+                return;
+            }
+            wake(w, waiters);
+        }
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty.
+     * The returned element may have been removed by another thread by the time this returns.
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        while (true) {
+            long pos = this.dequeuePos;
+            int slot = (int) pos & this.mask;
+            if ((long) SEQUENCE.getAcquire(this.sequence, slot) != pos + 1) {
+                return null;
+            }
+            Object item = this.buffer[slot];
+            if (item != null && this.dequeuePos == pos) {
+                return (E) item;
+            }
+            /* a consumer took it while we were looking, look again */
+        }
+    }
+
+    /**
+     * Returns the number of elements in the queue.  Exact when no add/remove is in progress.
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        /* read dequeue first: both only grow, so a race can only make the difference too big */
+        long d = this.dequeuePos;
+        long e = this.enqueuePos;
+        return (int) Long.max(0, Long.min(e - d, this.buffer.length));
+    }
+
+    /**
+     * Returns whether the queue is empty.  Exact when no add/remove is in progress.
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of Waiters in the two wait lists, including ones left behind by
+     * threads that stopped waiting and have not been cleaned up yet.  For monitoring.
+     *
+     * @return number of Waiters queued for room or for elements
+     */
+    public int queuedWaiters() {
+        return this.notFull.entries + this.notEmpty.entries;
+    }
+
+    /**
+     * Returns the maximum number of elements the queue can hold
+     *
+     * @return capacity of the queue
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
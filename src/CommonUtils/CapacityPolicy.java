@@ -0,0 +1,43 @@
+package CommonUtils;
+
+/**
+ * Decides how the backing array of an array-based container grows and shrinks.
+ *
+ * Containers ask the policy for their starting capacity, for a bigger capacity once they
+ * are full, and after every removal whether (and to what) they should shrink.  Containers
+ * never shrink below their current size, and the policy never has to worry about copying.
+ *
+ * See {@link StandardCapacityPolicy} for the configurable implementation used by default.
+ */
+public interface CapacityPolicy {
+    /**
+     * Returns the capacity a new, empty container starts with
+     * @return initial capacity, at least 1
+     */
+    int initialCapacity();
+
+    /**
+     * Returns the capacity a full container with the given capacity should grow to
+     * @param capacity current (full) capacity
+     * @return new capacity, strictly greater than capacity
+     * @throws OutOfMemoryError if the container cannot grow any further
+     */
+    int grow(int capacity) throws OutOfMemoryError;
+
+    /**
+     * Returns the capacity a container should have after a removal left it holding size elements
+     * @param size number of elements currently stored
+     * @param capacity current capacity
+     * @return new capacity (at least size), or capacity itself if the container should not shrink
+     */
+    int shrink(int size, int capacity);
+
+    /**
+     * Returns the policy BetterQueue and BetterStack have always used: start at 8, double when full
+     * (or add 32 near the int limit), halve once less than half full, never go below 8.
+     * @return the default policy
+     */
+    static CapacityPolicy defaultPolicy() {
+        return StandardCapacityPolicy.DEFAULT;
+    }
+}
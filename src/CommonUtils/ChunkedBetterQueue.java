@@ -0,0 +1,202 @@
+package CommonUtils;
+
+import java.awt.*;
+
+/**
+ * @implNote A queue stored as a linked list of fixed-size array chunks.
+ *
+ * Unlike {@link BetterQueue}, this queue never resizes: when the last chunk fills up, a new
+ * chunk is linked after it, and when the first chunk has been fully removed it is unlinked.
+ * So add and remove are O(1) in the worst case (at most one chunk allocation), no element is
+ * ever copied, and the memory needed never jumps to several times the live size.
+ *
+ * Unlinked chunks go to a small free-list and are reused before any new chunk is allocated, so
+ * a queue whose size hovers around some level neither allocates nor copies once it warms up.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class ChunkedBetterQueue<E> implements BetterQueueInterface<E> {
+
+    /**
+     * Default number of elements per chunk.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 10;
+
+    /**
+     * Default number of empty chunks kept around for reuse.
+     */
+    private static final int DEFAULT_MAX_FREE_CHUNKS = 4;
+
+    private static final class Chunk {
+        final Object[] items;
+        Chunk next;
+
+        Chunk(int size) {
+            this.items = new Object[size];
+        }
+    }
+
+    private final int chunkSize;
+    private final int maxFreeChunks;
+
+    /**
+     * Elements are read from head.items[out_idx] and written to tail.items[in_idx].
+     */
+    private Chunk head;
+    private Chunk tail;
+    private int out_idx;
+    private int in_idx;
+    private int size;
+
+    /**
+     * Empty chunks waiting to be reused, linked through next.
+     */
+    private Chunk freeChunks;
+    private int freeCount;
+
+    /**
+     * Constructs an empty queue
+     */
+    public ChunkedBetterQueue() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_FREE_CHUNKS);
+    }
+
+    /**
+     * Constructs an empty queue with the given chunk size and free-list length
+     *
+     * @param chunkSize number of elements per chunk
+     * @param maxFreeChunks number of empty chunks to keep for reuse
+     * @throws IllegalArgumentException if chunkSize is not positive or maxFreeChunks is negative
+     */
+    public ChunkedBetterQueue(int chunkSize, int maxFreeChunks) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        if (maxFreeChunks < 0) {
+            throw new IllegalArgumentException("maxFreeChunks must not be negative: " + maxFreeChunks);
+        }
+        this.chunkSize = chunkSize;
+        this.maxFreeChunks = maxFreeChunks;
+        this.head = new Chunk(chunkSize);
+        this.tail = this.head;
+        this.out_idx = 0;
+        this.in_idx = 0;
+        this.size = 0;
+    }
+
+    private Chunk obtainChunk() {
+        Chunk chunk = this.freeChunks;
+        if (chunk == null) {
+            return new Chunk(this.chunkSize);
+        }
+        this.freeChunks = chunk.next;
+        this.freeCount--;
+        chunk.next = null;
+        return chunk;
+    }
+
+    private void recycleChunk(Chunk chunk) {
+        /* every slot was nulled out by remove, so the chunk is ready to reuse */
+        if (this.freeCount >= this.maxFreeChunks) {
+            return;
+        }
+        chunk.next = this.freeChunks;
+        this.freeChunks = chunk;
+        this.freeCount++;
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     * @throws OutOfMemoryError if the queue already holds Integer.MAX_VALUE elements
+     */
+    @Override
+    public void add(E item) throws OutOfMemoryError {
+        if (item == null) { throw new NullPointerException(); }
+        /* no array limits the chunks, but size() is an int, like the array-backed queues */
+        if (this.size == Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        if (this.in_idx == this.chunkSize) {
+            Chunk chunk = obtainChunk();
+            this.tail.next = chunk;
+            this.tail = chunk;
+            this.in_idx = 0;
+        }
+        this.tail.items[this.in_idx++] = item;
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (this.size == 0) { return null; }
+        return (E) this.head.items[this.out_idx];
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        if (this.size == 0) { return null; }
+        E item = (E) this.head.items[this.out_idx];
+        this.head.items[this.out_idx++] = null;
+        this.size--;
+        if (this.size == 0) {
+            /* the last element always lives in the tail chunk, so head == tail: start it over */
+            this.out_idx = 0;
+            this.in_idx = 0;
+        } else if (this.out_idx == this.chunkSize) {
+            Chunk done = this.head;
+            this.head = done.next;
+            this.out_idx = 0;
+            done.next = null;
+            recycleChunk(done);
+        }
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
@@ -0,0 +1,380 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * @implNote A lock-free, unbounded queue that any number of threads may add to and remove from.
+ *
+ * The queue is a linked list of array segments.  Every slot of a segment is claimed exactly
+ * once: a producer claims the next slot with an atomic fetch-and-add on the segment's enqueue
+ * index and CASes its item into it, and a consumer claims the next slot with a fetch-and-add on
+ * the dequeue index and swaps a TAKEN marker into it.  If a consumer gets to a slot before the
+ * producer that claimed it has written it, the marker makes that producer's CAS fail and it
+ * simply claims another slot.  Threads spread over consecutive slots instead of retrying a CAS
+ * on one shared index, so contended threads don't keep failing on the same word.
+ *
+ * A producer can't have its slots taken forever: after MAX_STEALS of them it closes the
+ * segment, moving the enqueue index to the end, and puts its item into slot 0 of a new segment
+ * before linking it, where no consumer can get to the slot first.  The slots it closed are
+ * marked DEAD and counted, so size() can leave them out until consumers have stepped over
+ * them.  Every retry of an add or remove is then caused by another add or remove that
+ * completed or closed a segment, so the queue stays lock-free.
+ *
+ * When a segment's slots run out, the first producer to notice links a new segment; the
+ * segment sizes follow the {@link CapacityPolicy} (start at its initial capacity, grow by its
+ * growth rule, capped at MAX_SEGMENT_CAPACITY) and fully consumed segments are unlinked and
+ * left to the garbage collector, which plays the role of shrinking.
+ *
+ * Consistency: add/remove are linearizable.  size() and isEmpty() take constant time and are
+ * exact when no add/remove is in progress; while operations are in flight they may be off, by
+ * a whole closed segment at worst.  peek() returns an element that was in the
+ * queue during the call (normally the front), but it may already be gone by the time it returns.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class ConcurrentBetterQueue<E> implements BetterQueueInterface<E> {
+
+    /**
+     * Largest segment that will be allocated, so a single add never allocates more than this.
+     */
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 16;
+
+    /**
+     * Marker a consumer leaves in a slot it has claimed.
+     */
+    private static final Object TAKEN = new Object();
+
+    /**
+     * Marker a producer leaves in the unclaimed slots of a segment it closed.
+     */
+    private static final Object DEAD = new Object();
+
+    /**
+     * How many claimed slots a producer lets consumers take before it closes the segment.
+     */
+    private static final int MAX_STEALS = 8;
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle ENQ_IDX;
+    private static final VarHandle DEQ_IDX;
+    private static final VarHandle NEXT;
+    private static final VarHandle DEAD_SLOTS;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(ConcurrentBetterQueue.class, "head", Segment.class);
+            TAIL = lookup.findVarHandle(ConcurrentBetterQueue.class, "tail", Segment.class);
+            ENQ_IDX = lookup.findVarHandle(Segment.class, "enqIdx", int.class);
+            DEQ_IDX = lookup.findVarHandle(SegmentDeq.class, "deqIdx", int.class);
+            NEXT = lookup.findVarHandle(Segment.class, "next", Segment.class);
+            DEAD_SLOTS = lookup.findVarHandle(ConcurrentBetterQueue.class, "deadSlots", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /*
+     * The dequeue index and the enqueue index of a segment are hammered by different threads,
+     * so they are kept on different cache lines.  The JVM lays out superclass fields first,
+     * hence the padding classes.
+     */
+    private static class SegmentPad0 {
+        long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+    }
+
+    private static class SegmentDeq extends SegmentPad0 {
+        volatile int deqIdx;
+    }
+
+    private static class SegmentPad1 extends SegmentDeq {
+        long p10, p11, p12, p13, p14, p15, p16, p17, p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+    }
+
+    private static final class Segment extends SegmentPad1 {
+        volatile int enqIdx;
+        volatile Segment next;
+        final Object[] items;
+        /**
+         * total number of slots in all segments before this one.  Not final only so a producer
+         * that lost the race to link this segment can move it along to the next tail; it never
+         * changes once the segment is linked.
+         */
+        long base;
+
+        Segment(int capacity, long base) {
+            this.items = new Object[capacity];
+            this.base = base;
+        }
+
+        /**
+         * Creates a segment after previous that already holds first in slot 0
+         */
+        Segment(int capacity, Segment previous, Object first) {
+            this(capacity, previous.base + previous.items.length);
+            this.items[0] = first;
+            this.enqIdx = 1;
+        }
+    }
+
+    private final CapacityPolicy policy;
+    private volatile Segment head;
+    private volatile Segment tail;
+
+    /**
+     * DEAD slots no consumer has stepped over yet
+     */
+    private volatile long deadSlots;
+
+    /**
+     * Constructs an empty queue
+     */
+    public ConcurrentBetterQueue() {
+        this(CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty queue whose segments are sized according to the given policy
+     *
+     * @param policy capacity policy to use
+     * @throws NullPointerException if policy is null
+     */
+    public ConcurrentBetterQueue(CapacityPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+        Segment first = new Segment(Integer.min(policy.initialCapacity(), MAX_SEGMENT_CAPACITY), 0);
+        this.head = first;
+        this.tail = first;
+    }
+
+    private int nextSegmentCapacity(Segment full) {
+        int capacity = full.items.length;
+        if (capacity >= MAX_SEGMENT_CAPACITY) {
+            return MAX_SEGMENT_CAPACITY;
+        }
+        return Integer.min(this.policy.grow(capacity), MAX_SEGMENT_CAPACITY);
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public void add(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        int steals = 0;
+        /* a segment holding our item that lost the race to be linked, kept for the next try */
+        Segment spare = null;
+        while (true) {
+            Segment t = this.tail;
+            int idx = (int) ENQ_IDX.getAndAdd(t, 1);
+            if (idx < t.items.length) {
+                if (SLOT.compareAndSet(t.items, idx, null, item)) {
+                    return;
+                }
+                /* a consumer gave up waiting on this slot: claim another, unless that keeps happening */
+                if (++steals < MAX_STEALS) {
+                    continue;
+                }
+                this.close(t);
+            }
+            /* segment is full: link a new one holding our item, or help whoever already did */
+            if (t != this.tail) {
+                continue;
+            }
+            Segment next = t.next;
+            if (next != null) {
+                TAIL.compareAndSet(this, t, next);
+                continue;
+            }
+            int capacity = nextSegmentCapacity(t);
+            if (spare != null && spare.items.length == capacity) {
+                spare.base = t.base + t.items.length;
+            } else if (t.next == null) {
+                /* looked again right before allocating: segments can be 64K slots */
+                spare = new Segment(capacity, t, item);
+            } else {
+                continue;
+            }
+            if (NEXT.compareAndSet(t, null, spare)) {
+                TAIL.compareAndSet(this, t, spare);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets no more producers into s: moves its enqueue index to the end and marks the slots
+     * nobody claimed DEAD, counting the ones no consumer has taken yet
+     */
+    private void close(Segment s) {
+        int length = s.items.length;
+        int from;
+        while ((from = s.enqIdx) < length) {
+            if (ENQ_IDX.compareAndSet(s, from, length)) {
+                long dead = 0;
+                for (int i = from; i < length; i++) {
+                    if (SLOT.getAndSet(s.items, i, DEAD) == null) {
+                        dead++;
+                    }
+                }
+                DEAD_SLOTS.getAndAdd(this, dead);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty.
+     * The returned element may have been removed by another thread by the time this returns.
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        for (Segment s = this.head; s != null; s = s.next) {
+            int end = Integer.min(s.enqIdx, s.items.length);
+            for (int i = s.deqIdx; i < end; i++) {
+                Object item = SLOT.getAcquire(s.items, i);
+                if (item != null && item != TAKEN && item != DEAD) {
+                    return (E) item;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        while (true) {
+            Segment h = this.head;
+            if (h.deqIdx >= h.enqIdx && h.next == null) {
+                return null;
+            }
+            int idx = (int) DEQ_IDX.getAndAdd(h, 1);
+            if (idx >= h.items.length) {
+                /* this segment is used up, move on to the next one */
+                Segment next = h.next;
+                if (next == null) {
+                    return null;
+                }
+                HEAD.compareAndSet(this, h, next);
+                continue;
+            }
+            Object item = SLOT.getAndSet(h.items, idx, TAKEN);
+            if (item == DEAD) {
+                DEAD_SLOTS.getAndAdd(this, -1L);
+                continue;
+            }
+            if (item != null) {
+                return (E) item;
+            }
+            /* the producer that claimed this slot hasn't written it yet; it will retry elsewhere */
+        }
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and stores them in dst[0], dst[1], ...
+     * in the order they were removed.  Stops as soon as remove finds the queue empty, so items
+     * other threads take meanwhile just make the batch shorter.
+     *
+     * @param dst array to store the removed items in
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IndexOutOfBoundsException if max is negative or greater than dst.length
+     */
+    @Override
+    public int drainTo(E[] dst, int max) {
+        Objects.checkIndex(max, dst.length + 1);
+        int n = 0;
+        E item;
+        while (n < max && (item = remove()) != null) {
+            dst[n++] = item;
+        }
+        return n;
+    }
+
+    /**
+     * Removes up to max items from the front of the queue and passes them to sink in the order
+     * they were removed.  Stops as soon as remove finds the queue empty.
+     *
+     * @param sink receives each removed item
+     * @param max maximum number of items to remove
+     * @return the number of items removed
+     * @throws IllegalArgumentException if max is negative
+     */
+    @Override
+    public int drainTo(Consumer<? super E> sink, int max) {
+        if (max < 0) { throw new IllegalArgumentException("max must not be negative: " + max); }
+        int n = 0;
+        E item;
+        while (n < max && (item = remove()) != null) {
+            sink.accept(item);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of elements in the queue.  Exact when no add/remove is in progress.
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        /*
+         * Every slot before a segment's (capped) enqueue index has been claimed by a producer and
+         * every slot before its dequeue index by a consumer, and segments are only linked once all
+         * slots of the previous one are claimed.  So claimed slots = base + capped index, and the
+         * difference between the two counts, less the DEAD slots still ahead of the consumers, is
+         * the number of elements.  Reading the dequeue side first means racing operations can
+         * mostly only make the result too big; it is clamped at 0 for the rest.
+         */
+        Segment h = this.head;
+        long dequeued = h.base + Integer.min(h.deqIdx, h.items.length);
+        Segment t = this.tail;
+        /* tail may lag behind by a segment or so */
+        for (Segment next = t.next; next != null; next = next.next) {
+            t = next;
+        }
+        long enqueued = t.base + Integer.min(t.enqIdx, t.items.length);
+        return (int) Long.min(Long.max(0, enqueued - dequeued - this.deadSlots), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns whether the queue is empty.  Exact when no add/remove is in progress.
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
@@ -0,0 +1,258 @@
+package CommonUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.EmptyStackException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @implNote A lock-free stack that any number of threads may push to and pop from.
+ *
+ * This is a Treiber stack (a linked list whose top is swapped in with CAS) with an elimination
+ * array in front of it.  When a CAS on the top fails because of contention, the thread goes to a
+ * random slot of the elimination array instead of retrying right away: a pusher leaves its node
+ * there for a short while, and a popper that finds a waiting node takes it.  A push and a pop
+ * that meet this way cancel out without ever touching the top, which is what keeps the stack
+ * from collapsing into one hot cache line under heavy push/pop traffic.
+ *
+ * Each node remembers how many nodes are below it, so size() is exact and constant time.
+ *
+ * pop() and peek() throw EmptyStackException on an empty stack, like BetterStack.
+ *
+ * @param <E> the type of object this stack will be holding
+ */
+public class ConcurrentBetterStack<E> implements BetterStackInterface<E> {
+
+    /**
+     * How many times a pusher checks its elimination slot before taking its node back.
+     */
+    private static final int ELIMINATION_SPINS = 1 << 7;
+
+    private static final VarHandle TOP;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(ConcurrentBetterStack.class, "top", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Node<E> {
+        final E item;
+        /* only written before the node is published by a CAS */
+        Node<E> next;
+        int size;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    private volatile Node<E> top;
+
+    /**
+     * Slots where a pusher waits for a popper; each holds null or a waiting Node.
+     */
+    private final Object[] elimination;
+
+    /**
+     * Constructs an empty stack
+     */
+    public ConcurrentBetterStack() {
+        int slots = Integer.max(1, Integer.min(32, Runtime.getRuntime().availableProcessors() / 2));
+        this.elimination = new Object[slots];
+    }
+
+    /**
+     * Leaves node in a random elimination slot for a little while
+     * @return true if a popper took it (so the push is done)
+     */
+    private boolean eliminatePush(Node<E> node) {
+        int slot = ThreadLocalRandom.current().nextInt(this.elimination.length);
+        if (!SLOT.compareAndSet(this.elimination, slot, null, node)) {
+            return false;
+        }
+        for (int i = 0; i < ELIMINATION_SPINS; i++) {
+            if (SLOT.getAcquire(this.elimination, slot) != node) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        /* nobody came: take it back, unless a popper grabs it first */
+        return !SLOT.compareAndSet(this.elimination, slot, node, null);
+    }
+
+    /**
+     * Takes a node a pusher left in a random elimination slot, if there is one
+     * @return the node taken, or null
+     */
+    @SuppressWarnings("unchecked")
+    private Node<E> eliminatePop() {
+        int slot = ThreadLocalRandom.current().nextInt(this.elimination.length);
+        Object node = SLOT.getAcquire(this.elimination, slot);
+        if (node != null && SLOT.compareAndSet(this.elimination, slot, node, null)) {
+            return (Node<E>) node;
+        }
+        return null;
+    }
+
+    /**
+     * Push an item onto the top of the stack
+     *
+     * @param item item to push
+     * @throws OutOfMemoryError if the underlying data structure cannot hold any more elements
+     */
+    @Override
+    public void push(E item) throws OutOfMemoryError {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        Node<E> node = new Node<>(item);
+        while (true) {
+            Node<E> t = this.top;
+            node.next = t;
+            node.size = (t == null) ? 1 : t.size + 1;
+            if (TOP.compareAndSet(this, t, node)) {
+                return;
+            }
+            if (eliminatePush(node)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove and return the top item on the stack
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    @Override
+    public E pop() {
+        while (true) {
+            Node<E> t = this.top;
+            if (t == null) {
+                throw new EmptyStackException();
+            }
+            if (TOP.compareAndSet(this, t, t.next)) {
+                return t.item;
+            }
+            Node<E> eliminated = eliminatePop();
+            if (eliminated != null) {
+                return eliminated.item;
+            }
+        }
+    }
+
+    /**
+     * Pops up to n items off the stack with a single CAS, so they are n items that were on top
+     * together.  They are stored in dst[0], ..., dst[count-1] in stack order, so dst[count-1]
+     * is the item that was on top; pushAll(dst, 0, count) undoes the call.
+     *
+     * @param dst array to store the popped items in
+     * @param n maximum number of items to pop
+     * @return the number of items popped (less than n only if the stack ran out)
+     * @throws IndexOutOfBoundsException if n is negative or greater than dst.length
+     */
+    @Override
+    public int popN(E[] dst, int n) {
+        if (n < 0 || n > dst.length) {
+            throw new IndexOutOfBoundsException("Index " + n + " out of bounds for length " + (dst.length + 1));
+        }
+        while (true) {
+            Node<E> t = this.top;
+            int count = (t == null) ? 0 : Integer.min(n, t.size);
+            Node<E> below = t;
+            for (int i = 0; i < count; i++) {
+                below = below.next;
+            }
+            if (count == 0 || TOP.compareAndSet(this, t, below)) {
+                /* nodes never change once published, so the batch can be read after the CAS */
+                Node<E> node = t;
+                for (int i = count - 1; i >= 0; i--) {
+                    dst[i] = node.item;
+                    node = node.next;
+                }
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Discards items from the top of the stack until it holds newSize items, with a single CAS.
+     * If other threads pop it below newSize meanwhile, nothing more is discarded.
+     *
+     * @param newSize number of items to keep
+     * @throws IllegalArgumentException if newSize is negative or greater than size()
+     */
+    @Override
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size()) {
+            throw new IllegalArgumentException("Cannot truncate a stack of size " + size() + " to " + newSize);
+        }
+        while (true) {
+            Node<E> t = this.top;
+            if (t == null || t.size <= newSize) {
+                return;
+            }
+            Node<E> below = t;
+            while (below != null && below.size > newSize) {
+                below = below.next;
+            }
+            if (TOP.compareAndSet(this, t, below)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the top of the stack (does not remove it).
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    @Override
+    public E peek() {
+        Node<E> t = this.top;
+        if (t == null) {
+            throw new EmptyStackException();
+        }
+        return t.item;
+    }
+
+    /**
+     * Returns whether the stack is empty
+     *
+     * @return true if the stack is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.top == null);
+    }
+
+    /**
+     * Returns the number of elements in the stack
+     *
+     * @return integer representing the number of elements in the stack
+     */
+    @Override
+    public int size() {
+        Node<E> t = this.top;
+        return (t == null) ? 0 : t.size;
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(java.awt.Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the stack how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
@@ -0,0 +1,423 @@
+package CommonUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes the contents of a BetterQueue or BetterStack to a channel in a compact binary form,
+ * and reads them back into a new container.
+ *
+ * A snapshot is a 20-byte header (magic, container kind, codec width, element count) followed
+ * by the elements in logical order: front to back for a queue, bottom to top for a stack.
+ * Elements of a fixed-width {@link ElementCodec} are stored back to back; elements of a
+ * variable-width codec are each prefixed with their length as an int.  Everything is
+ * little-endian.
+ *
+ * Both directions go through a 1 MiB direct buffer, so the channel sees a few large writes
+ * or reads instead of one per element.  Each thread keeps its buffer and reuses it for every
+ * later snapshot, so taking many small snapshots does not allocate a megabyte of native memory
+ * each time.  Only elements bigger than the buffer get a temporary buffer of their own.
+ *
+ * Reading a snapshot from memory allocates the new container's array once, at the right
+ * size.  Reading from a channel presizes it for at most PRESIZE_LIMIT elements and lets it
+ * grow past that, so a corrupt header can't make it allocate more than the data can fill.
+ */
+public final class ContainerSnapshots {
+
+    /**
+     * "BSNP"
+     */
+    private static final int MAGIC = 0x42534E50;
+    private static final int KIND_QUEUE = 1;
+    private static final int KIND_STACK = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Most elements a container read from a channel is presized for
+     */
+    private static final int PRESIZE_LIMIT = 1 << 16;
+
+    /**
+     * The calling thread's buffer while it isn't in use
+     */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
+    private ContainerSnapshots() {
+    }
+
+    /**
+     * Writes the queue's elements, front first, to channel.  The queue is not changed.
+     *
+     * @param queue queue to write
+     * @param codec turns each element into bytes
+     * @param channel channel to write to; it is not closed
+     * @param <E> element type
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the codec's width is bigger than the buffer
+     */
+    public static <E> void write(BetterQueue<E> queue, ElementCodec<? super E> codec,
+                                 WritableByteChannel channel) throws IOException {
+        Writer<E> writer = new Writer<>(codec, channel);
+        try {
+            writer.header(KIND_QUEUE, queue.size());
+            queue.forEach(writer);
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Writes the stack's elements, bottom first, to channel.  The stack is not changed.
+     *
+     * @param stack stack to write
+     * @param codec turns each element into bytes
+     * @param channel channel to write to; it is not closed
+     * @param <E> element type
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the codec's width is bigger than the buffer
+     */
+    public static <E> void write(BetterStack<E> stack, ElementCodec<? super E> codec,
+                                 WritableByteChannel channel) throws IOException {
+        Writer<E> writer = new Writer<>(codec, channel);
+        try {
+            writer.header(KIND_STACK, stack.size());
+            stack.forEach(writer);
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Reads a queue snapshot written by {@link #write(BetterQueue, ElementCodec, WritableByteChannel)}
+     *
+     * @param channel channel to read from; it is not closed, and is left just past the snapshot
+     *                or up to a megabyte further
+     * @param codec turns bytes back into elements; must match the one the snapshot was written with
+     * @param <E> element type
+     * @return a new queue with the same elements in the same order
+     * @throws IOException if reading fails, the channel doesn't hold a queue snapshot, or the
+     *                     codec's width doesn't match the snapshot's
+     */
+    public static <E> BetterQueue<E> readQueue(ReadableByteChannel channel, ElementCodec<? extends E> codec)
+            throws IOException {
+        Reader<E> reader = new Reader<>(codec, channel);
+        try {
+            int count = reader.header(KIND_QUEUE);
+            BetterQueue<E> queue = new BetterQueue<>(reader.presize(count));
+            for (int i = 0; i < count; i++) {
+                queue.add(reader.next());
+            }
+            return queue;
+        } finally {
+            reader.release();
+        }
+    }
+
+    /**
+     * Reads a queue snapshot from memory, e.g. a file mapped with FileChannel.map, decoding the
+     * elements straight out of src without copying it first
+     *
+     * @param src buffer holding the snapshot from its position on; its position is left just
+     *            past the snapshot
+     * @param codec turns bytes back into elements; must match the one the snapshot was written with
+     * @param <E> element type
+     * @return a new queue with the same elements in the same order, sized to hold exactly them
+     * @throws IOException if src doesn't hold a complete queue snapshot, or the codec's width
+     *                     doesn't match the snapshot's
+     */
+    public static <E> BetterQueue<E> readQueue(ByteBuffer src, ElementCodec<? extends E> codec)
+            throws IOException {
+        Reader<E> reader = new Reader<>(codec, src);
+        int count = reader.header(KIND_QUEUE);
+        BetterQueue<E> queue = new BetterQueue<>(reader.presize(count));
+        for (int i = 0; i < count; i++) {
+            queue.add(reader.next());
+        }
+        src.position(reader.buffer.position());
+        return queue;
+    }
+
+    /**
+     * Reads a stack snapshot written by {@link #write(BetterStack, ElementCodec, WritableByteChannel)}
+     *
+     * @param channel channel to read from; it is not closed, and is left just past the snapshot
+     *                or up to a megabyte further
+     * @param codec turns bytes back into elements; must match the one the snapshot was written with
+     * @param <E> element type
+     * @return a new stack with the same elements in the same order
+     * @throws IOException if reading fails, the channel doesn't hold a stack snapshot, or the
+     *                     codec's width doesn't match the snapshot's
+     */
+    public static <E> BetterStack<E> readStack(ReadableByteChannel channel, ElementCodec<? extends E> codec)
+            throws IOException {
+        Reader<E> reader = new Reader<>(codec, channel);
+        try {
+            int count = reader.header(KIND_STACK);
+            BetterStack<E> stack = new BetterStack<>(reader.presize(count));
+            for (int i = 0; i < count; i++) {
+                stack.push(reader.next());
+            }
+            return stack;
+        } finally {
+            reader.release();
+        }
+    }
+
+    /**
+     * Takes the calling thread's buffer, cleared, or allocates one if the thread has none
+     * (or is already using it further up the stack).  Hand it back with giveBack.
+     */
+    private static ByteBuffer borrowBuffer() {
+        ByteBuffer buffer = BUFFERS.get();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        BUFFERS.set(null);
+        return buffer.clear();
+    }
+
+    private static void giveBack(ByteBuffer buffer) {
+        BUFFERS.set(buffer);
+    }
+
+    private static void checkWidth(ElementCodec<?> codec) {
+        int width = codec.width();
+        if (width != ElementCodec.VARIABLE_WIDTH && (width < 0 || width > BUFFER_SIZE)) {
+            throw new IllegalArgumentException("Unsupported codec width: " + width);
+        }
+    }
+
+    /**
+     * Encodes elements into the buffer and writes it out whenever it fills up.  Handed to
+     * forEach, so IOExceptions leave it wrapped in an UncheckedIOException.
+     */
+    private static final class Writer<E> implements Consumer<E> {
+        private final ElementCodec<? super E> codec;
+        private final int width;
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Writer(ElementCodec<? super E> codec, WritableByteChannel channel) {
+            checkWidth(codec);
+            this.codec = codec;
+            this.width = codec.width();
+            this.channel = Objects.requireNonNull(channel);
+            this.buffer = borrowBuffer();
+        }
+
+        void release() {
+            giveBack(this.buffer);
+        }
+
+        void header(int kind, int count) {
+            this.buffer.putInt(MAGIC).putInt(kind).putInt(this.width).putLong(count);
+        }
+
+        @Override
+        public void accept(E item) {
+            try {
+                this.put(item);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void put(E item) throws IOException {
+            if (this.width != ElementCodec.VARIABLE_WIDTH) {
+                this.makeRoom(this.width);
+                this.encode(item, this.buffer, this.width);
+                return;
+            }
+            int size = this.codec.encodedSize(item);
+            if (Integer.BYTES + size <= BUFFER_SIZE) {
+                this.makeRoom(Integer.BYTES + size);
+                this.buffer.putInt(size);
+                this.encode(item, this.buffer, size);
+                return;
+            }
+            /* too big for the shared buffer, give it one of its own */
+            this.flush();
+            ByteBuffer big = ByteBuffer.allocate(Integer.BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+            big.putInt(size);
+            this.encode(item, big, size);
+            big.flip();
+            this.writeFully(big);
+        }
+
+        private void encode(E item, ByteBuffer dst, int size) {
+            int start = dst.position();
+            this.codec.encode(item, dst);
+            if (dst.position() - start != size) {
+                throw new IllegalStateException("Codec wrote " + (dst.position() - start)
+                        + " bytes instead of " + size);
+            }
+        }
+
+        private void makeRoom(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        void flush() throws IOException {
+            this.buffer.flip();
+            this.writeFully(this.buffer);
+            this.buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                this.channel.write(src);
+            }
+        }
+    }
+
+    /**
+     * Reads the channel a buffer at a time and decodes elements out of it, or decodes elements
+     * out of a buffer that already holds the whole snapshot (channel is null then)
+     */
+    private static final class Reader<E> {
+        private final ElementCodec<? extends E> codec;
+        private final int width;
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Reader(ElementCodec<? extends E> codec, ReadableByteChannel channel) {
+            checkWidth(codec);
+            this.codec = codec;
+            this.width = codec.width();
+            this.channel = Objects.requireNonNull(channel);
+            this.buffer = borrowBuffer();
+            this.buffer.limit(0);
+        }
+
+        Reader(ElementCodec<? extends E> codec, ByteBuffer src) {
+            checkWidth(codec);
+            this.codec = codec;
+            this.width = codec.width();
+            this.channel = null;
+            this.buffer = src.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Hands a borrowed buffer back; a buffer that only wraps src isn't kept
+         */
+        void release() {
+            if (this.channel != null) {
+                giveBack(this.buffer);
+            }
+        }
+
+        /**
+         * Checks the header and returns the element count
+         */
+        int header(int kind) throws IOException {
+            this.require(HEADER_BYTES);
+            if (this.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a container snapshot");
+            }
+            int storedKind = this.buffer.getInt();
+            if (storedKind != kind) {
+                throw new IOException("Snapshot is of a " + ((storedKind == KIND_STACK) ? "stack" : "queue")
+                        + ", not a " + ((kind == KIND_STACK) ? "stack" : "queue"));
+            }
+            int storedWidth = this.buffer.getInt();
+            if (storedWidth != this.width) {
+                throw new IOException("Snapshot has element width " + storedWidth
+                        + " but the codec has width " + this.width);
+            }
+            long count = this.buffer.getLong();
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("Bad element count: " + count);
+            }
+            /* from memory the data is all there, so every element has to fit in what's left */
+            long minElementBytes = (this.width == ElementCodec.VARIABLE_WIDTH) ? Integer.BYTES : this.width;
+            if (this.channel == null && count * minElementBytes > this.buffer.remaining()) {
+                throw new EOFException("Snapshot claims " + count + " elements but holds only "
+                        + this.buffer.remaining() + " bytes of them");
+            }
+            return (int) count;
+        }
+
+        /**
+         * Returns how many elements to presize the container for: all of them when the header
+         * count has been checked against the data, at most PRESIZE_LIMIT otherwise
+         */
+        int presize(int count) {
+            return (this.channel == null && this.width != 0) ? count : Integer.min(count, PRESIZE_LIMIT);
+        }
+
+        E next() throws IOException {
+            if (this.width != ElementCodec.VARIABLE_WIDTH) {
+                this.require(this.width);
+                int start = this.buffer.position();
+                E item = this.codec.decode(this.buffer);
+                this.buffer.position(start + this.width);
+                return item;
+            }
+            this.require(Integer.BYTES);
+            int size = this.buffer.getInt();
+            if (size < 0) {
+                throw new IOException("Bad element length: " + size);
+            }
+            if (this.channel != null && size > BUFFER_SIZE) {
+                return this.codec.decode(this.readBig(size));
+            }
+            this.require(size);
+            int start = this.buffer.position();
+            ByteBuffer element = this.buffer.slice(start, size).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.position(start + size);
+            return this.codec.decode(element);
+        }
+
+        /**
+         * Makes sure at least bytes bytes are buffered, reading more if needed
+         */
+        private void require(int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes) {
+                return;
+            }
+            if (this.channel == null) {
+                throw new EOFException("Snapshot ended early");
+            }
+            this.buffer.compact();
+            while (this.buffer.position() < bytes) {
+                if (this.channel.read(this.buffer) < 0) {
+                    throw new EOFException("Snapshot ended early");
+                }
+            }
+            this.buffer.flip();
+        }
+
+        /**
+         * Reads an element too big for the shared buffer into one of its own
+         */
+        private ByteBuffer readBig(int size) throws IOException {
+            ByteBuffer big = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            int buffered = Integer.min(size, this.buffer.remaining());
+            big.put(this.buffer.slice(this.buffer.position(), buffered));
+            this.buffer.position(this.buffer.position() + buffered);
+            while (big.hasRemaining()) {
+                if (this.channel.read(big) < 0) {
+                    throw new EOFException("Snapshot ended early");
+                }
+            }
+            return big.flip();
+        }
+    }
+}
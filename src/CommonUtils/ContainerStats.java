@@ -0,0 +1,42 @@
+package CommonUtils;
+
+/**
+ * A snapshot of how a container has been used, as counted by {@link InstrumentedBetterQueue}
+ * and {@link InstrumentedBetterStack}.
+ *
+ * Every count is cumulative since the container was created (or since its stats were last
+ * reset).  A resize that makes the array bigger is a grow, any other resize is a shrink.
+ * elementsCopied counts every element moved from an old array to a new one, whether the move
+ * happened in one go or, in incremental mode, spread over many operations.
+ *
+ * @param grows number of times the array was replaced by a bigger one
+ * @param shrinks number of times the array was replaced by a smaller one
+ * @param elementsCopied number of elements copied between arrays by resizes
+ * @param peakSize largest number of elements held at once
+ * @param peakCapacity largest capacity the array had
+ * @param adds number of elements added (pushed, for a stack)
+ * @param removes number of elements removed (popped, for a stack)
+ */
+public record ContainerStats(long grows, long shrinks, long elementsCopied, int peakSize,
+                             int peakCapacity, long adds, long removes) {
+
+    /**
+     * Returns the number of resizes in either direction
+     *
+     * @return grows + shrinks
+     */
+    public long resizes() {
+        return this.grows + this.shrinks;
+    }
+
+    /**
+     * Returns the average number of elements copied per add or remove, which is the amortized
+     * cost of resizing
+     *
+     * @return elementsCopied / (adds + removes), or 0 if nothing was added or removed
+     */
+    public double copiesPerOperation() {
+        long operations = this.adds + this.removes;
+        return (operations == 0) ? 0 : (double) this.elementsCopied / operations;
+    }
+}
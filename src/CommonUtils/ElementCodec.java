@@ -0,0 +1,152 @@
+package CommonUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns container elements into bytes and back, for {@link ContainerSnapshots}.
+ *
+ * A codec is either fixed-width, when every element takes exactly width() bytes, or variable
+ * width, when width() is {@link #VARIABLE_WIDTH} and encodedSize(item) says how many bytes a
+ * particular item takes.  Snapshots store fixed-width elements back to back and prefix every
+ * variable-width element with its length, so decode always sees exactly one element's bytes.
+ *
+ * Codecs must write and read in the buffer's byte order (snapshots use little-endian), and
+ * must leave the buffer positioned just past the element.
+ *
+ * @param <E> the type of element encoded
+ */
+public interface ElementCodec<E> {
+
+    /**
+     * width() of codecs whose elements take different numbers of bytes
+     */
+    int VARIABLE_WIDTH = -1;
+
+    /**
+     * Returns the number of bytes every element takes
+     *
+     * @return bytes per element, or VARIABLE_WIDTH
+     */
+    int width();
+
+    /**
+     * Returns the number of bytes encode will write for item
+     *
+     * @param item element to measure
+     * @return its encoded size in bytes
+     */
+    default int encodedSize(E item) {
+        return width();
+    }
+
+    /**
+     * Writes item at dst's position, which has at least encodedSize(item) bytes remaining
+     *
+     * @param item element to write
+     * @param dst buffer to write to
+     */
+    void encode(E item, ByteBuffer dst);
+
+    /**
+     * Reads one element from src's position.  For fixed-width codecs src has at least width()
+     * bytes remaining; for variable-width codecs src holds exactly the element's bytes.
+     *
+     * @param src buffer to read from
+     * @return the element, never <code>null</code>
+     */
+    E decode(ByteBuffer src);
+
+    /**
+     * Longs as 8 bytes
+     */
+    ElementCodec<Long> LONG = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long item, ByteBuffer dst) {
+            dst.putLong(item);
+        }
+
+        @Override
+        public Long decode(ByteBuffer src) {
+            return src.getLong();
+        }
+    };
+
+    /**
+     * Integers as 4 bytes
+     */
+    ElementCodec<Integer> INT = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer item, ByteBuffer dst) {
+            dst.putInt(item);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer src) {
+            return src.getInt();
+        }
+    };
+
+    /**
+     * Strings as their UTF-8 bytes
+     */
+    ElementCodec<String> UTF8 = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return VARIABLE_WIDTH;
+        }
+
+        @Override
+        public int encodedSize(String item) {
+            /* counted from the chars, so encode is the only place the string gets encoded */
+            return utf8Length(item);
+        }
+
+        @Override
+        public void encode(String item, ByteBuffer dst) {
+            dst.put(item.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer src) {
+            byte[] bytes = new byte[src.remaining()];
+            src.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Returns the number of bytes String.getBytes(UTF_8) returns for s, without encoding it
+     */
+    private static int utf8Length(String s) {
+        int length = s.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                /* two chars, four bytes */
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+            /* an unpaired surrogate is replaced by '?', one byte */
+        }
+        return bytes;
+    }
+}
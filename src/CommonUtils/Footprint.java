@@ -0,0 +1,49 @@
+package CommonUtils;
+
+/**
+ * Rough heap sizes of objects and arrays, for the containers' estimatedRetainedBytes().
+ *
+ * Assumes a 64-bit HotSpot JVM: 12-byte object headers (compressed class pointers), 16-byte
+ * array headers, everything padded to 8 bytes, and 4-byte references unless the heap is too
+ * big for compressed references (32 GB or more).  Field layout gaps are ignored, so the
+ * numbers are estimates, good for budgeting but not for exact accounting.
+ */
+final class Footprint {
+
+    /**
+     * Size of a reference field or array slot, in bytes
+     */
+    static final int REFERENCE_BYTES = (Runtime.getRuntime().maxMemory() < (32L << 30)) ? 4 : 8;
+
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private Footprint() {
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Returns the size of an object with the given fields
+     *
+     * @param references number of reference fields
+     * @param primitiveBytes total size of the primitive fields
+     * @return estimated size in bytes
+     */
+    static long object(int references, int primitiveBytes) {
+        return align(OBJECT_HEADER_BYTES + (long) references * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * Returns the size of an array, not counting anything its slots point to
+     *
+     * @param length number of slots
+     * @param elementBytes size of one slot
+     * @return estimated size in bytes
+     */
+    static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+}
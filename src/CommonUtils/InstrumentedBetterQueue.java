@@ -0,0 +1,135 @@
+package CommonUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * @implNote A BetterQueue that counts what it does: resizes, copies, adds/removes, and the
+ * largest size and capacity it reached.  Read the counts with {@link #stats()}.
+ *
+ * The counting lives here rather than behind a flag in BetterQueue, so a plain BetterQueue
+ * pays nothing for it: its resize hooks are empty and its add/remove are untouched.  The
+ * counters are plain fields, just like the queue's own, so an instrumented queue is no more
+ * thread safe than a plain one and never does a volatile write.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class InstrumentedBetterQueue<E> extends BetterQueue<E> {
+
+    private long grows;
+    private long shrinks;
+    private long elementsCopied;
+    private int peakSize;
+    private int peakCapacity;
+    private long adds;
+    private long removes;
+
+    /**
+     * Constructs an empty queue
+     */
+    public InstrumentedBetterQueue() {
+        this(CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty queue that grows and shrinks according to the given policy
+     *
+     * @param policy capacity policy to use
+     * @throws NullPointerException if policy is null
+     */
+    public InstrumentedBetterQueue(CapacityPolicy policy) {
+        this(policy, false);
+    }
+
+    /**
+     * Constructs an empty queue that grows and shrinks according to the given policy, see
+     * {@link BetterQueue#BetterQueue(CapacityPolicy, boolean)}
+     *
+     * @param policy capacity policy to use
+     * @param incremental true to spread resizes over many operations
+     * @throws NullPointerException if policy is null
+     */
+    public InstrumentedBetterQueue(CapacityPolicy policy, boolean incremental) {
+        super(policy, incremental);
+    }
+
+    @Override
+    protected void onResize(int oldCapacity, int newCapacity) {
+        if (newCapacity > oldCapacity) {
+            this.grows++;
+        } else {
+            this.shrinks++;
+        }
+        /* the capacity it started with is only ever seen here, as the first oldCapacity */
+        this.peakCapacity = Integer.max(this.peakCapacity, Integer.max(oldCapacity, newCapacity));
+    }
+
+    @Override
+    protected void onCopy(int count) {
+        this.elementsCopied += count;
+    }
+
+    private void added(long count) {
+        this.adds += count;
+        this.peakSize = Integer.max(this.peakSize, this.size());
+    }
+
+    @Override
+    public void add(E item) {
+        super.add(item);
+        added(1);
+    }
+
+    @Override
+    public E remove() {
+        E item = super.remove();
+        if (item != null) {
+            this.removes++;
+        }
+        return item;
+    }
+
+    @Override
+    public void addAll(E[] src, int off, int len) {
+        super.addAll(src, off, len);
+        added(len);
+    }
+
+    @Override
+    public int drainTo(E[] dst, int max) {
+        int n = super.drainTo(dst, max);
+        this.removes += n;
+        return n;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> sink, int max) {
+        /* count as items are handed out, so the count is right even if sink throws */
+        return super.drainTo(item -> {
+            this.removes++;
+            sink.accept(item);
+        }, max);
+    }
+
+    /**
+     * Returns a snapshot of the counts so far.  Later operations don't change it.
+     *
+     * @return the counts so far
+     */
+    public ContainerStats stats() {
+        return new ContainerStats(this.grows, this.shrinks, this.elementsCopied, this.peakSize,
+                Integer.max(this.peakCapacity, this.capacity()), this.adds, this.removes);
+    }
+
+    /**
+     * Sets every count back to 0, and the peaks to the current size and capacity
+     */
+    public void resetStats() {
+        this.grows = 0;
+        this.shrinks = 0;
+        this.elementsCopied = 0;
+        this.peakSize = this.size();
+        this.peakCapacity = this.capacity();
+        this.adds = 0;
+        this.removes = 0;
+    }
+}
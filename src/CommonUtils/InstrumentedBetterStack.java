@@ -0,0 +1,126 @@
+package CommonUtils;
+
+/**
+ * @implNote A BetterStack that counts what it does: resizes, copies, pushes/pops, and the
+ * largest size and capacity it reached.  Read the counts with {@link #stats()}.
+ *
+ * Like {@link InstrumentedBetterQueue}, the counting lives in this subclass so a plain
+ * BetterStack pays nothing for it, and the counters are plain fields.
+ *
+ * @param <E> the type of object this stack will be holding
+ */
+public class InstrumentedBetterStack<E> extends BetterStack<E> {
+
+    private long grows;
+    private long shrinks;
+    private long elementsCopied;
+    private int peakSize;
+    private int peakCapacity;
+    private long pushes;
+    private long pops;
+
+    /**
+     * Constructs an empty stack
+     */
+    public InstrumentedBetterStack() {
+        this(CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty stack that grows and shrinks according to the given policy
+     *
+     * @param policy capacity policy to use
+     * @throws NullPointerException if policy is null
+     */
+    public InstrumentedBetterStack(CapacityPolicy policy) {
+        this(policy, false);
+    }
+
+    /**
+     * Constructs an empty stack that grows and shrinks according to the given policy, see
+     * {@link BetterStack#BetterStack(CapacityPolicy, boolean)}
+     *
+     * @param policy capacity policy to use
+     * @param incremental true to spread resizes over many operations
+     * @throws NullPointerException if policy is null
+     */
+    public InstrumentedBetterStack(CapacityPolicy policy, boolean incremental) {
+        super(policy, incremental);
+    }
+
+    @Override
+    protected void onResize(int oldCapacity, int newCapacity) {
+        if (newCapacity > oldCapacity) {
+            this.grows++;
+        } else {
+            this.shrinks++;
+        }
+        /* the capacity it started with is only ever seen here, as the first oldCapacity */
+        this.peakCapacity = Integer.max(this.peakCapacity, Integer.max(oldCapacity, newCapacity));
+    }
+
+    @Override
+    protected void onCopy(int count) {
+        this.elementsCopied += count;
+    }
+
+    private void pushed(long count) {
+        this.pushes += count;
+        this.peakSize = Integer.max(this.peakSize, this.size());
+    }
+
+    @Override
+    public void push(E item) throws OutOfMemoryError {
+        super.push(item);
+        pushed(1);
+    }
+
+    @Override
+    public E pop() {
+        E item = super.pop();
+        this.pops++;
+        return item;
+    }
+
+    @Override
+    public void pushAll(E[] src, int off, int len) throws OutOfMemoryError {
+        super.pushAll(src, off, len);
+        pushed(len);
+    }
+
+    /*
+     * popN is not overridden: BetterStack.popN discards the items it popped with truncate,
+     * which counts them below.
+     */
+
+    @Override
+    public void truncate(int newSize) {
+        int oldSize = this.size();
+        super.truncate(newSize);
+        this.pops += oldSize - newSize;
+    }
+
+    /**
+     * Returns a snapshot of the counts so far (pushes are reported as adds, pops as removes).
+     * Later operations don't change it.
+     *
+     * @return the counts so far
+     */
+    public ContainerStats stats() {
+        return new ContainerStats(this.grows, this.shrinks, this.elementsCopied, this.peakSize,
+                Integer.max(this.peakCapacity, this.capacity()), this.pushes, this.pops);
+    }
+
+    /**
+     * Sets every count back to 0, and the peaks to the current size and capacity
+     */
+    public void resetStats() {
+        this.grows = 0;
+        this.shrinks = 0;
+        this.elementsCopied = 0;
+        this.peakSize = this.size();
+        this.peakCapacity = this.capacity();
+        this.pushes = 0;
+        this.pops = 0;
+    }
+}
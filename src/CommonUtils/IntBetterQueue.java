@@ -0,0 +1,157 @@
+package CommonUtils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * @implNote A BetterQueue specialized for primitive ints.  Uses the same circular array
+ * and the same growth/shrink rules as {@link BetterQueue}, but stores the values directly
+ * in a int[] so that no element is ever boxed.
+ *
+ * Since an int cannot be <code>null</code>, peek() and remove() on an empty queue throw
+ * instead of returning <code>null</code>.  Check isEmpty() first.
+ */
+public class IntBetterQueue {
+
+    /**
+     * Initial size of queue.  Do not decrease capacity below this value.
+     */
+    private final int INIT_CAPACITY = 8;
+
+    /**
+     * If the array needs to increase in size, it should be increased to
+     * old capacity * INCREASE_FACTOR.
+     *
+     * If it cannot increase by that much (old capacity * INCREASE_FACTOR > max int),
+     * it should increase by CONSTANT_INCREMENT.
+     *
+     * If that can't be done either throw OutOfMemoryError()
+     */
+    private final int INCREASE_FACTOR = 2;
+    private final int CONSTANT_INCREMENT = 1 << 5; // 32
+
+    /**
+     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
+     * the capacity of the UDS to max(capacity * DECREASE_FACTOR, initial capacity).
+     */
+    private final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * Circular array, see {@link BetterQueue} for how the indices move.
+     */
+    private int[] queue;
+    private int out_idx;
+    private int in_idx;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty queue
+     */
+    public IntBetterQueue() {
+        this.in_idx = 0;
+        this.out_idx = 0;
+        this.size = 0;
+        this.capacity = INIT_CAPACITY;
+        this.queue = new int[INIT_CAPACITY];
+    }
+
+    private int generateNewCapacityUpsize() throws OutOfMemoryError {
+        long newCap = ((long)this.capacity) * ((long)INCREASE_FACTOR);
+        if (newCap > Integer.MAX_VALUE) {
+            newCap = ((long)this.capacity) + ((long)CONSTANT_INCREMENT);
+            if (newCap > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError();
+            }
+        }
+        return (int)newCap;
+    }
+
+    /**
+     * Moves the contents into a new array of the given capacity, with the front at index 0
+     */
+    private void resize(int newCap) {
+        int[] newQueue = new int[newCap];
+        /* the live elements are at most two runs: [out, end) and [0, in) */
+        int firstRun = Integer.min(this.size, this.capacity - this.out_idx);
+        System.arraycopy(this.queue, this.out_idx, newQueue, 0, firstRun);
+        System.arraycopy(this.queue, 0, newQueue, firstRun, this.size - firstRun);
+        this.queue = newQueue;
+        this.capacity = newCap;
+        this.out_idx = 0;
+        this.in_idx = this.size;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size < this.capacity) {
+            return;
+        }
+        resize(generateNewCapacityUpsize());
+    }
+
+    private void sizeDown() {
+        /* too big to downsize */
+        if (this.size >= this.capacity * DECREASE_FACTOR) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.size <= INIT_CAPACITY) { return; }
+        resize(Integer.max((int)(DECREASE_FACTOR * this.capacity), INIT_CAPACITY));
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to add
+     * @throws OutOfMemoryError if the underlying array cannot grow any further
+     */
+    public void add(int item) {
+        this.sizeUp();
+        this.queue[this.in_idx] = item;
+        if (++this.in_idx == this.capacity) { this.in_idx = 0; }
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it)
+     *
+     * @return front of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int peek() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        return this.queue[this.out_idx];
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int remove() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        int item = this.queue[this.out_idx];
+        if (++this.out_idx == this.capacity) { this.out_idx = 0; }
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+}
@@ -0,0 +1,140 @@
+package CommonUtils;
+
+import java.util.EmptyStackException;
+
+/**
+ * @implNote A BetterStack specialized for primitive ints.  Uses the same array and the
+ * same growth/shrink rules as {@link BetterStack}, but stores the values directly in a
+ * int[] so that no element is ever boxed.
+ */
+public class IntBetterStack {
+
+    /**
+     * Initial size of stack.  Do not decrease capacity below this value.
+     */
+    private final int INIT_CAPACITY = 8;
+
+    /**
+     * If the array needs to increase in size, it should be increased to
+     * old capacity * INCREASE_FACTOR.
+     *
+     * If it cannot increase by that much (old capacity * INCREASE_FACTOR > max int),
+     * it should increase by CONSTANT_INCREMENT.
+     *
+     * If that can't be done either throw OutOfMemoryError()
+     */
+    private final int INCREASE_FACTOR = 2;
+    private final int CONSTANT_INCREMENT = 1 << 5; // 32
+
+    /**
+     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
+     * the capacity of the UDS to max(capacity * DECREASE_FACTOR, initial capacity).
+     */
+    private final double DECREASE_FACTOR = 0.5;
+
+    private int[] stack;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty stack
+     */
+    public IntBetterStack() {
+        this.stack = new int[INIT_CAPACITY];
+        this.capacity = INIT_CAPACITY;
+        this.size = 0;
+    }
+
+    private int generateNewCapacityUpsize() throws OutOfMemoryError {
+        long newCap = ((long)this.capacity) * ((long)INCREASE_FACTOR);
+        if (newCap > Integer.MAX_VALUE) {
+            newCap = ((long)this.capacity) + ((long)CONSTANT_INCREMENT);
+            if (newCap > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError();
+            }
+        }
+        return (int)newCap;
+    }
+
+    private void resize(int newCap) {
+        int[] newStack = new int[newCap];
+        System.arraycopy(this.stack, 0, newStack, 0, this.size);
+        this.stack = newStack;
+        this.capacity = newCap;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size != this.capacity) {
+            return;
+        }
+        resize(generateNewCapacityUpsize());
+    }
+
+    private void sizeDown() {
+        if (this.size >= this.capacity * DECREASE_FACTOR) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.size <= INIT_CAPACITY) { return; }
+        resize(Integer.max((int)(DECREASE_FACTOR * this.capacity), INIT_CAPACITY));
+    }
+
+    /**
+     * Push an item onto the top of the stack
+     *
+     * @param item item to push
+     * @throws OutOfMemoryError if the underlying data structure cannot hold any more elements
+     */
+    public void push(int item) throws OutOfMemoryError {
+        this.sizeUp();
+        this.stack[this.size] = item;
+        this.size++;
+    }
+
+    /**
+     * Remove and return the top item on the stack
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    public int pop() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        this.size--;
+        int item = this.stack[this.size];
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the top of the stack (does not remove it).
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    public int peek() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return this.stack[this.size - 1];
+    }
+
+    /**
+     * Returns whether the stack is empty
+     *
+     * @return true if the stack is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of elements in the stack
+     *
+     * @return integer representing the number of elements in the stack
+     */
+    public int size() {
+        return this.size;
+    }
+}
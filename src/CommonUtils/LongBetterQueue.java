@@ -0,0 +1,229 @@
+package CommonUtils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * @implNote A BetterQueue specialized for primitive longs.  Uses the same circular array
+ * and the same growth/shrink rules as {@link BetterQueue}, but stores the values directly
+ * in a long[] so that no element is ever boxed.
+ *
+ * Since a long cannot be <code>null</code>, peek() and remove() on an empty queue throw
+ * instead of returning <code>null</code>.  Check isEmpty() first.
+ */
+public class LongBetterQueue {
+
+    /**
+     * Initial size of queue.  Do not decrease capacity below this value.
+     */
+    private final int INIT_CAPACITY = 8;
+
+    /**
+     * If the array needs to increase in size, it should be increased to
+     * old capacity * INCREASE_FACTOR.
+     *
+     * If it cannot increase by that much (old capacity * INCREASE_FACTOR > max int),
+     * it should increase by CONSTANT_INCREMENT.
+     *
+     * If that can't be done either throw OutOfMemoryError()
+     */
+    private final int INCREASE_FACTOR = 2;
+    private final int CONSTANT_INCREMENT = 1 << 5; // 32
+
+    /**
+     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
+     * the capacity of the UDS to max(capacity * DECREASE_FACTOR, initial capacity).
+     */
+    private final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * Circular array, see {@link BetterQueue} for how the indices move.
+     */
+    private long[] queue;
+    private int out_idx;
+    private int in_idx;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty queue
+     */
+    public LongBetterQueue() {
+        this.in_idx = 0;
+        this.out_idx = 0;
+        this.size = 0;
+        this.capacity = INIT_CAPACITY;
+        this.queue = new long[INIT_CAPACITY];
+    }
+
+    /**
+     * Constructs an empty queue with room for expectedSize values, so that filling it up to
+     * that size never resizes.  Once values are removed it may shrink again.
+     *
+     * @param expectedSize number of values the queue is expected to hold
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public LongBetterQueue(int expectedSize) {
+        this();
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        if (expectedSize > this.capacity) {
+            resize(expectedSize);
+        }
+    }
+
+    private int generateNewCapacityUpsize() throws OutOfMemoryError {
+        long newCap = ((long)this.capacity) * ((long)INCREASE_FACTOR);
+        if (newCap > Integer.MAX_VALUE) {
+            newCap = ((long)this.capacity) + ((long)CONSTANT_INCREMENT);
+            if (newCap > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError();
+            }
+        }
+        return (int)newCap;
+    }
+
+    /**
+     * Moves the contents into a new array of the given capacity, with the front at index 0
+     */
+    private void resize(int newCap) {
+        long[] newQueue = new long[newCap];
+        /* the live elements are at most two runs: [out, end) and [0, in) */
+        int firstRun = Integer.min(this.size, this.capacity - this.out_idx);
+        System.arraycopy(this.queue, this.out_idx, newQueue, 0, firstRun);
+        System.arraycopy(this.queue, 0, newQueue, firstRun, this.size - firstRun);
+        this.queue = newQueue;
+        this.capacity = newCap;
+        this.out_idx = 0;
+        this.in_idx = (this.size == newCap) ? 0 : this.size;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size < this.capacity) {
+            return;
+        }
+        resize(generateNewCapacityUpsize());
+    }
+
+    private void sizeDown() {
+        /* too big to downsize */
+        if (this.size >= this.capacity * DECREASE_FACTOR) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.size <= INIT_CAPACITY) { return; }
+        resize(Integer.max((int)(DECREASE_FACTOR * this.capacity), INIT_CAPACITY));
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to add
+     * @throws OutOfMemoryError if the underlying array cannot grow any further
+     */
+    public void add(long item) {
+        this.sizeUp();
+        this.queue[this.in_idx] = item;
+        if (++this.in_idx == this.capacity) { this.in_idx = 0; }
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it)
+     *
+     * @return front of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peek() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        return this.queue[this.out_idx];
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long remove() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        long item = this.queue[this.out_idx];
+        if (++this.out_idx == this.capacity) { this.out_idx = 0; }
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Makes sure the queue can hold at least minCapacity values without resizing.  If it has
+     * to grow, it doubles as many times as needed, only in one go.
+     *
+     * @param minCapacity number of values that must fit
+     * @throws OutOfMemoryError if the queue cannot grow that far
+     */
+    public void ensureCapacity(int minCapacity) throws OutOfMemoryError {
+        if (minCapacity <= this.capacity) {
+            return;
+        }
+        int newCap = this.capacity;
+        while (newCap < minCapacity) {
+            long next = ((long)newCap) * ((long)INCREASE_FACTOR);
+            if (next > Integer.MAX_VALUE) {
+                next = ((long)newCap) + ((long)CONSTANT_INCREMENT);
+                if (next > Integer.MAX_VALUE) {
+                    throw new OutOfMemoryError();
+                }
+            }
+            newCap = (int)next;
+        }
+        resize(newCap);
+    }
+
+    /**
+     * Shrinks the array to exactly the number of values in the queue (at least 1), giving
+     * back all unused memory.  The next add will have to grow it again.
+     */
+    public void trimToSize() {
+        int newCap = Integer.max(1, this.size);
+        if (newCap != this.capacity) {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Returns the number of values the queue can hold before it has to grow
+     *
+     * @return current capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns an estimate of the heap memory the queue holds on to: the queue object and its
+     * long[] array
+     *
+     * @return estimated size of the queue in bytes
+     */
+    public long estimatedRetainedBytes() {
+        return Footprint.object(1, 36) + Footprint.array(this.queue.length, Long.BYTES);
+    }
+}
@@ -0,0 +1,360 @@
+package CommonUtils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * @implNote An indexed min-priority queue of int ids keyed by primitive longs, on an implicit
+ * d-ary heap.  Works like {@link BetterHeap}, but the heap is two parallel primitive columns
+ * (keys and ids), so nothing is boxed or allocated per entry.
+ *
+ * Ids are small non-negative ints chosen by the caller (an item's index, say); each id can be
+ * in the heap at most once.  The index map pos[id] gives an id's current heap index, so
+ * contains/keyOf are O(1) and decreaseKey/remove(id) are O(log_d n).  The index map grows to
+ * fit the largest id seen and never shrinks; the heap columns grow and shrink according to a
+ * {@link CapacityPolicy}, like BetterQueue.
+ *
+ * Since there is no <code>null</code> long, peekKey/peekId/removeMin throw on an empty heap.
+ * Check isEmpty() first.
+ */
+public class LongKeyHeap {
+
+    /**
+     * Arity used when none is given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final CapacityPolicy policy;
+
+    /**
+     * keys[i] and ids[i] are the entry at heap index i; pos[id] is -1 if id is not in the heap
+     */
+    private long[] keys;
+    private int[] ids;
+    private int[] pos;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty heap
+     */
+    public LongKeyHeap() {
+        this(DEFAULT_ARITY, CapacityPolicy.defaultPolicy());
+    }
+
+    /**
+     * Constructs an empty heap with the given arity and capacity policy
+     *
+     * @param arity number of children per node
+     * @param policy capacity policy to use
+     * @throws IllegalArgumentException if arity is less than 2
+     * @throws NullPointerException if policy is null
+     */
+    public LongKeyHeap(int arity, CapacityPolicy policy) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2: " + arity);
+        }
+        this.policy = Objects.requireNonNull(policy);
+        this.arity = arity;
+        this.capacity = policy.initialCapacity();
+        this.keys = new long[this.capacity];
+        this.ids = new int[this.capacity];
+        this.pos = new int[this.capacity];
+        Arrays.fill(this.pos, -1);
+        this.size = 0;
+    }
+
+    private void resize(int newCap) {
+        this.keys = Arrays.copyOf(this.keys, newCap);
+        this.ids = Arrays.copyOf(this.ids, newCap);
+        this.capacity = newCap;
+    }
+
+    /**
+     * Grows (at most once) so that at least required entries fit
+     */
+    private void sizeUpTo(long required) throws OutOfMemoryError {
+        if (required <= this.capacity) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        int newCap = this.capacity;
+        while (newCap < required) {
+            newCap = this.policy.grow(newCap);
+        }
+        resize(newCap);
+    }
+
+    private void sizeDown() {
+        int newCap = this.policy.shrink(this.size, this.capacity);
+        if (newCap != this.capacity) {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Makes the index map big enough for id
+     */
+    private void fitId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id must not be negative: " + id);
+        }
+        if (id < this.pos.length) {
+            return;
+        }
+        int oldLength = this.pos.length;
+        int newLength = (int) Long.min(Integer.MAX_VALUE, Long.max(id + 1L, 2L * oldLength));
+        this.pos = Arrays.copyOf(this.pos, newLength);
+        Arrays.fill(this.pos, oldLength, newLength, -1);
+    }
+
+    private void place(int i, long key, int id) {
+        this.keys[i] = key;
+        this.ids[i] = id;
+        this.pos[id] = i;
+    }
+
+    private void siftUp(int i, long key, int id) {
+        while (i > 0) {
+            int parent = (i - 1) / this.arity;
+            if (key >= this.keys[parent]) {
+                break;
+            }
+            place(i, this.keys[parent], this.ids[parent]);
+            i = parent;
+        }
+        place(i, key, id);
+    }
+
+    /**
+     * @return the index the entry ended up at
+     */
+    private int siftDown(int i, long key, int id) {
+        int n = this.size;
+        while (true) {
+            long first = (long) this.arity * i + 1;
+            if (first >= n) {
+                break;
+            }
+            int last = (int) Long.min(first + this.arity, n);
+            int best = (int) first;
+            long bestKey = this.keys[best];
+            for (int c = best + 1; c < last; c++) {
+                if (this.keys[c] < bestKey) {
+                    best = c;
+                    bestKey = this.keys[c];
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            place(i, bestKey, this.ids[best]);
+            i = best;
+        }
+        place(i, key, id);
+        return i;
+    }
+
+    /**
+     * Adds id with the given key
+     *
+     * @param id id to add
+     * @param key its priority; smaller keys come out first
+     * @throws IllegalArgumentException if id is negative or already in the heap
+     */
+    public void insert(int id, long key) {
+        fitId(id);
+        if (this.pos[id] >= 0) {
+            throw new IllegalArgumentException("id already in the heap: " + id);
+        }
+        this.sizeUpTo((long) this.size + 1);
+        this.size++;
+        siftUp(this.size - 1, key, id);
+    }
+
+    /**
+     * Adds ids[off+i] with key keys[off+i] for i in [0, len).  If the batch is at least as big
+     * as the heap, the whole heap is rebuilt bottom-up in O(size + len).  Either all of them
+     * are added or, if one of the ids is invalid, none are.
+     *
+     * @param newIds ids to add
+     * @param newKeys their keys
+     * @param off index of the first entry to add
+     * @param len number of entries to add
+     * @throws IndexOutOfBoundsException if off and len don't describe a range inside both arrays
+     * @throws IllegalArgumentException if an id is negative, repeated or already in the heap
+     */
+    public void insertAll(int[] newIds, long[] newKeys, int off, int len) {
+        Objects.checkFromIndexSize(off, len, newIds.length);
+        Objects.checkFromIndexSize(off, len, newKeys.length);
+        int i = off;
+        try {
+            for (; i < off + len; i++) {
+                fitId(newIds[i]);
+                if (this.pos[newIds[i]] >= 0) {
+                    throw new IllegalArgumentException("id already in the heap: " + newIds[i]);
+                }
+                /* reserve it so a repeat within the batch is caught too */
+                this.pos[newIds[i]] = Integer.MAX_VALUE;
+            }
+        } catch (IllegalArgumentException e) {
+            for (int j = off; j < i; j++) {
+                this.pos[newIds[j]] = -1;
+            }
+            throw e;
+        }
+        this.sizeUpTo((long) this.size + len);
+        if (len < this.size) {
+            for (int j = off; j < off + len; j++) {
+                this.size++;
+                siftUp(this.size - 1, newKeys[j], newIds[j]);
+            }
+            return;
+        }
+        for (int j = 0; j < len; j++) {
+            place(this.size + j, newKeys[off + j], newIds[off + j]);
+        }
+        this.size += len;
+        /* Floyd's heap construction: sift down every internal node, last one first */
+        for (int j = (this.size - 2) / this.arity; j >= 0; j--) {
+            siftDown(j, this.keys[j], this.ids[j]);
+        }
+    }
+
+    /**
+     * Returns whether id is in the heap
+     *
+     * @param id id to look for
+     * @return true if id is in the heap
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < this.pos.length && this.pos[id] >= 0;
+    }
+
+    /**
+     * Returns the key of id
+     *
+     * @param id id to look up
+     * @return its key
+     * @throws NoSuchElementException if id is not in the heap
+     */
+    public long keyOf(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("id not in the heap: " + id);
+        }
+        return this.keys[this.pos[id]];
+    }
+
+    /**
+     * Lowers the key of id
+     *
+     * @param id id whose key to lower
+     * @param key new key, no larger than the current one
+     * @throws NoSuchElementException if id is not in the heap
+     * @throws IllegalArgumentException if key is larger than the current key
+     */
+    public void decreaseKey(int id, long key) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("id not in the heap: " + id);
+        }
+        int i = this.pos[id];
+        if (key > this.keys[i]) {
+            throw new IllegalArgumentException("New key " + key + " is larger than " + this.keys[i]);
+        }
+        siftUp(i, key, id);
+    }
+
+    /**
+     * Returns the smallest key (does not remove it)
+     *
+     * @return smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long peekKey() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        return this.keys[0];
+    }
+
+    /**
+     * Returns the id with the smallest key (does not remove it)
+     *
+     * @return id of the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int peekId() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        return this.ids[0];
+    }
+
+    /**
+     * Removes the id with the smallest key and returns it
+     *
+     * @return id of the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int removeMin() {
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        int id = this.ids[0];
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Removes id from the heap
+     *
+     * @param id id to remove
+     * @return true if it was removed, false if it wasn't in the heap
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        removeAt(this.pos[id]);
+        return true;
+    }
+
+    private void removeAt(int i) {
+        this.pos[this.ids[i]] = -1;
+        this.size--;
+        int last = this.size;
+        if (i != last) {
+            long key = this.keys[last];
+            int id = this.ids[last];
+            if (siftDown(i, key, id) == i) {
+                siftUp(i, key, id);
+            }
+        }
+        this.sizeDown();
+    }
+
+    /**
+     * Returns the number of children per node
+     *
+     * @return arity of the heap
+     */
+    public int arity() {
+        return this.arity;
+    }
+
+    /**
+     * Returns the number of ids in the heap
+     *
+     * @return integer representing the number of ids in the heap
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the heap is empty
+     *
+     * @return true if the heap is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+}
@@ -0,0 +1,222 @@
+package CommonUtils;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * @implNote A stack of (long, long) pairs stored as two parallel long[] columns.
+ *
+ * Pushing a pair writes one slot of each column, so no object is ever created per entry,
+ * and the top entry can be read and updated in place (topFirst/topSecond/setTopSecond)
+ * instead of popping it and pushing a modified copy.
+ *
+ * The columns are paged like {@link BigBetterStack}, so the stack can hold more than
+ * Integer.MAX_VALUE pairs.  The first page grows and shrinks by the same rules as
+ * {@link LongBetterStack} until it reaches PAGE_SIZE, so a small stack stays small; past
+ * that, whole pages of PAGE_SIZE pairs are added and never copied.  The top page is kept in
+ * fields, so the top is always one array access away.
+ */
+public class LongPairStack {
+
+    /**
+     * Initial size of stack.  Do not decrease capacity below this value.
+     */
+    private final int INIT_CAPACITY = 8;
+
+    /**
+     * If the first page needs to increase in size, it should be increased to
+     * old capacity * INCREASE_FACTOR, up to PAGE_SIZE.
+     */
+    private final int INCREASE_FACTOR = 2;
+
+    /**
+     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
+     * the capacity of the first page to max(capacity * DECREASE_FACTOR, initial capacity).
+     */
+    private final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * Number of pairs per page once the stack outgrows its first page.
+     */
+    private static final int PAGE_SIZE = 1 << 12;
+
+    /**
+     * Initial length of the page directories.
+     */
+    private static final int INIT_PAGES = 8;
+
+    /**
+     * Entry i is in page i / PAGE_SIZE of both columns; firstPages[p] and secondPages[p]
+     * always have the same length.  The top entry is (first[top_idx - 1], second[top_idx - 1]),
+     * where first and second are page topPage; top_idx is only 0 when the stack is empty.
+     */
+    private long[][] firstPages;
+    private long[][] secondPages;
+    private long[] first;
+    private long[] second;
+    private int topPage;
+    private int top_idx;
+    private long size;
+
+    /**
+     * Constructs an empty stack
+     */
+    public LongPairStack() {
+        this.firstPages = new long[INIT_PAGES][];
+        this.secondPages = new long[INIT_PAGES][];
+        this.resizeFirstPage(INIT_CAPACITY);
+        this.topPage = 0;
+        this.top_idx = 0;
+        this.size = 0;
+    }
+
+    private void resizeFirstPage(int newCap) {
+        long[] newFirst = new long[newCap];
+        long[] newSecond = new long[newCap];
+        if (this.first != null) {
+            System.arraycopy(this.first, 0, newFirst, 0, this.top_idx);
+            System.arraycopy(this.second, 0, newSecond, 0, this.top_idx);
+        }
+        this.first = newFirst;
+        this.second = newSecond;
+        this.firstPages[0] = newFirst;
+        this.secondPages[0] = newSecond;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.top_idx != this.first.length) {
+            return;
+        }
+        if (this.topPage == 0 && this.first.length < PAGE_SIZE) {
+            resizeFirstPage(Integer.min(this.first.length * INCREASE_FACTOR, PAGE_SIZE));
+            return;
+        }
+        int next = this.topPage + 1;
+        if (next == this.firstPages.length) {
+            if (next > Integer.MAX_VALUE / INCREASE_FACTOR) {
+                throw new OutOfMemoryError();
+            }
+            this.firstPages = Arrays.copyOf(this.firstPages, next * INCREASE_FACTOR);
+            this.secondPages = Arrays.copyOf(this.secondPages, next * INCREASE_FACTOR);
+        }
+        if (this.firstPages[next] == null) {
+            this.firstPages[next] = new long[PAGE_SIZE];
+            this.secondPages[next] = new long[PAGE_SIZE];
+        }
+        this.topPage = next;
+        this.first = this.firstPages[next];
+        this.second = this.secondPages[next];
+        this.top_idx = 0;
+    }
+
+    private void sizeDown() {
+        if (this.topPage > 0) {
+            if (this.top_idx > 0) {
+                return;
+            }
+            /* the emptied page stays as slack; the one above it goes */
+            int above = this.topPage + 1;
+            if (above < this.firstPages.length) {
+                this.firstPages[above] = null;
+                this.secondPages[above] = null;
+            }
+            this.topPage--;
+            this.first = this.firstPages[this.topPage];
+            this.second = this.secondPages[this.topPage];
+            this.top_idx = this.first.length;
+            return;
+        }
+        if (this.top_idx >= this.first.length * DECREASE_FACTOR) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.top_idx <= INIT_CAPACITY) { return; }
+        resizeFirstPage(Integer.max((int)(DECREASE_FACTOR * this.first.length), INIT_CAPACITY));
+    }
+
+    /**
+     * Push a pair onto the top of the stack
+     *
+     * @param a first value of the pair
+     * @param b second value of the pair
+     * @throws OutOfMemoryError if the underlying data structure cannot hold any more elements
+     */
+    public void pushPair(long a, long b) throws OutOfMemoryError {
+        this.sizeUp();
+        this.first[this.top_idx] = a;
+        this.second[this.top_idx] = b;
+        this.top_idx++;
+        this.size++;
+    }
+
+    /**
+     * Remove the top pair of the stack.  Read it with topFirst()/topSecond() beforehand if needed.
+     *
+     * @throws EmptyStackException if stack is empty
+     */
+    public void pop() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        this.top_idx--;
+        this.size--;
+        this.sizeDown();
+    }
+
+    /**
+     * Returns the first value of the top pair (does not remove it).
+     *
+     * @return first value of the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    public long topFirst() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return this.first[this.top_idx - 1];
+    }
+
+    /**
+     * Returns the second value of the top pair (does not remove it).
+     *
+     * @return second value of the top of the stack
+     * @throws EmptyStackException if stack is empty
+     */
+    public long topSecond() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return this.second[this.top_idx - 1];
+    }
+
+    /**
+     * Replaces the second value of the top pair, leaving it on top
+     *
+     * @param b new second value
+     * @throws EmptyStackException if stack is empty
+     */
+    public void setTopSecond(long b) {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        this.second[this.top_idx - 1] = b;
+    }
+
+    /**
+     * Returns whether the stack is empty
+     *
+     * @return true if the stack is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of pairs in the stack
+     *
+     * @return number of pairs in the stack
+     */
+    public long size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,246 @@
+package CommonUtils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * @implNote A queue of nondecreasing longs (timestamps, say) that stores each value as its
+ * difference from the previous one, encoded as an unsigned LEB128 varint: 7 bits per byte,
+ * low bits first, with the high bit set on every byte but the last.  Gaps below 128 take one
+ * byte, below 16384 two bytes, and so on up to ten bytes for the largest possible gap, instead
+ * of the 8 bytes of a long[] slot (or the 4-byte reference plus 16-byte box of a BetterQueue
+ * of Longs).
+ *
+ * The bytes live in a linked list of fixed-size byte[] chunks like {@link ChunkedBetterQueue},
+ * so the queue never resizes or copies; a varint never straddles two chunks (up to nine bytes
+ * at the end of a chunk may go unused instead), so decoding is a tight loop over one array.
+ * Empty chunks go to a small free-list for reuse.
+ *
+ * Every value added must be at least as large as the one added before it, unless the queue is
+ * empty; remove returns them in the same order.  Since there is no <code>null</code> long,
+ * peek() and remove() on an empty queue throw.  Check isEmpty() first.
+ */
+public class MonotonicLongQueue {
+
+    /**
+     * Default number of bytes per chunk.
+     */
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 12;
+
+    /**
+     * Default number of empty chunks kept around for reuse.
+     */
+    private static final int DEFAULT_MAX_FREE_CHUNKS = 4;
+
+    /**
+     * Longest varint a 64-bit gap can need.
+     */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private static final class Chunk {
+        final byte[] bytes;
+        /**
+         * Number of bytes written; once the chunk is no longer the tail, the end of its data
+         */
+        int used;
+        Chunk next;
+
+        Chunk(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+
+    private final int chunkBytes;
+    private final int maxFreeChunks;
+
+    /**
+     * Varints are read from head.bytes[out_idx] and written to tail.bytes[tail.used].
+     * lastAdded is the back of the queue, lastRemoved the value the front is a gap from.
+     */
+    private Chunk head;
+    private Chunk tail;
+    private int out_idx;
+    private long lastAdded;
+    private long lastRemoved;
+    private long size;
+    private int chunkCount;
+
+    /**
+     * Empty chunks waiting to be reused, linked through next.
+     */
+    private Chunk freeChunks;
+    private int freeCount;
+
+    /**
+     * Constructs an empty queue
+     */
+    public MonotonicLongQueue() {
+        this(DEFAULT_CHUNK_BYTES, DEFAULT_MAX_FREE_CHUNKS);
+    }
+
+    /**
+     * Constructs an empty queue with the given chunk size and free-list length
+     *
+     * @param chunkBytes number of bytes per chunk, at least 10
+     * @param maxFreeChunks number of empty chunks to keep for reuse
+     * @throws IllegalArgumentException if chunkBytes is less than 10 or maxFreeChunks is negative
+     */
+    public MonotonicLongQueue(int chunkBytes, int maxFreeChunks) {
+        if (chunkBytes < MAX_VARINT_BYTES) {
+            throw new IllegalArgumentException("chunkBytes must be at least " + MAX_VARINT_BYTES + ": " + chunkBytes);
+        }
+        if (maxFreeChunks < 0) {
+            throw new IllegalArgumentException("maxFreeChunks must not be negative: " + maxFreeChunks);
+        }
+        this.chunkBytes = chunkBytes;
+        this.maxFreeChunks = maxFreeChunks;
+        this.head = new Chunk(chunkBytes);
+        this.tail = this.head;
+        this.chunkCount = 1;
+        this.out_idx = 0;
+        this.size = 0;
+    }
+
+    private Chunk obtainChunk() {
+        this.chunkCount++;
+        Chunk chunk = this.freeChunks;
+        if (chunk == null) {
+            return new Chunk(this.chunkBytes);
+        }
+        this.freeChunks = chunk.next;
+        this.freeCount--;
+        chunk.next = null;
+        chunk.used = 0;
+        return chunk;
+    }
+
+    private void recycleChunk(Chunk chunk) {
+        this.chunkCount--;
+        if (this.freeCount >= this.maxFreeChunks) {
+            return;
+        }
+        chunk.next = this.freeChunks;
+        this.freeChunks = chunk;
+        this.freeCount++;
+    }
+
+    /**
+     * Add a value to the back of the queue
+     *
+     * @param value value to add; at least the last value added, unless the queue is empty
+     * @throws IllegalArgumentException if value is smaller than the last value added
+     */
+    public void add(long value) {
+        if (this.size == 0) {
+            /* start over from this value, so it's stored as a gap of 0 */
+            this.lastAdded = value;
+            this.lastRemoved = value;
+        } else if (value < this.lastAdded) {
+            throw new IllegalArgumentException("Value " + value + " is smaller than the last value added, " + this.lastAdded);
+        }
+        Chunk t = this.tail;
+        if (this.chunkBytes - t.used < MAX_VARINT_BYTES) {
+            t = obtainChunk();
+            this.tail.next = t;
+            this.tail = t;
+        }
+        /* value >= lastAdded, so the difference fits in 64 unsigned bits even if it overflows a long */
+        long gap = value - this.lastAdded;
+        byte[] b = t.bytes;
+        int i = t.used;
+        while ((gap & ~0x7FL) != 0) {
+            b[i++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        b[i++] = (byte) gap;
+        t.used = i;
+        this.lastAdded = value;
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it)
+     *
+     * @return front of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peek() {
+        if (this.size == 0) { throw new NoSuchElementException(); }
+        byte[] b = this.head.bytes;
+        int i = this.out_idx;
+        long gap = 0;
+        int shift = 0;
+        byte next;
+        while ((next = b[i++]) < 0) {
+            gap |= (next & 0x7FL) << shift;
+            shift += 7;
+        }
+        gap |= ((long) next) << shift;
+        return this.lastRemoved + gap;
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long remove() {
+        if (this.size == 0) { throw new NoSuchElementException(); }
+        Chunk h = this.head;
+        byte[] b = h.bytes;
+        int i = this.out_idx;
+        long gap = 0;
+        int shift = 0;
+        byte next;
+        while ((next = b[i++]) < 0) {
+            gap |= (next & 0x7FL) << shift;
+            shift += 7;
+        }
+        gap |= ((long) next) << shift;
+        long value = this.lastRemoved + gap;
+        this.lastRemoved = value;
+        this.size--;
+        if (this.size == 0) {
+            /* the last value always lives in the tail chunk, so head == tail: start it over */
+            this.out_idx = 0;
+            h.used = 0;
+        } else if (i == h.used && h != this.tail) {
+            this.head = h.next;
+            this.out_idx = 0;
+            h.next = null;
+            recycleChunk(h);
+        } else {
+            this.out_idx = i;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of values in the queue
+     *
+     * @return number of values in the queue
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns an estimate of the heap memory the queue holds on to: the queue object, its
+     * chunks (including the ones on the free-list) and their byte arrays
+     *
+     * @return estimated size of the queue in bytes
+     */
+    public long estimatedRetainedBytes() {
+        long perChunk = Footprint.object(2, 4) + Footprint.array(this.chunkBytes, 1);
+        return Footprint.object(3, 48) + (this.chunkCount + this.freeCount) * perChunk;
+    }
+}
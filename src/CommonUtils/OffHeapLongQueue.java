@@ -0,0 +1,259 @@
+package CommonUtils;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.NoSuchElementException;
+
+/**
+ * @implNote A LongBetterQueue whose circular array lives outside the Java heap, in a
+ * {@link MemorySegment}.  The garbage collector only ever sees the queue object itself, never
+ * the values, so a queue of billions of longs adds nothing to GC work or pause times.  Sizes
+ * and indices are longs for the same reason: the queue can hold more than 2^31 values.
+ *
+ * Grows and shrinks by the same rules as {@link LongBetterQueue}.  Every array gets an
+ * {@link Arena} of its own, so a resize frees the old array as soon as the values have been
+ * copied out of it.  Call {@link #close()} (or use try-with-resources) to free the last one;
+ * it is not freed by the garbage collector.  Afterwards every operation throws
+ * IllegalStateException.
+ *
+ * A confined queue can only be used by the thread that created it (others get
+ * WrongThreadException); a shared one can be used by any thread, but, like every other
+ * non-concurrent queue here, by only one at a time.
+ *
+ * Since a long cannot be <code>null</code>, peek() and remove() on an empty queue throw
+ * instead of returning <code>null</code>.  Check isEmpty() first.
+ */
+public class OffHeapLongQueue implements AutoCloseable {
+
+    /**
+     * Initial size of queue.  Do not decrease capacity below this value.
+     */
+    private static final long INIT_CAPACITY = 8;
+
+    /**
+     * If the array needs to increase in size, it should be increased to
+     * old capacity * INCREASE_FACTOR.
+     *
+     * If it cannot increase by that much (the byte size would overflow a long),
+     * it should increase by CONSTANT_INCREMENT.
+     *
+     * If that can't be done either throw OutOfMemoryError()
+     */
+    private static final long INCREASE_FACTOR = 2;
+    private static final long CONSTANT_INCREMENT = 1 << 5; // 32
+
+    /**
+     * If the number of elements stored is < capacity * DECREASE_FACTOR, it should decrease
+     * the capacity of the UDS to max(capacity * DECREASE_FACTOR, initial capacity).
+     */
+    private static final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * Largest capacity whose size in bytes still fits in a long
+     */
+    private static final long MAX_CAPACITY = Long.MAX_VALUE / Long.BYTES;
+
+    private final boolean shared;
+
+    /**
+     * Circular array, see {@link BetterQueue} for how the indices move.  arena owns queue.
+     */
+    private Arena arena;
+    private MemorySegment queue;
+    private long out_idx;
+    private long in_idx;
+    private long capacity;
+    private long size;
+
+    /**
+     * Constructs an empty queue usable only by the current thread
+     */
+    public OffHeapLongQueue() {
+        this(false);
+    }
+
+    /**
+     * Constructs an empty queue
+     *
+     * @param shared true to allow any thread to use the queue, false to allow only the current one
+     */
+    public OffHeapLongQueue(boolean shared) {
+        this.shared = shared;
+        this.capacity = INIT_CAPACITY;
+        this.arena = newArena();
+        this.queue = this.arena.allocate(INIT_CAPACITY * Long.BYTES, Long.BYTES);
+        this.in_idx = 0;
+        this.out_idx = 0;
+        this.size = 0;
+    }
+
+    private Arena newArena() {
+        return this.shared ? Arena.ofShared() : Arena.ofConfined();
+    }
+
+    private void checkOpen() {
+        if (this.queue == null) {
+            throw new IllegalStateException("Queue is closed");
+        }
+    }
+
+    private long generateNewCapacityUpsize() throws OutOfMemoryError {
+        long newCap = (this.capacity <= MAX_CAPACITY / INCREASE_FACTOR) ? this.capacity * INCREASE_FACTOR
+                : this.capacity + CONSTANT_INCREMENT;
+        if (newCap > MAX_CAPACITY) {
+            throw new OutOfMemoryError();
+        }
+        return newCap;
+    }
+
+    /**
+     * Moves the contents into a new segment of the given capacity, with the front at index 0,
+     * and frees the old one
+     */
+    private void resize(long newCap) {
+        Arena newArena = newArena();
+        MemorySegment newQueue;
+        try {
+            newQueue = newArena.allocate(newCap * Long.BYTES, Long.BYTES);
+        } catch (OutOfMemoryError | IllegalArgumentException e) {
+            newArena.close();
+            throw new OutOfMemoryError("Cannot allocate " + newCap + " longs off-heap");
+        }
+        /* the live elements are at most two runs: [out, end) and [0, in) */
+        long firstRun = Long.min(this.size, this.capacity - this.out_idx);
+        MemorySegment.copy(this.queue, this.out_idx * Long.BYTES, newQueue, 0, firstRun * Long.BYTES);
+        MemorySegment.copy(this.queue, 0, newQueue, firstRun * Long.BYTES, (this.size - firstRun) * Long.BYTES);
+        this.arena.close();
+        this.arena = newArena;
+        this.queue = newQueue;
+        this.capacity = newCap;
+        this.out_idx = 0;
+        this.in_idx = (this.size == newCap) ? 0 : this.size;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size < this.capacity) {
+            return;
+        }
+        resize(generateNewCapacityUpsize());
+    }
+
+    private void sizeDown() {
+        /* too big to downsize */
+        if (this.size >= this.capacity * DECREASE_FACTOR) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.size <= INIT_CAPACITY) { return; }
+        resize(Long.max((long)(DECREASE_FACTOR * this.capacity), INIT_CAPACITY));
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to add
+     * @throws OutOfMemoryError if the off-heap array cannot grow any further
+     * @throws IllegalStateException if the queue is closed
+     */
+    public void add(long item) {
+        this.checkOpen();
+        this.sizeUp();
+        this.queue.setAtIndex(ValueLayout.JAVA_LONG, this.in_idx, item);
+        if (++this.in_idx == this.capacity) { this.in_idx = 0; }
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it)
+     *
+     * @return front of the queue
+     * @throws NoSuchElementException if the queue is empty
+     * @throws IllegalStateException if the queue is closed
+     */
+    public long peek() {
+        this.checkOpen();
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        return this.queue.getAtIndex(ValueLayout.JAVA_LONG, this.out_idx);
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue
+     * @throws NoSuchElementException if the queue is empty
+     * @throws IllegalStateException if the queue is closed
+     */
+    public long remove() {
+        this.checkOpen();
+        if (this.isEmpty()) { throw new NoSuchElementException(); }
+        long item = this.queue.getAtIndex(ValueLayout.JAVA_LONG, this.out_idx);
+        if (++this.out_idx == this.capacity) { this.out_idx = 0; }
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return number of elements in the queue
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of values the queue can hold before it has to grow
+     *
+     * @return current capacity, 0 once closed
+     */
+    public long capacity() {
+        return (this.queue == null) ? 0 : this.capacity;
+    }
+
+    /**
+     * Returns the number of bytes of native memory the queue currently holds
+     *
+     * @return size of the off-heap array in bytes, 0 once closed
+     */
+    public long offHeapBytes() {
+        return this.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Returns an estimate of the heap memory the queue holds on to.  This does not depend on
+     * the number of values, which are all off-heap; see {@link #offHeapBytes()} for those.
+     *
+     * @return estimated heap size of the queue in bytes
+     */
+    public long estimatedRetainedBytes() {
+        /* the queue, its arena and its segment */
+        return Footprint.object(2, 33) + 2 * Footprint.object(2, 16);
+    }
+
+    /**
+     * Frees the off-heap array.  Calling it again does nothing.
+     */
+    @Override
+    public void close() {
+        if (this.queue == null) {
+            return;
+        }
+        this.arena.close();
+        this.arena = null;
+        this.queue = null;
+        this.size = 0;
+        this.in_idx = 0;
+        this.out_idx = 0;
+    }
+}
@@ -0,0 +1,165 @@
+package CommonUtils;
+
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * @implNote An immutable stack: push and pop leave the stack they are called on alone and
+ * return a new version instead.  Every version is a node pointing at the version below it, so
+ * a push allocates exactly one node and shares everything underneath with the old version,
+ * and a pop allocates nothing at all.  Holding on to a version is therefore an O(1) snapshot,
+ * however deep the stack is, and any number of branches can grow from the same snapshot
+ * without copying or disturbing each other.
+ *
+ * The trade-off against BetterStack is locality: the nodes are scattered over the heap instead
+ * of sitting next to each other in one array, so walking a deep stack is slower.
+ *
+ * Since versions never change they can be shared between threads freely.
+ *
+ * @param <E> the type of object this stack will be holding
+ */
+public final class PersistentStack<E> implements Iterable<E> {
+
+    /**
+     * The one empty stack; its top and below are null
+     */
+    private static final PersistentStack<?> EMPTY = new PersistentStack<>(null, null, 0);
+
+    private final E top;
+    private final PersistentStack<E> below;
+    private final int size;
+
+    private PersistentStack(E top, PersistentStack<E> below, int size) {
+        this.top = top;
+        this.below = below;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty stack
+     *
+     * @param <E> the type of object the stack will be holding
+     * @return the empty stack
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentStack<E> empty() {
+        return (PersistentStack<E>) EMPTY;
+    }
+
+    /**
+     * Returns this stack with item on top.  This stack is not changed.
+     *
+     * @param item item to push
+     * @return the new version
+     * @throws NullPointerException if item is null
+     * @throws OutOfMemoryError if the stack already holds Integer.MAX_VALUE items
+     */
+    public PersistentStack<E> push(E item) {
+        Objects.requireNonNull(item);
+        if (this.size == Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        return new PersistentStack<>(item, this, this.size + 1);
+    }
+
+    /**
+     * Returns this stack without its top item.  This stack is not changed.
+     *
+     * @return the version below this one
+     * @throws EmptyStackException if the stack is empty
+     */
+    public PersistentStack<E> pop() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return this.below;
+    }
+
+    /**
+     * Returns the top of the stack
+     *
+     * @return the top of the stack
+     * @throws EmptyStackException if the stack is empty
+     */
+    public E peek() {
+        if (this.isEmpty()) {
+            throw new EmptyStackException();
+        }
+        return this.top;
+    }
+
+    /**
+     * Returns this stack with its top item replaced by item, i.e. pop().push(item).  This
+     * stack is not changed.
+     *
+     * @param item new top item
+     * @return the new version
+     * @throws EmptyStackException if the stack is empty
+     * @throws NullPointerException if item is null
+     */
+    public PersistentStack<E> withTop(E item) {
+        return this.pop().push(item);
+    }
+
+    /**
+     * Returns whether the stack is empty
+     *
+     * @return true if the stack is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of elements in the stack
+     *
+     * @return integer representing the number of elements in the stack
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns an iterator over the elements from the top of the stack to the bottom (the order
+     * pop would return them in).  Since the stack never changes, the iterator never fails.
+     *
+     * @return an iterator over the stack, top first
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private PersistentStack<E> next = PersistentStack.this;
+
+            @Override
+            public boolean hasNext() {
+                return !this.next.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (this.next.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                E item = this.next.top;
+                this.next = this.next.below;
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Passes every element to action, from the top of the stack to the bottom
+     *
+     * @param action receives each element
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (PersistentStack<E> s = this; !s.isEmpty(); s = s.below) {
+            action.accept(s.top);
+        }
+    }
+}
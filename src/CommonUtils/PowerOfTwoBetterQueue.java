@@ -0,0 +1,170 @@
+package CommonUtils;
+
+import java.awt.*;
+
+/**
+ * @implNote A variant of {@link BetterQueue} whose capacity is always a power of two.
+ *
+ * Because the capacity is a power of two, wrapping an index around the circular array is a
+ * single bitwise AND with (capacity - 1) instead of a modulus, and all indices are ints so
+ * no long arithmetic or casts happen on add/remove.
+ *
+ * Growth and shrinking follow the same rules as BetterQueue (double when full, halve when
+ * less than half full, never below the initial capacity), which keeps the capacity a power
+ * of two.  The one exception is the CONSTANT_INCREMENT fallback: once doubling would pass
+ * MAX_CAPACITY, adding a constant would break the invariant, so instead of falling back this
+ * queue throws OutOfMemoryError.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class PowerOfTwoBetterQueue<E> implements BetterQueueInterface<E> {
+
+    /**
+     * Initial size of queue.  Do not decrease capacity below this value.  Must be a power of two.
+     */
+    private final int INIT_CAPACITY = 8;
+
+    /**
+     * Largest power of two that is a valid array length.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Circular array, see {@link BetterQueue}.  mask is always queue.length - 1.
+     */
+    private E[] queue;
+    private int mask;
+    private int out_idx;
+    private int in_idx;
+    private int size;
+
+    /**
+     * Constructs an empty queue
+     */
+    @SuppressWarnings("unchecked")
+    public PowerOfTwoBetterQueue() {
+        this.queue = (E[]) new Object[INIT_CAPACITY];
+        this.mask = INIT_CAPACITY - 1;
+        this.out_idx = 0;
+        this.in_idx = 0;
+        this.size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int newCap) {
+        E[] newQueue = (E[]) new Object[newCap];
+        int firstRun = Integer.min(this.size, this.queue.length - this.out_idx);
+        System.arraycopy(this.queue, this.out_idx, newQueue, 0, firstRun);
+        System.arraycopy(this.queue, 0, newQueue, firstRun, this.size - firstRun);
+        this.queue = newQueue;
+        this.mask = newCap - 1;
+        this.out_idx = 0;
+        this.in_idx = this.size;
+    }
+
+    private void sizeUp() throws OutOfMemoryError {
+        if (this.size < this.queue.length) {
+            return;
+        }
+        /* doubling a power of two keeps it a power of two; there is no fallback past MAX_CAPACITY */
+        if (this.queue.length >= MAX_CAPACITY) {
+            throw new OutOfMemoryError();
+        }
+        resize(this.queue.length << 1);
+    }
+
+    private void sizeDown() {
+        int capacity = this.queue.length;
+        /* too big to downsize */
+        if (this.size >= (capacity >>> 1)) {
+            return;
+        }
+        /* also, cannot go smaller than min capacity */
+        if (this.size <= INIT_CAPACITY) { return; }
+        resize(Integer.max(capacity >>> 1, INIT_CAPACITY));
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public void add(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        this.sizeUp();
+        this.queue[this.in_idx] = item;
+        this.in_idx = (this.in_idx + 1) & this.mask;
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @Override
+    public E peek() {
+        /* an empty slot is always null, so no isEmpty() check is needed */
+        return this.queue[this.out_idx];
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @Override
+    public E remove() {
+        if (this.size == 0) { return null; }
+        E item = this.queue[this.out_idx];
+        this.queue[this.out_idx] = null;
+        this.out_idx = (this.out_idx + 1) & this.mask;
+        this.size--;
+        this.sizeDown();
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the current length of the backing array (always a power of two)
+     *
+     * @return capacity of the queue
+     */
+    public int capacity() {
+        return this.queue.length;
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
@@ -0,0 +1,364 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @implNote A queue that keeps at most a fixed number of elements in memory and spills the
+ * rest to disk, for queues that would otherwise run out of heap.
+ *
+ * The elements are split into three runs, oldest first:
+ *
+ *   1. front: an in-memory BetterQueue that remove takes from
+ *   2. segment files on disk, each a {@link ContainerSnapshots} snapshot of one batch
+ *   3. back: an in-memory BetterQueue that add appends to once anything is on disk
+ *
+ * While nothing has spilled, everything goes to front.  Once front holds its share of the
+ * budget, adds go to back, and an add that finds back holding a full batch first writes it out
+ * as a new segment file.  When front runs empty, remove maps the oldest segment with
+ * FileChannel.map, decodes it into a new front and deletes the file; with nothing on disk, back
+ * simply becomes the new front.  So front plus back never hold more than the budget.
+ *
+ * Segments are only ever read front to back, so while one segment is being consumed the next
+ * one is already being mapped and paged in by a background thread.  When remove gets to it,
+ * it is decoded straight from memory.
+ *
+ * Adds and removes throw UncheckedIOException if a segment can't be written or read.  An add
+ * whose segment can't be written adds nothing, so it can simply be retried.  A segment that
+ * can't be read stays at the front of the line, so no element is ever skipped and a later
+ * remove tries it again.  A segment that has been read but can't be deleted yet (Windows
+ * refuses while the file is still mapped, until the mapping is garbage collected) is tried
+ * again by later removes and by {@link #close()}, which also deletes the segment files that are
+ * left when the queue is no longer needed.  Not thread safe.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class SpillingBetterQueue<E> implements BetterQueueInterface<E>, AutoCloseable {
+
+    /**
+     * Maps and pages in upcoming segments.  Daemon threads, so they never keep the JVM alive.
+     */
+    private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "SpillingBetterQueue-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ElementCodec<E> codec;
+    private final Path directory;
+
+    /**
+     * front may hold up to frontLimit elements; back is spilled once it holds batch elements
+     */
+    private final int frontLimit;
+    private final int batch;
+
+    private BetterQueue<E> front;
+    private BetterQueue<E> back;
+
+    /**
+     * Segment files not read yet, oldest first, and the mapping of the oldest one once its
+     * prefetch has started
+     */
+    private final BetterQueue<Path> segments;
+    private CompletableFuture<MappedByteBuffer> prefetched;
+
+    /**
+     * Segment files already read whose delete failed, to try again
+     */
+    private final BetterQueue<Path> consumed;
+    private long size;
+    private boolean closed;
+
+    /**
+     * Constructs an empty queue
+     *
+     * @param codec turns elements into bytes and back for the segment files
+     * @param memoryBudget maximum number of elements kept in memory, at least 2
+     * @param directory directory to create segment files in
+     * @throws IllegalArgumentException if memoryBudget is less than 2
+     * @throws NullPointerException if codec or directory is null
+     */
+    public SpillingBetterQueue(ElementCodec<E> codec, int memoryBudget, Path directory) {
+        if (memoryBudget < 2) {
+            throw new IllegalArgumentException("memoryBudget must be at least 2: " + memoryBudget);
+        }
+        this.codec = Objects.requireNonNull(codec);
+        this.directory = Objects.requireNonNull(directory);
+        /* a quarter of the budget per segment: big sequential writes, and front keeps the rest */
+        this.batch = Integer.max(1, memoryBudget / 4);
+        this.frontLimit = memoryBudget - this.batch;
+        this.front = new BetterQueue<>();
+        this.back = new BetterQueue<>();
+        this.segments = new BetterQueue<>();
+        this.consumed = new BetterQueue<>();
+        this.size = 0;
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Queue is closed");
+        }
+    }
+
+    /**
+     * Writes back out as a new segment file.  The write goes through the adding thread's own
+     * snapshot buffer, so spilling allocates no buffer of its own.  If it fails, the file is
+     * deleted again and back is left as it was.
+     */
+    private void spill() {
+        try {
+            Path file = Files.createTempFile(this.directory, "spill-", ".seg");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ContainerSnapshots.write(this.back, this.codec, channel);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            this.segments.add(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.back = new BetterQueue<>();
+        if (this.prefetched == null) {
+            this.prefetch();
+        }
+    }
+
+    /**
+     * Starts mapping and paging in the oldest segment in the background
+     */
+    private void prefetch() {
+        Path file = this.segments.peek();
+        this.prefetched = CompletableFuture.supplyAsync(() -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return mapped.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, PREFETCHER);
+    }
+
+    /**
+     * Refills an empty front from the oldest segment, or from back if nothing is on disk.  The
+     * segment only leaves the list once it has been decoded, so after a failure the next call
+     * maps it again and tries once more instead of moving on to the next one.
+     */
+    private void refill() {
+        if (this.segments.isEmpty()) {
+            BetterQueue<E> empty = this.front;
+            this.front = this.back;
+            this.back = empty;
+            return;
+        }
+        Path file = this.segments.peek();
+        if (this.prefetched == null) {
+            this.prefetch();
+        }
+        try {
+            this.front = ContainerSnapshots.readQueue(this.prefetched.join(), this.codec);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            /* whether it worked or not, this mapping is done with */
+            this.prefetched = null;
+        }
+        this.segments.remove();
+        this.consumed.add(file);
+        this.deleteConsumed();
+        if (!this.segments.isEmpty()) {
+            this.prefetch();
+        }
+    }
+
+    /**
+     * Deletes the segment files already read, keeping the ones that can't be deleted yet for
+     * next time
+     *
+     * @return the last failure, or <code>null</code> if every file is gone
+     */
+    private IOException deleteConsumed() {
+        IOException failure = null;
+        for (int n = this.consumed.size(); n > 0; n--) {
+            Path file = this.consumed.remove();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failure = e;
+                this.consumed.add(file);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Add an item to the back of the queue
+     *
+     * @param item item to add
+     * @throws NullPointerException if the specified element is null
+     * @throws UncheckedIOException if a segment file can't be written
+     * @throws IllegalStateException if the queue is closed
+     */
+    @Override
+    public void add(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        this.checkOpen();
+        if (this.segments.isEmpty() && this.back.isEmpty() && this.front.size() < this.frontLimit) {
+            this.front.add(item);
+        } else {
+            /* spill before adding, so a failed spill leaves the queue exactly as it was */
+            if (this.back.size() >= this.batch) {
+                this.spill();
+            }
+            this.back.add(item);
+        }
+        this.size++;
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     * @throws UncheckedIOException if a segment file can't be read
+     * @throws IllegalStateException if the queue is closed
+     */
+    @Override
+    public E peek() {
+        this.checkOpen();
+        if (this.size == 0) { return null; }
+        if (this.front.isEmpty()) {
+            this.refill();
+        }
+        return this.front.peek();
+    }
+
+    /**
+     * Returns and removes the front of the queue
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     * @throws UncheckedIOException if a segment file can't be read
+     * @throws IllegalStateException if the queue is closed
+     */
+    @Override
+    public E remove() {
+        this.checkOpen();
+        if (this.size == 0) { return null; }
+        if (this.front.isEmpty()) {
+            this.refill();
+        }
+        this.size--;
+        return this.front.remove();
+    }
+
+    /**
+     * Returns the number of elements in the queue, or Integer.MAX_VALUE if there are more
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        return (int) Long.min(this.size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of elements in the queue, in memory and on disk
+     *
+     * @return number of elements in the queue
+     */
+    public long longSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return (this.size == 0);
+    }
+
+    /**
+     * Returns the number of elements currently held in memory
+     *
+     * @return number of elements not on disk
+     */
+    public int inMemorySize() {
+        return this.front.size() + this.back.size();
+    }
+
+    /**
+     * Returns the number of segment files waiting to be read
+     *
+     * @return number of segment files on disk
+     */
+    public int spilledSegments() {
+        return this.segments.size();
+    }
+
+    /**
+     * Deletes the remaining segment files and empties the queue.  Calling it again does nothing.
+     *
+     * @throws UncheckedIOException if a segment file can't be deleted
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.prefetched != null) {
+            this.prefetched.cancel(false);
+            this.prefetched = null;
+        }
+        this.front = new BetterQueue<>();
+        this.back = new BetterQueue<>();
+        this.size = 0;
+        IOException failure = this.deleteConsumed();
+        while (!this.segments.isEmpty()) {
+            try {
+                Files.deleteIfExists(this.segments.remove());
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
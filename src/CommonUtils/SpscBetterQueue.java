@@ -0,0 +1,248 @@
+package CommonUtils;
+
+import java.awt.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * @implNote A bounded, lock-free queue for exactly one producer thread and one consumer thread.
+ *
+ * The producer owns the tail counter and the consumer owns the head counter; each is only
+ * ever written by its owner, with release semantics, and read by the other side with acquire
+ * semantics, so the element written before a tail update is visible to whoever sees that update.
+ * No CAS and no locks are used anywhere.
+ *
+ * Each side also keeps a plain cached copy of the other side's counter and only re-reads the
+ * real one when the cached value says the queue is full (producer) or empty (consumer), so in
+ * steady state the two threads don't touch each other's cache lines.  The counters live in
+ * separate classes of the hierarchy surrounded by padding so they never share a cache line.
+ *
+ * Only the producer thread may call add/offer, and only the consumer thread may call
+ * remove/peek.  size() and isEmpty() may be called from either thread (or any other), and
+ * return a value that was correct at some moment during the call.
+ *
+ * @param <E> the type of object this queue will be holding
+ */
+public class SpscBetterQueue<E> extends SpscBetterQueueFields implements BetterQueueInterface<E> {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscHead.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscTail.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Constructs an empty queue that holds at most capacity elements
+     *
+     * @param capacity maximum number of elements, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive or too large
+     */
+    public SpscBetterQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Adds an item to the back of the queue if there is room.  Producer thread only.
+     *
+     * @param item item to add
+     * @return true if the item was added, false if the queue was full
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E item) {
+        if (item == null) { throw new NullPointerException(); }
+        long t = this.tail;
+        if (t - this.headCache >= this.buffer.length) {
+            /* looks full, find out how far the consumer really got */
+            this.headCache = (long) HEAD.getAcquire(this);
+            if (t - this.headCache >= this.buffer.length) {
+                return false;
+            }
+        }
+        this.buffer[(int) t & this.mask] = item;
+        /* the release publishes the slot write to the consumer */
+        TAIL.setRelease(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Add an item to the back of the queue.  Producer thread only.
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     * @throws IllegalStateException if the queue is full; use offer to wait for room instead
+     */
+    @Override
+    public void add(E item) {
+        if (!offer(item)) {
+            throw new IllegalStateException("Queue full");
+        }
+    }
+
+    /**
+     * Returns the front of the queue (does not remove it) or <code>null</code> if the queue is empty.
+     * Consumer thread only.
+     *
+     * @return front of the queue or <code>null</code> if the queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long h = this.head;
+        if (h >= this.tailCache) {
+            this.tailCache = (long) TAIL.getAcquire(this);
+            if (h >= this.tailCache) {
+                return null;
+            }
+        }
+        return (E) this.buffer[(int) h & this.mask];
+    }
+
+    /**
+     * Returns and removes the front of the queue.  Consumer thread only.
+     *
+     * @return the head of the queue, or <code>null</code> if this queue is empty
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        long h = this.head;
+        if (h >= this.tailCache) {
+            /* looks empty, find out how far the producer really got */
+            this.tailCache = (long) TAIL.getAcquire(this);
+            if (h >= this.tailCache) {
+                return null;
+            }
+        }
+        int slot = (int) h & this.mask;
+        E item = (E) this.buffer[slot];
+        this.buffer[slot] = null;
+        /* the release orders the slot clear before the producer can reuse it */
+        HEAD.setRelease(this, h + 1);
+        return item;
+    }
+
+    /**
+     * Returns the number of elements in the queue
+     *
+     * @return integer representing the number of elements in the queue
+     */
+    @Override
+    public int size() {
+        /* read head first: both only grow, so a race can only make tail - head too big, never negative */
+        long h = (long) HEAD.getAcquire(this);
+        long t = (long) TAIL.getAcquire(this);
+        return (int) Long.max(0, Long.min(t - h, this.buffer.length));
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        long h = (long) HEAD.getAcquire(this);
+        return (long) TAIL.getAcquire(this) == h;
+    }
+
+    /**
+     * Returns the maximum number of elements the queue can hold
+     *
+     * @return capacity of the queue
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+     *
+     * @param g graphics object to draw on
+     */
+    @Override
+    public void draw(Graphics g) {
+        //DO NOT MODIFY NOR IMPLEMENT THIS FUNCTION
+        if(g != null) g.getColor();
+        //todo GRAPHICS DEVELOPER:: draw the queue how we discussed
+        //251 STUDENTS:: YOU ARE NOT THE GRAPHICS DEVELOPER!
+    }
+}
+
+/*
+ * Field layout for SpscBetterQueue.  The JVM lays out superclass fields before subclass
+ * fields, so alternating padding and data classes keeps the consumer's fields, the producer's
+ * fields and the shared read-only fields on different cache lines.
+ */
+
+abstract class SpscPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+}
+
+abstract class SpscShared extends SpscPad0 {
+    /**
+     * ring of slots; length is a power of two and mask is length - 1
+     */
+    final Object[] buffer;
+    final int mask;
+
+    SpscShared(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) { size <<= 1; }
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+}
+
+abstract class SpscPad1 extends SpscShared {
+    long p10, p11, p12, p13, p14, p15, p16, p17, p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+
+    SpscPad1(int capacity) { super(capacity); }
+}
+
+abstract class SpscHead extends SpscPad1 {
+    /**
+     * next slot to read; written only by the consumer, read by the producer through HEAD
+     */
+    long head;
+    /**
+     * consumer's last known value of tail
+     */
+    long tailCache;
+
+    SpscHead(int capacity) { super(capacity); }
+}
+
+abstract class SpscPad2 extends SpscHead {
+    long p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+
+    SpscPad2(int capacity) { super(capacity); }
+}
+
+abstract class SpscTail extends SpscPad2 {
+    /**
+     * next slot to write; written only by the producer, read by the consumer through TAIL
+     */
+    long tail;
+    /**
+     * producer's last known value of head
+     */
+    long headCache;
+
+    SpscTail(int capacity) { super(capacity); }
+}
+
+abstract class SpscBetterQueueFields extends SpscTail {
+    long p30, p31, p32, p33, p34, p35, p36, p37, p38, p39, p3a, p3b, p3c, p3d, p3e, p3f;
+
+    SpscBetterQueueFields(int capacity) { super(capacity); }
+}
@@ -0,0 +1,142 @@
+package CommonUtils;
+
+/**
+ * Configurable growth/shrink rules for array-based containers.
+ *
+ * If the array needs to increase in size, it is increased to old capacity * increaseFactor.
+ * If it cannot increase by that much (old capacity * increaseFactor > max int), it is increased
+ * by constantIncrement.  If that can't be done either, OutOfMemoryError is thrown.
+ *
+ * If, after a removal, the number of elements stored is < capacity * (decreaseFactor - hysteresis),
+ * the capacity is decreased to max(capacity * decreaseFactor, minCapacity).  A non-zero hysteresis
+ * keeps a workload that hovers around the shrink boundary from reallocating on every add/remove:
+ * with decreaseFactor 0.5 and hysteresis 0.25 the array halves only once it is a quarter full,
+ * so it is still half empty after shrinking.  Containers never shrink while they hold
+ * minCapacity or fewer elements, and never shrink at all if shrinks is false.
+ *
+ * @param initialCapacity capacity of a new container
+ * @param increaseFactor multiplier applied when the container is full, must be > 1
+ * @param constantIncrement growth used once multiplying would overflow an int
+ * @param decreaseFactor occupancy below which to shrink, and the multiplier applied when shrinking
+ * @param hysteresis extra occupancy gap below decreaseFactor before a shrink happens
+ * @param minCapacity capacity is never decreased below this value
+ * @param shrinks false to never give memory back
+ */
+public record StandardCapacityPolicy(int initialCapacity, double increaseFactor, int constantIncrement,
+                                     double decreaseFactor, double hysteresis, int minCapacity,
+                                     boolean shrinks) implements CapacityPolicy {
+
+    /**
+     * The rules BetterQueue and BetterStack were originally written with
+     */
+    static final StandardCapacityPolicy DEFAULT =
+            new StandardCapacityPolicy(8, 2, 1 << 5, 0.5, 0, 8, true);
+
+    /**
+     * Validates the parameters
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public StandardCapacityPolicy {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive: " + initialCapacity);
+        }
+        if (!(increaseFactor > 1)) {
+            throw new IllegalArgumentException("increaseFactor must be > 1: " + increaseFactor);
+        }
+        if (constantIncrement < 1) {
+            throw new IllegalArgumentException("constantIncrement must be positive: " + constantIncrement);
+        }
+        if (!(decreaseFactor > 0 && decreaseFactor < 1)) {
+            throw new IllegalArgumentException("decreaseFactor must be in (0, 1): " + decreaseFactor);
+        }
+        if (!(hysteresis >= 0 && hysteresis < decreaseFactor)) {
+            throw new IllegalArgumentException("hysteresis must be in [0, decreaseFactor): " + hysteresis);
+        }
+        if (minCapacity < 1) {
+            throw new IllegalArgumentException("minCapacity must be positive: " + minCapacity);
+        }
+    }
+
+    @Override
+    public int grow(int capacity) throws OutOfMemoryError {
+        long newCap = (long)(capacity * increaseFactor);
+        if (newCap <= capacity) {
+            /* tiny capacities with a small factor would otherwise never grow */
+            newCap = capacity + 1L;
+        }
+        if (newCap > Integer.MAX_VALUE) {
+            newCap = ((long)capacity) + ((long)constantIncrement);
+            if (newCap > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError();
+            }
+        }
+        return (int)newCap;
+    }
+
+    @Override
+    public int shrink(int size, int capacity) {
+        if (!shrinks) { return capacity; }
+        /* too big to downsize */
+        if (size >= capacity * (decreaseFactor - hysteresis)) { return capacity; }
+        /* also, cannot go smaller than min capacity */
+        if (size <= minCapacity) { return capacity; }
+        return Integer.max((int)(capacity * decreaseFactor), minCapacity);
+    }
+
+    /**
+     * Returns a copy of this policy with a different growth multiplier
+     * @param factor new increaseFactor
+     * @return the new policy
+     */
+    public StandardCapacityPolicy withIncreaseFactor(double factor) {
+        return new StandardCapacityPolicy(initialCapacity, factor, constantIncrement,
+                decreaseFactor, hysteresis, minCapacity, shrinks);
+    }
+
+    /**
+     * Returns a copy of this policy with a different shrink threshold/multiplier
+     * @param factor new decreaseFactor
+     * @return the new policy
+     */
+    public StandardCapacityPolicy withDecreaseFactor(double factor) {
+        return new StandardCapacityPolicy(initialCapacity, increaseFactor, constantIncrement,
+                factor, hysteresis, minCapacity, shrinks);
+    }
+
+    /**
+     * Returns a copy of this policy with a different hysteresis gap
+     * @param gap new hysteresis
+     * @return the new policy
+     */
+    public StandardCapacityPolicy withHysteresis(double gap) {
+        return new StandardCapacityPolicy(initialCapacity, increaseFactor, constantIncrement,
+                decreaseFactor, gap, minCapacity, shrinks);
+    }
+
+    /**
+     * Returns a copy of this policy that starts at, and never shrinks below, the given capacity
+     * @param capacity new initialCapacity and minCapacity
+     * @return the new policy
+     */
+    public StandardCapacityPolicy withMinCapacity(int capacity) {
+        return new StandardCapacityPolicy(capacity, increaseFactor, constantIncrement,
+                decreaseFactor, hysteresis, capacity, shrinks);
+    }
+
+    /**
+     * Returns a copy of this policy that never shrinks
+     * @return the new policy
+     */
+    public StandardCapacityPolicy neverShrink() {
+        return new StandardCapacityPolicy(initialCapacity, increaseFactor, constantIncrement,
+                decreaseFactor, hysteresis, minCapacity, false);
+    }
+
+    /**
+     * Returns the default policy, as a starting point for the with... methods
+     * @return the default policy
+     */
+    public static StandardCapacityPolicy defaults() {
+        return DEFAULT;
+    }
+}
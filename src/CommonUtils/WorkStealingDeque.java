@@ -0,0 +1,188 @@
+package CommonUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * @implNote A Chase-Lev work-stealing deque: one owner thread pushes and pops at the bottom
+ * (LIFO, so it keeps working on what is hot in its cache), and any number of thief threads
+ * steal from the top (FIFO, so they take the oldest, usually biggest, pieces of work).
+ *
+ * The owner's push and pop touch only the bottom index and need no CAS, except when pop and
+ * a steal race for the very last element; thieves claim an element with a CAS on the top
+ * index.  The array is circular and is replaced by one twice as large when the owner runs out
+ * of room; thieves still reading the old array see the same elements there, so nothing has to
+ * be coordinated with them.  The array never shrinks, and a slot keeps its element until the
+ * slot is reused (clearing it safely would need another CAS per operation).
+ *
+ * Only the owner thread may call push and pop.  steal, size and isEmpty may be called from
+ * any thread; size/isEmpty are exact when no operation is in progress.
+ *
+ * @param <E> the type of object this deque will be holding
+ */
+public class WorkStealingDeque<E> {
+
+    /**
+     * Default number of slots of a new deque.
+     */
+    private static final int DEFAULT_CAPACITY = 1 << 5;
+
+    private static final VarHandle TOP;
+    private static final VarHandle BOTTOM;
+    private static final VarHandle ARRAY;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOP = lookup.findVarHandle(WorkStealingDeque.class, "top", long.class);
+            BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom", long.class);
+            ARRAY = lookup.findVarHandle(WorkStealingDeque.class, "array", Object[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * next index to steal from; only ever increases, always through a CAS
+     */
+    private volatile long top;
+    /**
+     * next index to push to; written only by the owner
+     */
+    private volatile long bottom;
+    /**
+     * circular array; element i lives in array[i & (array.length - 1)]
+     */
+    private volatile Object[] array;
+
+    /**
+     * Constructs an empty deque
+     */
+    public WorkStealingDeque() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty deque with room for capacity elements before it has to grow
+     *
+     * @param capacity initial number of slots, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive or too large
+     */
+    public WorkStealingDeque(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) { size <<= 1; }
+        this.array = new Object[size];
+    }
+
+    /**
+     * Copies elements [t, b) into an array twice as large
+     */
+    private Object[] grow(Object[] a, long t, long b) throws OutOfMemoryError {
+        if (a.length >= (1 << 30)) {
+            throw new OutOfMemoryError();
+        }
+        Object[] bigger = new Object[a.length << 1];
+        for (long i = t; i < b; i++) {
+            bigger[(int) i & (bigger.length - 1)] = a[(int) i & (a.length - 1)];
+        }
+        /* publish the copy before the bottom update that makes new elements visible */
+        ARRAY.setRelease(this, bigger);
+        return bigger;
+    }
+
+    /**
+     * Pushes an item onto the bottom.  Owner thread only.
+     *
+     * @param item item to push
+     * @throws NullPointerException if the specified element is null
+     * @throws OutOfMemoryError if the underlying data structure cannot hold any more elements
+     */
+    public void push(E item) throws OutOfMemoryError {
+        if (item == null) { throw new NullPointerException(); }
+        long b = (long) BOTTOM.getOpaque(this);
+        long t = (long) TOP.getAcquire(this);
+        Object[] a = (Object[]) ARRAY.getOpaque(this);
+        if (b - t > a.length - 1) {
+            a = grow(a, t, b);
+        }
+        SLOT.setOpaque(a, (int) b & (a.length - 1), item);
+        /* the release publishes the slot write to thieves */
+        BOTTOM.setRelease(this, b + 1);
+    }
+
+    /**
+     * Removes and returns the most recently pushed item.  Owner thread only.
+     *
+     * @return the bottom item, or <code>null</code> if the deque is empty (or a thief took the last one)
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        long b = (long) BOTTOM.getOpaque(this) - 1;
+        Object[] a = (Object[]) ARRAY.getOpaque(this);
+        BOTTOM.setOpaque(this, b);
+        /* the bottom update must be visible before top is read, or a thief could take the same item */
+        VarHandle.fullFence();
+        long t = (long) TOP.getOpaque(this);
+        if (t > b) {
+            /* empty: put bottom back */
+            BOTTOM.setOpaque(this, b + 1);
+            return null;
+        }
+        E item = (E) SLOT.getOpaque(a, (int) b & (a.length - 1));
+        if (t == b) {
+            /* last element: race the thieves for it */
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+                item = null;
+            }
+            BOTTOM.setOpaque(this, b + 1);
+        }
+        return item;
+    }
+
+    /**
+     * Removes and returns the oldest item.  Any thread.
+     *
+     * @return the top item, or <code>null</code> if the deque is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E steal() {
+        while (true) {
+            long t = (long) TOP.getAcquire(this);
+            VarHandle.fullFence();
+            long b = (long) BOTTOM.getAcquire(this);
+            if (t >= b) {
+                return null;
+            }
+            Object[] a = (Object[]) ARRAY.getAcquire(this);
+            E item = (E) SLOT.getAcquire(a, (int) t & (a.length - 1));
+            if (TOP.compareAndSet(this, t, t + 1)) {
+                return item;
+            }
+            /* another thief or the owner got it first, try the next one */
+        }
+    }
+
+    /**
+     * Returns the number of elements in the deque.  Exact when no operation is in progress.
+     *
+     * @return integer representing the number of elements in the deque
+     */
+    public int size() {
+        long t = this.top;
+        long b = this.bottom;
+        return (int) Long.max(0, b - t);
+    }
+
+    /**
+     * Returns whether the deque is empty.  Exact when no operation is in progress.
+     *
+     * @return true if the deque is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
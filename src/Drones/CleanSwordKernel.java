@@ -0,0 +1,111 @@
+package Drones;
+
+import CommonUtils.BigLongArray;
+
+/**
+ * The sword cleaning loop on primitive arrays only.
+ *
+ * Every request adds a sword to the back of the queue and takes one off the front, so the
+ * queue always holds exactly numSwords swords and can be a fixed ring: the sword taken off for
+ * request j is in the same slot the sword of request j gets put in.  A slot first holds the
+ * processing time of one of the initial swords (which were all received at time 0), and after
+ * its first use the receive time of a request's sword (whose processing time is always the
+ * cleaning time).  With no initial swords at all, every request cleans its own sword.
+ *
+ * Requests are fed in blocks through {@link #process}, which reads request times from one
+ * long[] and writes the results into two others, so the caller can stream a file of any
+ * length through a few reusable arrays.  process allocates nothing.
+ */
+public final class CleanSwordKernel {
+
+    private final BigLongArray ring;
+    private final long numSwords;
+    private final long cleaningTime;
+
+    /**
+     * The slot the next request uses is ringPage[ring_idx], ringPage being page ringPageNumber
+     */
+    private long[] ringPage;
+    private int ringPageNumber;
+    private int ring_idx;
+    private long processed;
+    private long currentTime;
+
+    /**
+     * Constructs a kernel starting at time 0
+     *
+     * @param processingTimes processing time of every sword in the queue at the start, front
+     *                        first; becomes the ring, so it must not be used afterwards
+     * @param cleaningTime processing time of every sword that comes with a request
+     */
+    public CleanSwordKernel(BigLongArray processingTimes, long cleaningTime) {
+        this.ring = processingTimes;
+        this.numSwords = processingTimes.length();
+        this.cleaningTime = cleaningTime;
+        this.ringPage = (this.numSwords == 0) ? null : processingTimes.page(0);
+        this.ringPageNumber = 0;
+        this.ring_idx = 0;
+        this.processed = 0;
+        this.currentTime = 0;
+    }
+
+    /**
+     * Processes the next length requests, in order
+     *
+     * @param requestTimes receive times of the requests, in requestTimes[0, length)
+     * @param timeFilled receives the time each request was filled
+     * @param timeToFulfill receives the time it took to fill each request
+     * @param length number of requests
+     * @throws ArrayIndexOutOfBoundsException if an array is shorter than length
+     */
+    public void process(long[] requestTimes, long[] timeFilled, long[] timeToFulfill, int length) {
+        long time = this.currentTime;
+        final long clean = this.cleaningTime;
+        if (this.numSwords == 0) {
+            for (int i = 0; i < length; i++) {
+                long request = requestTimes[i];
+                time = Math.max(time, request) + clean;
+                long filled = Math.max(request, time);
+                timeFilled[i] = filled;
+                timeToFulfill[i] = filled - request;
+            }
+            this.currentTime = time;
+            this.processed += length;
+            return;
+        }
+        long[] page = this.ringPage;
+        int k = this.ring_idx;
+        long j = this.processed;
+        final long initial = this.numSwords;
+        for (int i = 0; i < length; i++) {
+            long request = requestTimes[i];
+            long slot = page[k];
+            /* an initial sword's slot holds its processing time, a request's sword's its receive time */
+            time = (j < initial) ? Math.max(time, 0) + slot : Math.max(time, slot) + clean;
+            page[k] = request;
+            j++;
+            if (++k == page.length) {
+                int next = this.ringPageNumber + 1;
+                this.ringPageNumber = (next == this.ring.pageCount()) ? 0 : next;
+                page = this.ring.page(this.ringPageNumber);
+                k = 0;
+            }
+            long filled = Math.max(request, time);
+            timeFilled[i] = filled;
+            timeToFulfill[i] = filled - request;
+        }
+        this.ringPage = page;
+        this.ring_idx = k;
+        this.processed = j;
+        this.currentTime = time;
+    }
+
+    /**
+     * Returns the number of requests processed so far
+     *
+     * @return number of requests processed
+     */
+    public long processed() {
+        return this.processed;
+    }
+}
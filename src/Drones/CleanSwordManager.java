@@ -1,9 +1,10 @@
 package Drones;
 
-import CommonUtils.BetterQueue;
+import CommonUtils.BigLongArray;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Manages everything regarding the cleaning of swords in our game.
@@ -13,78 +14,135 @@ import java.util.ArrayList;
  * the standard library.  Any other containers used must be ones you created.
  */
 public class CleanSwordManager implements CleanSwordManagerInterface {
-    private record SwordData(long receiveTime, long processingTime) {}
+    /**
+     * Number of requests read and processed at a time by the sequential path
+     */
+    private static final int REQUEST_BLOCK = 1 << 12;
 
-    private BetterQueue<Long> readRequestList(BufferedReader br, long count) throws IOException {
-        BetterQueue<Long> q = new BetterQueue<>();
-        for (int i = 0; i < count; i++) {
-            long value = Long.parseLong(br.readLine());
-            q.add(value);
-        }
-        return q;
+    /**
+     * Pool to compute the cleaning times in, or null to compute them sequentially
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a manager that computes the cleaning times sequentially, with {@link CleanSwordKernel}
+     */
+    public CleanSwordManager() {
+        this(null);
     }
-    private BetterQueue<SwordData> readSwordList(BufferedReader br, long count) throws IOException {
-        BetterQueue<SwordData> q = new BetterQueue<>();
-        for (int i = 0; i < count; i++) {
-            long value = Long.parseLong(br.readLine());
-            q.add(new SwordData(0,value));
-        }
-        return q;
+
+    /**
+     * Constructs a manager that computes the cleaning times as a parallel scan in the given
+     * pool (see {@link ParallelCleanSwordScan}), or sequentially if pool is null.  The results
+     * are the same either way.
+     *
+     * @param pool pool to run the scan in, or null
+     */
+    public CleanSwordManager(ForkJoinPool pool) {
+        this.pool = pool;
     }
 
-    private ArrayList<CleanSwordTimes> calculate(
-            BetterQueue<SwordData> swords,
-            BetterQueue<Long> requests,
-            long cleaningTime
-    ) {
-        ArrayList<CleanSwordTimes> result = new ArrayList<>();
-        long currentTime = 0;
-        while (!requests.isEmpty()) {
-            long requestReceiveTime = requests.remove();
-            /* generate sword */
-            swords.add(new SwordData(requestReceiveTime,cleaningTime));
-            /* if we don't have a sword ready, we jump in time until we do */
-            SwordData swordData = swords.remove();
-            /* we can only clean one sword at a time--
-                we start cleaning at the later of the sword receiving time & the current time
-                    (after doing our other work)
-                we end after the sword's processing time is over.
-                also updates currentTime (since we spend that much time cleaning the next sword)
-             */
-            currentTime = Math.max(currentTime, swordData.receiveTime) + swordData.processingTime;
+    /**
+     * Streams count request times from br through the kernel a block at a time, handing the
+     * results to sink in order
+     *
+     * @return the number of cleaning times passed to sink
+     */
+    private long calculate(BufferedReader br, long count, CleanSwordKernel kernel, CleaningTimeSink sink)
+            throws IOException {
+        int block = (int) Long.min(count, REQUEST_BLOCK);
+        long[] requestTimes = new long[block];
+        long[] timeFilled = new long[block];
+        long[] timeToFulfill = new long[block];
+        long index = 0;
+        while (index < count) {
+            int length = (int) Long.min(count - index, block);
+            for (int i = 0; i < length; i++) {
+                requestTimes[i] = Long.parseLong(br.readLine());
+            }
+            kernel.process(requestTimes, timeFilled, timeToFulfill, length);
+            for (int i = 0; i < length; i++) {
+                sink.accept(index++, timeFilled[i], timeToFulfill[i]);
+            }
+        }
+        return index;
+    }
 
-            /* now we calculate the parameters */
-            long timeFilled = Math.max(requestReceiveTime,currentTime);
-            long timeToFulfill = timeFilled - requestReceiveTime;
-            result.add(new CleanSwordTimes(timeFilled,timeToFulfill));
+    /**
+     * Reads a column of count numbers, one per line
+     */
+    private BigLongArray readColumn(BufferedReader br, long count) throws IOException {
+        BigLongArray column = new BigLongArray(count);
+        for (int p = 0; p < column.pageCount(); p++) {
+            long[] page = column.page(p);
+            for (int i = 0; i < page.length; i++) {
+                page[i] = Long.parseLong(br.readLine());
+            }
         }
-        return result;
+        return column;
     }
 
     /**
-     * Gets the cleaning times per the specifications.
+     * Reads the given input file and computes its cleaning times, sequentially or with the
+     * pool, handing them to sink in order
      *
      * @param filename file to read input from
-     * @return the list of times requests were filled and times it took to fill them, as per the specifications
+     * @param result if not null, made big enough for all the cleaning times before any are computed
+     * @param sink receives each request's index, time filled and time to fulfill
+     * @return the number of cleaning times passed to sink
      */
-    @Override
-    public ArrayList<CleanSwordTimes> getCleaningTimes(String filename) {
+    private long process(String filename, ArrayList<CleanSwordTimes> result, CleaningTimeSink sink) {
         try {
             BufferedReader bf = new BufferedReader(new FileReader(filename));
             String[] firstLine = bf.readLine().split(" ");
             long numSwords = Long.parseLong(firstLine[0]);
             long numRequests = Long.parseLong(firstLine[1]);
             long cleaningTime = Long.parseLong(firstLine[2]);
-            BetterQueue<SwordData> swords = readSwordList(bf, numSwords);
-            BetterQueue<Long> requests = readRequestList(bf, numRequests);
+            if (result != null) {
+                /* a list can't hold more than this anyway; use forEachCleaningTime for bigger inputs */
+                result.ensureCapacity((int) Long.min(numRequests, Integer.MAX_VALUE - 8));
+            }
+            BigLongArray processingTimes = readColumn(bf, numSwords);
+            if (this.pool == null) {
+                long count = calculate(bf, numRequests, new CleanSwordKernel(processingTimes, cleaningTime), sink);
+                bf.close();
+                return count;
+            }
+            BigLongArray requestTimes = readColumn(bf, numRequests);
             bf.close();
-            return calculate(swords, requests, cleaningTime);
+            return new ParallelCleanSwordScan(processingTimes, requestTimes, cleaningTime).run(this.pool, sink);
         } catch (IOException e) {
             //This should never happen... uh oh o.o
             System.err.println("ATTENTION TAs: Couldn't find test file: \"" + filename + "\":: " + e.getMessage());
             System.exit(1);
-            return null;
+            return 0;
         }
     }
-}
 
+    /**
+     * Gets the cleaning times per the specifications.
+     *
+     * @param filename file to read input from
+     * @return the list of times requests were filled and times it took to fill them, as per the specifications
+     */
+    @Override
+    public ArrayList<CleanSwordTimes> getCleaningTimes(String filename) {
+        ArrayList<CleanSwordTimes> result = new ArrayList<>();
+        process(filename, result,
+                (index, timeFilled, timeToFulfill) -> result.add(new CleanSwordTimes(timeFilled, timeToFulfill)));
+        return result;
+    }
+
+    /**
+     * Computes the same cleaning times as getCleaningTimes, in the same order, but hands each
+     * one to sink instead of collecting them
+     *
+     * @param filename file to read input from
+     * @param sink receives each request's index, time filled and time to fulfill
+     * @return the number of cleaning times passed to sink
+     */
+    @Override
+    public long forEachCleaningTime(String filename, CleaningTimeSink sink) {
+        return process(filename, null, sink);
+    }
+}
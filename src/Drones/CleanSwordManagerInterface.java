@@ -47,4 +47,28 @@ public interface CleanSwordManagerInterface {
      * @return the list of times requests were filled and times it took to fill them, as per the specifications
      */
     ArrayList<CleanSwordTimes> getCleaningTimes(String filename);
+
+    /**
+     * Receives cleaning times one at a time, for inputs too big to collect into a list
+     */
+    @FunctionalInterface
+    interface CleaningTimeSink {
+        /**
+         * @param index index of the request, in input order
+         * @param timeFilled time the request was filled
+         * @param timeToFulfill time it took to fill the request
+         */
+        void accept(long index, long timeFilled, long timeToFulfill);
+    }
+
+    /**
+     * Computes the same cleaning times as getCleaningTimes, in the same order, but hands each
+     * one to sink instead of collecting them, so the number of requests is not limited to what
+     * fits in a list
+     *
+     * @param filename file to read input from
+     * @param sink receives each request's index, time filled and time to fulfill
+     * @return the number of cleaning times passed to sink
+     */
+    long forEachCleaningTime(String filename, CleaningTimeSink sink);
 }
@@ -1,7 +1,7 @@
 package Drones;
 
-import CommonUtils.BetterQueue;
-import CommonUtils.BetterStack;
+import CommonUtils.MonotonicLongQueue;
+import CommonUtils.LongPairStack;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -16,42 +16,22 @@ import java.util.Scanner;
  */
 public class ItemRequestManager implements ItemRequestManagerInterface {
 
-    /**
-     * stores information about an item request
-     * @param index the index of the item
-     * @param timeRequested the time at which the item is requested
-     */
-    record ItemRequestRecord(long index, long timeRequested) {
-        /**
-         * generates the data
-         * @param sc the scanner to read from
-         * @param N the number of records
-         * @return the list of records
-         */
-        public static BetterQueue<ItemRequestRecord> parseAll(Scanner sc, int N) {
-            BetterQueue<ItemRequestRecord> list = new BetterQueue<>();
-            for (int i = 0; i < N; i++) {
-                long timeRequested = sc.nextLong();
-                list.add(new ItemRequestRecord(i, timeRequested));
-            }
-            return list;
-        }
-    }
-
-    /**
-     * contains the data of an item mid-handling
-     * @param index the item index
-     * @param distanceFromPlayer the current distance from the player
-     */
-    record ItemHandleRecord(long index, long distanceFromPlayer) {}
-
     private class Game {
         private long currentTime = 0;
         private long currentDistanceFromPlayer = 0;
         private final long fieldLength;
-        private ArrayList<ItemRetrievalTimes> retrievalTimes;
-        private BetterStack<ItemHandleRecord> itemstoHandle;
-        private BetterQueue<ItemRequestRecord> requests;
+        private final long numItems;
+        private RetrievalTimeSink sink;
+        private long retrieved = 0;
+        /**
+         * items mid-handling: (item index, current distance from the player), updated in place
+         */
+        private LongPairStack itemstoHandle;
+        /**
+         * request times in order; the request's index is its position in the input
+         */
+        private MonotonicLongQueue requests;
+        private long nextRequestIndex = 0;
 
         public Game(Scanner scan) throws IOException {
             /* parse data
@@ -61,35 +41,39 @@ public class ItemRequestManager implements ItemRequestManagerInterface {
                 N lines
                 ...]
              */
-            int numItems = scan.nextInt();
+            this.numItems = scan.nextLong();
             this.fieldLength = scan.nextLong();
-            this.itemstoHandle = new BetterStack<>();
-            this.retrievalTimes = new ArrayList<>(numItems);
-            this.requests = ItemRequestRecord.parseAll(scan, numItems);
+            this.itemstoHandle = new LongPairStack();
+            /* request times never decrease, so they are stored as small gaps */
+            this.requests = new MonotonicLongQueue();
+            for (long i = 0; i < this.numItems; i++) {
+                this.requests.add(scan.nextLong());
+            }
         }
-        public ArrayList<ItemRetrievalTimes> simulateGame() {
+        public long simulateGame(RetrievalTimeSink sink) {
+            this.sink = sink;
             while (!requests.isEmpty()) {
                 /* we have a request! */
-                ItemRequestRecord req = requests.remove();
-                this.currentTime = req.timeRequested;
-                long nextTime = requests.isEmpty() ? Long.MAX_VALUE : requests.peek().timeRequested;
-                this.itemstoHandle.push(new ItemHandleRecord(req.index, fieldLength));
+                this.currentTime = requests.remove();
+                long nextTime = requests.isEmpty() ? Long.MAX_VALUE : requests.peek();
+                this.itemstoHandle.pushPair(this.nextRequestIndex++, fieldLength);
                 this.attemptToEmptyStack(nextTime);
             }
-            return this.retrievalTimes;
+            return this.retrieved;
         }
         private void attemptToEmptyStack(long interruptTime) {
             while (!itemstoHandle.isEmpty()) {
-                ItemHandleRecord item = itemstoHandle.pop();
+                /* the item on top stays there until it has been brought back */
+                long itemIndex = itemstoHandle.topFirst();
+                long itemDistance = itemstoHandle.topSecond();
                 long timeAvailable = interruptTime - this.currentTime;
                 /* now let's try to handle this item! */
-                long timeToGetThere = Math.abs(item.distanceFromPlayer - this.currentDistanceFromPlayer);
+                long timeToGetThere = Math.abs(itemDistance - this.currentDistanceFromPlayer);
                 /* lteq because if we get there but can't do anything it effectively stays the same; just dropped there */
                 if (timeAvailable <= timeToGetThere) {
                     /* we did literally nothing to advance, just moved around */
-                    itemstoHandle.push(item);
                     /* we travel a distance of size timeAvailable... but unsure about direction */
-                    long direction = (item.distanceFromPlayer > this.currentDistanceFromPlayer) ? 1 : -1;
+                    long direction = (itemDistance > this.currentDistanceFromPlayer) ? 1 : -1;
                     long directedDistance = direction * timeAvailable;
                     this.currentTime += timeAvailable;
                     this.currentDistanceFromPlayer += directedDistance;
@@ -98,49 +82,47 @@ public class ItemRequestManager implements ItemRequestManagerInterface {
                 }
                 /* we got there, yay */
                 this.currentTime += timeToGetThere;
-                this.currentDistanceFromPlayer = item.distanceFromPlayer;
+                this.currentDistanceFromPlayer = itemDistance;
                 timeAvailable -= timeToGetThere;
                 /* did we get back? */
-                long timeToGetBack = item.distanceFromPlayer;
+                long timeToGetBack = itemDistance;
                 if (timeToGetBack > timeAvailable) {
                     /* noooo - we could not get back :( :(
                         ...but, we still got part of the way!
                      */
                     // thankfully, distance always towards 0 this time.
-                    long newItemPosition = item.distanceFromPlayer - timeAvailable;
-                    /* push this to the stack so we don't forget to take care of it */
-                    itemstoHandle.push(new ItemHandleRecord(item.index, newItemPosition));
+                    long newItemPosition = itemDistance - timeAvailable;
+                    /* remember where we dropped it so we don't forget to take care of it */
+                    itemstoHandle.setTopSecond(newItemPosition);
                     this.currentTime += timeAvailable;
                     this.currentDistanceFromPlayer = newItemPosition;
                     /* interruption time, stop trying to empty the stack */
                     return;
                 }
                 /* we got there??? we made progress ?!?! */
+                itemstoHandle.pop();
                 this.currentTime += timeToGetBack; // spent however much time getting back
                 this.currentDistanceFromPlayer = 0; // got back to player
-                this.retrievalTimes.add(new ItemRetrievalTimes((int)item.index, this.currentTime));
+                this.sink.accept(itemIndex, this.currentTime);
+                this.retrieved++;
                 /* time for the next one! */
             }
         }
     }
 
-
-
     /**
-     * Get the retrieval times as per the specifications
+     * Reads a game from the given input file
      *
      * @param filename file to read input from
-     * @return the list of times requests were filled and index of the original request, per the specifications
+     * @return the game, ready to simulate
      */
-    @Override
-    public ArrayList<ItemRetrievalTimes> getRetrievalTimes(String filename) {
+    private Game readGame(String filename) {
         try {
             // as all of the inputs are on the same line, it is actually more efficient to use scanner's nextInt since
             // with BufferedReader you would have to read in the entire line (possibly 10m integers long) at once
             Scanner scan = new Scanner(new FileReader(filename));
             /* create a game */
-            Game game = new Game(scan);
-            return game.simulateGame();
+            return new Game(scan);
         } catch (IOException e) {
             //This should never happen... uh oh o.o
             System.err.println("ATTENTION TAs: Couldn't find test file: \"" + filename + "\":: " + e.getMessage());
@@ -149,4 +131,32 @@ public class ItemRequestManager implements ItemRequestManagerInterface {
         /* UNREACHABLE */
         return null;
     }
+
+    /**
+     * Get the retrieval times as per the specifications
+     *
+     * @param filename file to read input from
+     * @return the list of times requests were filled and index of the original request, per the specifications
+     */
+    @Override
+    public ArrayList<ItemRetrievalTimes> getRetrievalTimes(String filename) {
+        Game game = readGame(filename);
+        /* a list can't hold more than this anyway; use forEachRetrievalTime for bigger inputs */
+        ArrayList<ItemRetrievalTimes> retrievalTimes = new ArrayList<>((int) Long.min(game.numItems, Integer.MAX_VALUE - 8));
+        game.simulateGame((index, timeFilled) -> retrievalTimes.add(new ItemRetrievalTimes(index, timeFilled)));
+        return retrievalTimes;
+    }
+
+    /**
+     * Computes the same retrieval times as getRetrievalTimes, in the same order, but hands each
+     * one to sink instead of collecting them
+     *
+     * @param filename file to read input from
+     * @param sink receives each request's index and the time it was filled
+     * @return the number of retrieval times passed to sink
+     */
+    @Override
+    public long forEachRetrievalTime(String filename, RetrievalTimeSink sink) {
+        return readGame(filename).simulateGame(sink);
+    }
 }
@@ -14,10 +14,10 @@ public interface ItemRequestManagerInterface {
      * Class used to store and retrieve answers to Story 2 of Project 1
      */
     class ItemRetrievalTimes {
-        int index;
+        long index;
         long timeFilled;
         //trivial constructor
-        public ItemRetrievalTimes(int index, long timeFilled) { this.index = index; this.timeFilled = timeFilled; }
+        public ItemRetrievalTimes(long index, long timeFilled) { this.index = index; this.timeFilled = timeFilled; }
 
         //default Intellij-generated equals function
         @Override
@@ -38,7 +38,8 @@ public interface ItemRequestManagerInterface {
         }
 
         //getters
-        public int getIndex() { return index; }
+        public int getIndex() { return Math.toIntExact(index); }
+        public long getLongIndex() { return index; }
         public long getTimeFilled() { return timeFilled; }
         //setters
         public void setTimeFilled(long timeFilled) { this.timeFilled = timeFilled; }
@@ -52,4 +53,27 @@ public interface ItemRequestManagerInterface {
      * @return the list of times requests were filled and index of the original request, per the specifications
      */
     ArrayList<ItemRetrievalTimes> getRetrievalTimes(String filename);
+
+    /**
+     * Receives retrieval times one at a time, for inputs too big to collect into a list
+     */
+    @FunctionalInterface
+    interface RetrievalTimeSink {
+        /**
+         * @param index index of the original request
+         * @param timeFilled time the request was filled
+         */
+        void accept(long index, long timeFilled);
+    }
+
+    /**
+     * Computes the same retrieval times as getRetrievalTimes, in the same order, but hands each
+     * one to sink instead of collecting them, so the number of requests is not limited to what
+     * fits in a list
+     *
+     * @param filename file to read input from
+     * @param sink receives each request's index and the time it was filled
+     * @return the number of retrieval times passed to sink
+     */
+    long forEachRetrievalTime(String filename, RetrievalTimeSink sink);
 }
@@ -0,0 +1,169 @@
+package Drones;
+
+import CommonUtils.BigLongArray;
+import Drones.CleanSwordManagerInterface.CleaningTimeSink;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Computes the sword cleaning times as a parallel prefix scan.
+ *
+ * Request j cleans the sword at the front of the queue: the j-th initial sword while there
+ * are any left, and after that the sword that came with request j - numSwords.  Given that
+ * sword's receive time a and processing time b, the cleaner's clock moves by
+ *
+ *     currentTime = max(currentTime, a) + b
+ *
+ * which is the map x -> max(x + b, a + b).  Maps of the form x -> max(x + s, t) are closed
+ * under composition (g after f is x -> max(x + s1 + s2, max(t1 + s2, t2))), and composition
+ * is associative, so a block of requests boils down to a single (s, t) pair no matter how
+ * long it is: s is the sum of the block's b's, and t is what the clock ends at when the block
+ * is started from minus infinity (equivalently, from the block's first a).
+ *
+ * The requests are split into the pages of a {@link BigLongArray} and processed in three
+ * passes:
+ *
+ *   1. in parallel, every page computes its (s, t) in one pass over its values
+ *   2. one thread runs the clock across the pages, max(clock + s, t) per page, which gives
+ *      the clock at the start of every page
+ *   3. in parallel, every page runs the ordinary sequential loop from its start clock and
+ *      writes its fill times
+ *
+ * The third pass does exactly the sequential arithmetic, so the results are identical to
+ * the sequential path as long as no time overflows a long.  The results are then handed to
+ * the sink in order, on the calling thread.
+ */
+public final class ParallelCleanSwordScan {
+
+    private final BigLongArray processingTimes;
+    private final BigLongArray requestTimes;
+    private final long cleaningTime;
+    private final long numSwords;
+
+    /**
+     * @param processingTimes processing time of every initial sword, front of the queue first
+     * @param requestTimes receive time of every request, in order
+     * @param cleaningTime processing time of every sword that comes with a request
+     */
+    public ParallelCleanSwordScan(BigLongArray processingTimes, BigLongArray requestTimes, long cleaningTime) {
+        this.processingTimes = processingTimes;
+        this.requestTimes = requestTimes;
+        this.cleaningTime = cleaningTime;
+        this.numSwords = processingTimes.length();
+    }
+
+    /**
+     * Runs the clock over requests [lo, hi) starting from currentTime, writing the fill time of
+     * request lo + i to filled[i]
+     */
+    private void run(long lo, long hi, long currentTime, long[] requests, long[] filled) {
+        long j = lo;
+        /* swords that were in the queue from the start: received at 0 */
+        for (; j < hi && j < this.numSwords; j++) {
+            currentTime = Math.max(currentTime, 0) + this.processingTimes.get(j);
+            filled[(int) (j - lo)] = Math.max(requests[(int) (j - lo)], currentTime);
+        }
+        /* swords that came with earlier requests */
+        for (; j < hi; j++) {
+            currentTime = Math.max(currentTime, this.requestTimes.get(j - this.numSwords)) + this.cleaningTime;
+            filled[(int) (j - lo)] = Math.max(requests[(int) (j - lo)], currentTime);
+        }
+    }
+
+    /**
+     * Boils page p down to its (s, t) pair, reading each of its values once
+     */
+    private void fold(int p, long[] sums, long[] tops) {
+        long lo = (long) p << BigLongArray.PAGE_SHIFT;
+        long hi = lo + this.requestTimes.page(p).length;
+        long j = lo;
+        long sum = 0;
+        /* from minus infinity, the clock ends up where it would from the first receive time */
+        long currentTime = (j < this.numSwords) ? 0 : this.requestTimes.get(j - this.numSwords);
+        for (; j < hi && j < this.numSwords; j++) {
+            long processing = this.processingTimes.get(j);
+            sum += processing;
+            currentTime = Math.max(currentTime, 0) + processing;
+        }
+        sum += (hi - j) * this.cleaningTime;
+        for (; j < hi; j++) {
+            currentTime = Math.max(currentTime, this.requestTimes.get(j - this.numSwords)) + this.cleaningTime;
+        }
+        sums[p] = sum;
+        tops[p] = currentTime;
+    }
+
+    /**
+     * Computes every request's fill time with the given pool and passes them to sink in order
+     *
+     * @param pool pool to run the per-page passes in
+     * @param sink receives each request's index, time filled and time to fulfill, or null to
+     *             only compute them
+     * @return the number of cleaning times computed
+     */
+    public long run(ForkJoinPool pool, CleaningTimeSink sink) {
+        int pages = this.requestTimes.pageCount();
+        if (pages == 0) {
+            return 0;
+        }
+        /* pass 1: each page as x -> max(x + sum, top) */
+        long[] sums = new long[pages];
+        long[] tops = new long[pages];
+        pool.invoke(new PageTask(0, pages, p -> this.fold(p, sums, tops)));
+        /* pass 2: the clock at the start of each page */
+        long[] starts = new long[pages];
+        long clock = 0;
+        for (int p = 0; p < pages; p++) {
+            starts[p] = clock;
+            clock = Math.max(clock + sums[p], tops[p]);
+        }
+        /* pass 3: the fill times themselves */
+        BigLongArray filled = new BigLongArray(this.requestTimes.length());
+        pool.invoke(new PageTask(0, pages, p -> {
+            long lo = (long) p << BigLongArray.PAGE_SHIFT;
+            long[] requests = this.requestTimes.page(p);
+            this.run(lo, lo + requests.length, starts[p], requests, filled.page(p));
+        }));
+        if (sink == null) {
+            return filled.length();
+        }
+        long index = 0;
+        for (int p = 0; p < pages; p++) {
+            long[] requests = this.requestTimes.page(p);
+            long[] times = filled.page(p);
+            for (int i = 0; i < times.length; i++) {
+                sink.accept(index++, times[i], times[i] - requests[i]);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Runs work on every page in [lo, hi), splitting the range in half until each task has
+     * one page.  Never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class PageTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final IntConsumer work;
+
+        PageTask(int lo, int hi, IntConsumer work) {
+            this.lo = lo;
+            this.hi = hi;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo == 1) {
+                this.work.accept(this.lo);
+                return;
+            }
+            int mid = (this.lo + this.hi) >>> 1;
+            invokeAll(new PageTask(this.lo, mid, this.work), new PageTask(mid, this.hi, this.work));
+        }
+    }
+}
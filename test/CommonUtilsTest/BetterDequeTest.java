@@ -0,0 +1,108 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterDeque;
+import CommonUtils.StandardCapacityPolicy;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BetterDeque
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class BetterDequeTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BetterDeque<Integer> d = new BetterDeque<>();
+        d.addLast(1); d.addLast(2); d.addFirst(0); d.addFirst(-1);
+        assertEquals(4, d.size());
+        assertEquals(-1, d.peekFirst());
+        assertEquals(2, d.peekLast());
+        assertEquals(-1, d.removeFirst());
+        assertEquals(2, d.removeLast());
+        assertEquals(0, d.remove());
+        assertEquals(1, d.removeLast());
+        assertNull(d.removeFirst());
+        assertNull(d.removeLast());
+        assertNull(d.peekFirst());
+        assertNull(d.peekLast());
+        assertThrows(NullPointerException.class, () -> d.addFirst(null));
+        assertThrows(NullPointerException.class, () -> d.addLast(null));
+    }
+
+    /**
+     * Random operations at both ends agree with java.util.ArrayDeque, across grows, shrinks and wraps
+     */
+    @Test
+    void testMatchesArrayDeque(){
+        BetterDeque<Integer> d = new BetterDeque<>(new StandardCapacityPolicy(3, 1.5, 32, 0.4, 0.15, 3, true));
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(251);
+        for(int i=0; i<200000; i++){
+            //drift between growing and shrinking phases
+            boolean grow = ((i / 20000) % 2) == 0;
+            int op = random.nextInt(grow ? 6 : 4);
+            switch(op){
+                case 0 -> assertEquals(expected.pollFirst(), d.removeFirst());
+                case 1 -> assertEquals(expected.pollLast(), d.removeLast());
+                case 2, 4 -> { d.addFirst(i); expected.addFirst(i); }
+                default -> { d.addLast(i); expected.addLast(i); }
+            }
+            assertEquals(expected.size(), d.size());
+            assertEquals(expected.peekFirst(), d.peekFirst());
+            assertEquals(expected.peekLast(), d.peekLast());
+        }
+    }
+
+    /**
+     * Used from one end only, the deque is a stack
+     */
+    @Test
+    void testStackUse(){
+        BetterDeque<Integer> d = new BetterDeque<>();
+        for(int i=0; i<1000000; i++){
+            d.addFirst(i);
+        }
+        for(int i=1000000-1; i>=0; i--){
+            assertEquals(i, d.removeFirst());
+        }
+        assertTrue(d.isEmpty());
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        BetterDeque<Long> d = new BetterDeque<>();
+
+        @Override
+        protected void add(long o) throws Exception { d.addLast(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { d.removeLast(); }
+
+        @Override
+        protected long getSize() { return d.size(); }
+
+        @Override
+        protected boolean isEmpty() { return d.isEmpty(); }
+    }
+}
@@ -0,0 +1,160 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterHeap;
+import CommonUtils.StandardCapacityPolicy;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BetterHeap
+ */
+@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+public class BetterHeapTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BetterHeap<Integer> h = new BetterHeap<>();
+        h.add(3); h.add(0); h.add(2); h.add(1);
+        assertEquals(4, h.size());
+        assertEquals(0, h.peek());
+        assertEquals(0, h.remove());
+        assertEquals(1, h.remove());
+        assertEquals(2, h.remove());
+        assertEquals(3, h.remove());
+        assertNull(h.remove());
+        assertNull(h.peek());
+        assertThrows(NullPointerException.class, () -> h.add(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BetterHeap<Integer>(null, 1, StandardCapacityPolicy.defaults()));
+    }
+
+    /**
+     * Random adds and removes agree with java.util.PriorityQueue, for several arities
+     * @param arity children per node
+     */
+    @ParameterizedTest(name = "Arity = {0}")
+    @ValueSource(ints = {2, 3, 4, 8, 16})
+    void testMatchesPriorityQueue(int arity){
+        BetterHeap<Integer> h = new BetterHeap<>(Comparator.reverseOrder(), arity, StandardCapacityPolicy.defaults());
+        PriorityQueue<Integer> expected = new PriorityQueue<>(Comparator.reverseOrder());
+        Random random = new Random(arity);
+        for(int i=0; i<200000; i++){
+            boolean grow = ((i / 20000) % 2) == 0;
+            if(random.nextInt(grow ? 3 : 5) < 2){
+                int v = random.nextInt(1000);
+                h.add(v);
+                expected.add(v);
+            } else {
+                assertEquals(expected.poll(), h.remove());
+            }
+            assertEquals(expected.size(), h.size());
+        }
+        while(!expected.isEmpty()){
+            assertEquals(expected.poll(), h.remove());
+        }
+        assertTrue(h.isEmpty());
+    }
+
+    /**
+     * decreaseKey and remove(Handle) keep the heap in order and the handles up to date
+     */
+    @Test
+    void testDecreaseKeyAndRemoveHandle(){
+        BetterHeap<Long> h = new BetterHeap<>();
+        ArrayList<BetterHeap.Handle<Long>> handles = new ArrayList<>();
+        for(long i=0; i<10000; i++){
+            handles.add(h.insert(1000000 + i));
+        }
+        //make the odd ones come first, in reverse order
+        for(int i=1; i<10000; i+=2){
+            h.decreaseKey(handles.get(i), (long)(10000 - i));
+        }
+        //and drop every fourth one
+        for(int i=0; i<10000; i+=4){
+            assertTrue(h.remove(handles.get(i)));
+            assertFalse(handles.get(i).isQueued());
+            assertFalse(h.remove(handles.get(i)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> h.decreaseKey(handles.get(0), 0L));
+        assertThrows(IllegalArgumentException.class, () -> h.decreaseKey(handles.get(1), 20000L));
+        assertThrows(IllegalArgumentException.class, () -> new BetterHeap<Long>().remove(handles.get(1)));
+        for(int i=9999; i>=1; i-=2){
+            assertEquals(10000 - i, h.remove());
+            assertFalse(handles.get(i).isQueued());
+        }
+        for(int i=2; i<10000; i+=4){
+            assertTrue(handles.get(i).isQueued());
+            assertEquals(1000000 + i, h.remove());
+        }
+        assertTrue(h.isEmpty());
+    }
+
+    /**
+     * addAll of a big batch (bottom-up build) and of a small batch (one by one) both give a valid heap,
+     * and handles inserted before a rebuild keep working
+     */
+    @Test
+    void testAddAllHeapify(){
+        BetterHeap<Integer> h = new BetterHeap<>(null, 3, StandardCapacityPolicy.defaults());
+        BetterHeap.Handle<Integer> handle = h.insert(500000);
+        Integer[] batch = new Integer[100000];
+        Random random = new Random(251);
+        for(int i=0; i<batch.length; i++){
+            batch[i] = 1 + random.nextInt(1000000);
+        }
+        h.addAll(batch, 0, batch.length);
+        h.addAll(batch, 0, 10);
+        assertEquals(100011, h.size());
+        h.decreaseKey(handle, 0);
+        assertEquals(0, h.remove());
+        int previous = Integer.MIN_VALUE;
+        while(!h.isEmpty()){
+            int v = h.remove();
+            assertTrue(v >= previous);
+            previous = v;
+        }
+        assertThrows(NullPointerException.class, () -> h.addAll(new Integer[]{1, null}, 0, 2));
+        assertTrue(h.isEmpty());
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        BetterHeap<Long> h = new BetterHeap<>();
+
+        @Override
+        protected void add(long o) throws Exception { h.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { h.remove(); }
+
+        @Override
+        protected long getSize() { return h.size(); }
+
+        @Override
+        protected boolean isEmpty() { return h.isEmpty(); }
+    }
+}
@@ -2,6 +2,8 @@ package CommonUtilsTest;
 
 
 import CommonUtils.BetterQueue;
+import CommonUtils.CapacityPolicy;
+import CommonUtils.StandardCapacityPolicy;
 import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
 import CommonUtilsTest.factories.IntTestFactory;
 import org.junit.jupiter.api.Nested;
@@ -11,6 +13,12 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -368,7 +376,498 @@ public class BetterQueueTest {
         }
     }
 
-    
+    /**
+     * Tests queues built with a non-default capacity policy
+     */
+    @Nested
+    class CapacityPolicyTests {
+        /**
+         * FIFO order must survive odd growth factors, hysteresis and wrapped resizes
+         */
+        @Test
+        void testFIFO_CustomPolicy(){
+            StandardCapacityPolicy policy = new StandardCapacityPolicy(3, 1.5, 32, 0.4, 0.15, 3, true);
+            BetterQueue<Integer> q = new BetterQueue<>(policy);
+            int next = 0, expected = 0;
+            for(int round=0; round<20; round++){
+                //burst, then drain most of it
+                for(int i=0; i<5000; i++){
+                    q.add(next++);
+                }
+                for(int i=0; i<4900; i++){
+                    assertEquals(expected++, q.remove());
+                }
+            }
+            while(!q.isEmpty()){
+                assertEquals(expected++, q.remove());
+            }
+            assertEquals(next, expected);
+        }
+
+        /**
+         * A never-shrinking queue still works after draining
+         */
+        @Test
+        void testNeverShrink(){
+            BetterQueue<Integer> q = new BetterQueue<>(StandardCapacityPolicy.defaults().neverShrink());
+            for(int i=0; i<100000; i++){
+                q.add(i);
+            }
+            for(int i=0; i<100000; i++){
+                assertEquals(i, q.remove());
+            }
+            assertNull(q.remove());
+        }
+
+        /**
+         * Null policy is rejected
+         */
+        @Test
+        void testNullPolicy(){
+            assertThrows(NullPointerException.class, () -> new BetterQueue<Integer>(null));
+        }
+    }
+
+    /**
+     * Tests presizing, ensureCapacity, trimToSize and the footprint estimate
+     */
+    @Nested
+    class CapacityManagementTests {
+        /**
+         * Presizing is not a resize: a subclass's onResize hook is not called from the constructor
+         */
+        @Test
+        void testExpectedSizeDoesNotCallOnResize(){
+            int[] resizes = {0};
+            BetterQueue<Integer> c = new BetterQueue<>(1000) {
+                @Override
+                protected void onResize(int oldCapacity, int newCapacity) {
+                    resizes[0]++;
+                }
+            };
+            assertEquals(0, resizes[0]);
+            assertEquals(1000, c.capacity());
+            for(int i=0; i<1001; i++){
+                c.add(i);
+            }
+            assertEquals(1, resizes[0]);
+        }
+
+        /**
+         * A presized queue fills up (and wraps around) without resizing
+         */
+        @Test
+        void testExpectedSize(){
+            BetterQueue<Integer> q = new BetterQueue<>(1000);
+            assertEquals(1000, q.capacity());
+            for(int i=0; i<1000; i++){
+                q.add(i);
+            }
+            assertEquals(1000, q.capacity());
+            /* wrap around the end of the array a few times */
+            for(int i=1000; i<5000; i++){
+                assertEquals(i - 1000, q.remove());
+                q.add(i);
+                assertEquals(1000, q.capacity());
+            }
+            for(int i=4000; i<5000; i++){
+                assertEquals(i, q.remove());
+            }
+            assertNull(q.remove());
+        }
+
+        /**
+         * Small or zero expected sizes still start at the default capacity; negative ones are rejected
+         */
+        @Test
+        void testSmallExpectedSize(){
+            assertEquals(8, new BetterQueue<Integer>(0).capacity());
+            assertEquals(8, new BetterQueue<Integer>(5).capacity());
+            assertThrows(IllegalArgumentException.class, () -> new BetterQueue<Integer>(-1));
+        }
+
+        /**
+         * ensureCapacity grows in one go and keeps a wrapped queue in order
+         */
+        @Test
+        void testEnsureCapacity(){
+            BetterQueue<Integer> q = new BetterQueue<>();
+            for(int i=0; i<6; i++){
+                q.add(i);
+            }
+            q.remove(); q.remove(); q.remove();
+            for(int i=6; i<10; i++){
+                q.add(i);
+            }
+            /* the queue wraps: 3..7 at the end of the array, 8, 9 at the front */
+            q.ensureCapacity(100);
+            assertEquals(128, q.capacity());
+            q.ensureCapacity(50);
+            assertEquals(128, q.capacity());
+            for(int i=10; i<128; i++){
+                q.add(i);
+            }
+            assertEquals(128, q.capacity());
+            for(int i=3; i<128; i++){
+                assertEquals(i, q.remove());
+            }
+        }
+
+        /**
+         * trimToSize cuts the capacity to the size, and the queue keeps working afterwards
+         */
+        @Test
+        void testTrimToSize(){
+            BetterQueue<Integer> q = new BetterQueue<>(StandardCapacityPolicy.defaults().neverShrink());
+            for(int i=0; i<1000; i++){
+                q.add(i);
+            }
+            for(int i=0; i<900; i++){
+                q.remove();
+            }
+            assertEquals(1024, q.capacity());
+            long before = q.estimatedRetainedBytes();
+            q.trimToSize();
+            assertEquals(100, q.capacity());
+            assertTrue(q.estimatedRetainedBytes() < before);
+            for(int i=1000; i<2000; i++){
+                q.add(i);
+            }
+            for(int i=900; i<2000; i++){
+                assertEquals(i, q.remove());
+            }
+            /* an empty queue keeps one slot */
+            q.trimToSize();
+            assertEquals(1, q.capacity());
+            q.add(7);
+            q.add(8);
+            assertEquals(7, q.remove());
+            assertEquals(8, q.remove());
+        }
+
+        /**
+         * The footprint estimate follows the capacity, not the size, and counts both arrays
+         * during an incremental resize
+         */
+        @Test
+        void testEstimatedRetainedBytes(){
+            BetterQueue<Integer> small = new BetterQueue<>();
+            BetterQueue<Integer> large = new BetterQueue<>(1 << 16);
+            assertTrue(small.estimatedRetainedBytes() > 8 * 4);
+            assertTrue(large.estimatedRetainedBytes() >= (1 << 16) * 4L);
+            assertTrue(large.estimatedRetainedBytes() < (1 << 16) * 8L + 1024);
+            BetterQueue<Integer> incremental = new BetterQueue<>(StandardCapacityPolicy.defaults(), true);
+            for(int i=0; i<1025; i++){
+                incremental.add(i);
+            }
+            assertTrue(incremental.pendingMigration() > 0);
+            long during = incremental.estimatedRetainedBytes();
+            incremental.iterator();
+            assertEquals(0, incremental.pendingMigration());
+            assertTrue(incremental.estimatedRetainedBytes() < during);
+        }
+    }
+
+    /**
+     * Tests incremental (spread out) resizing
+     */
+    @Nested
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    class IncrementalResizeTests {
+        /**
+         * FIFO order must hold while elements are split between the old and new arrays
+         */
+        @Test
+        void testFIFO_Incremental(){
+            StandardCapacityPolicy policy = new StandardCapacityPolicy(3, 1.5, 32, 0.4, 0.15, 3, true);
+            BetterQueue<Integer> q = new BetterQueue<>(policy, true);
+            int next = 0, expected = 0;
+            boolean sawMigration = false;
+            for(int round=0; round<200; round++){
+                int adds = 1 + (round * 7919) % 5000, removes = (round * 104729) % 5000;
+                for(int i=0; i<adds; i++){
+                    q.add(next++);
+                    sawMigration |= q.pendingMigration() > 0;
+                }
+                for(int i=0; i<removes && !q.isEmpty(); i++){
+                    assertEquals(expected, q.peek());
+                    assertEquals(expected++, q.remove());
+                    sawMigration |= q.pendingMigration() > 0;
+                }
+                assertEquals(next - expected, q.size());
+            }
+            while(!q.isEmpty()){
+                assertEquals(expected++, q.remove());
+            }
+            assertEquals(next, expected);
+            assertTrue(sawMigration);
+        }
+
+        /**
+         * Bulk operations in the middle of a resize see every element
+         */
+        @Test
+        void testBulkDuringMigration(){
+            BetterQueue<Integer> q = new BetterQueue<>(StandardCapacityPolicy.defaults(), true);
+            int n = 0;
+            while(q.pendingMigration() == 0 || n < 1000){
+                q.add(n++);
+            }
+            Integer[] out = new Integer[n];
+            assertEquals(n, q.drainTo(out, n));
+            for(int i=0; i<n; i++){
+                assertEquals(i, out[i]);
+            }
+            assertEquals(0, q.pendingMigration());
+            assertNull(q.remove());
+        }
+
+        /**
+         * Builds a histogram of how many elements each add/remove moves while filling and
+         * draining n elements, and returns the largest bucket used
+         */
+        private int maxMovedPerOp(BetterQueue<Integer> q, int n, long[] histogram){
+            int max = 0;
+            for(int op=0; op<2*n; op++){
+                int before = q.pendingMigration();
+                if(op < n){
+                    q.add(op);
+                } else {
+                    assertEquals(op - n, q.remove());
+                }
+                int moved = Integer.max(0, before - q.pendingMigration());
+                histogram[Integer.min(moved, histogram.length - 1)]++;
+                max = Integer.max(max, moved);
+            }
+            return max;
+        }
+
+        /**
+         * No add/remove moves more than a handful of elements, however big the queue gets.
+         * Moved elements are counted instead of timing each operation, which would mostly measure
+         * GC and JIT noise; without incremental mode the largest resize here copies 2^19 elements.
+         */
+        @Test
+        void testMovedPerOpIsFlat(){
+            long[] histogram = new long[64];
+            int small = maxMovedPerOp(new BetterQueue<>(StandardCapacityPolicy.defaults(), true), 1000, histogram);
+            int large = maxMovedPerOp(new BetterQueue<>(StandardCapacityPolicy.defaults(), true), 1000000, histogram);
+            assertTrue(large <= 5, "moved " + large + " elements in one op");
+            assertTrue(large <= Integer.max(small, 5));
+            assertEquals(0, histogram[histogram.length - 1]);
+        }
+    }
+
+    /**
+     * Tests iterator, forEach, spliterator and stream
+     */
+    @Nested
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    class IterationTests {
+        /**
+         * Builds a queue holding 0 .. n-1 whose elements wrap around the end of the array
+         */
+        private BetterQueue<Integer> wrappedQueue(int n){
+            BetterQueue<Integer> q = new BetterQueue<>(StandardCapacityPolicy.defaults().neverShrink());
+            for(int i=0; i<n; i++){
+                q.add(-1);
+            }
+            for(int i=0; i<n; i++){
+                q.remove();
+                q.add(i);
+            }
+            return q;
+        }
+
+        /**
+         * Iterating goes front to back and removes nothing
+         */
+        @Test
+        void testIteratorOrder(){
+            BetterQueue<Integer> q = wrappedQueue(1000);
+            int expected = 0;
+            for(Integer i : q){
+                assertEquals(expected++, i);
+            }
+            assertEquals(1000, expected);
+            assertEquals(1000, q.size());
+            assertEquals(0, q.peek());
+            assertFalse(new BetterQueue<Integer>().iterator().hasNext());
+        }
+
+        /**
+         * forEach visits the same elements as the iterator
+         */
+        @Test
+        void testForEach(){
+            BetterQueue<Integer> q = wrappedQueue(1000);
+            int[] expected = {0};
+            q.forEach(i -> assertEquals(expected[0]++, i));
+            assertEquals(1000, expected[0]);
+        }
+
+        /**
+         * Changing the queue while iterating is detected
+         */
+        @Test
+        void testFailFast(){
+            BetterQueue<Integer> q = wrappedQueue(10);
+            Iterator<Integer> it = q.iterator();
+            it.next();
+            q.add(10);
+            assertThrows(ConcurrentModificationException.class, it::next);
+            assertThrows(ConcurrentModificationException.class, () -> q.forEach(i -> q.remove()));
+            Iterator<Integer> done = q.iterator();
+            while(done.hasNext()){
+                done.next();
+            }
+            assertThrows(NoSuchElementException.class, done::next);
+        }
+
+        /**
+         * Iteration sees every element while an incremental resize is in progress
+         */
+        @Test
+        void testIterateDuringMigration(){
+            BetterQueue<Integer> q = new BetterQueue<>(StandardCapacityPolicy.defaults(), true);
+            int n = 0;
+            while(q.pendingMigration() == 0 || n < 1000){
+                q.add(n++);
+            }
+            assertEquals((long)n * (n - 1) / 2, q.stream().mapToLong(Integer::longValue).sum());
+        }
+
+        /**
+         * The spliterator is sized, splits in halves and covers every element exactly once
+         */
+        @Test
+        void testSpliterator(){
+            BetterQueue<Integer> q = wrappedQueue(1001);
+            Spliterator<Integer> right = q.spliterator();
+            assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+            Spliterator<Integer> left = right.trySplit();
+            assertNotNull(left);
+            assertEquals(500, left.estimateSize());
+            assertEquals(501, right.estimateSize());
+            int[] expected = {0};
+            left.forEachRemaining(i -> assertEquals(expected[0]++, i));
+            while(right.tryAdvance(i -> assertEquals(expected[0]++, i))){
+                //tryAdvance does the checking
+            }
+            assertEquals(1001, expected[0]);
+        }
+
+        /**
+         * A parallel stream over a large wrapped queue adds up correctly
+         */
+        @Test
+        void testParallelStream(){
+            BetterQueue<Integer> q = wrappedQueue(1000000);
+            long expected = 1000000L * 999999 / 2;
+            assertEquals(expected, q.stream().parallel().mapToLong(Integer::longValue).sum());
+            assertEquals(1000000, q.stream().parallel().count());
+            assertEquals(1000000, q.size());
+        }
+    }
+
+    /**
+     * Tests addAll and both drainTo variants
+     */
+    @Nested
+    class BulkTests {
+        /**
+         * Mixes bulk and single operations so copies have to cross the wrap point
+         */
+        @Test
+        void testBulkFIFOAcrossWrap(){
+            BetterQueue<Integer> q = new BetterQueue<>();
+            Integer[] batch = new Integer[37];
+            Integer[] out = new Integer[50];
+            int next = 0, expected = 0;
+            for(int round=0; round<2000; round++){
+                q.add(next++);
+                for(int i=3; i<33; i++){
+                    batch[i] = next++;
+                }
+                q.addAll(batch, 3, 30);
+                batch[0] = next++;
+                q.addAll(batch, 0, 1);
+                int n = q.drainTo(out, round % 50);
+                for(int i=0; i<n; i++){
+                    assertEquals(expected++, out[i]);
+                }
+                assertEquals(expected++, q.remove());
+            }
+            final int[] box = {expected};
+            q.drainTo(x -> assertEquals(box[0]++, x), Integer.MAX_VALUE);
+            assertEquals(next, box[0]);
+            assertTrue(q.isEmpty());
+            assertEquals(0, q.drainTo(out, out.length));
+        }
+
+        /**
+         * addAll must add nothing if any element is null, and check its range
+         */
+        @Test
+        void testAddAllRejects(){
+            BetterQueue<Integer> q = new BetterQueue<>();
+            q.add(1);
+            assertThrows(NullPointerException.class, () -> q.addAll(new Integer[]{2, null, 3}, 0, 3));
+            assertThrows(IndexOutOfBoundsException.class, () -> q.addAll(new Integer[]{2, 3}, 1, 2));
+            assertEquals(1, q.size());
+            assertThrows(IndexOutOfBoundsException.class, () -> q.drainTo(new Integer[2], 3));
+            assertThrows(IllegalArgumentException.class, () -> q.drainTo(x -> {}, -1));
+        }
+
+        /**
+         * A sink that adds to or removes from the queue stops the drain with
+         * ConcurrentModificationException, and the queue still holds exactly what it should
+         * @param incremental whether the queue moves its elements over bit by bit when resizing
+         */
+        @ParameterizedTest(name = "incremental = {0}")
+        @ValueSource(booleans = {false, true})
+        void testDrainSinkModifies(boolean incremental){
+            BetterQueue<Integer> q = new BetterQueue<>(CapacityPolicy.defaultPolicy(), incremental);
+            for(int i=0; i<128; i++){
+                q.add(i);
+            }
+            /* the queue is full, so the add resizes it under the drain's feet */
+            List<Integer> seen = new ArrayList<>();
+            assertThrows(ConcurrentModificationException.class, () -> q.drainTo(x -> { seen.add(x); q.add(-1); q.add(-2); }, 10));
+            assertEquals(List.of(0), seen);
+            assertThrows(ConcurrentModificationException.class, () -> q.drainTo(x -> { seen.add(x); q.remove(); }, 10));
+            assertEquals(List.of(0, 1), seen);
+            assertEquals(127, q.size());
+            for(int i=3; i<128; i++){
+                assertEquals(i, q.remove());
+            }
+            assertEquals(-1, q.remove());
+            assertEquals(-2, q.remove());
+            assertNull(q.remove());
+            assertEquals(0, q.size());
+        }
+
+        /**
+         * Draining a large queue at once should leave it usable and shrunk
+         */
+        @Test
+        void testLargeAddAllDrain(){
+            final int N = 1000000;
+            Integer[] all = new Integer[N];
+            for(int i=0; i<N; i++){
+                all[i] = i;
+            }
+            BetterQueue<Integer> q = new BetterQueue<>();
+            q.addAll(all, 0, N);
+            assertEquals(N, q.size());
+            Integer[] out = new Integer[N];
+            assertEquals(N - 1, q.drainTo(out, N - 1));
+            assertEquals(N - 2, out[N - 2]);
+            assertEquals(N - 1, q.remove());
+            assertNull(q.remove());
+        }
+    }
+
     @Test
     void drawVisualizeDummyTestForCodeCoverage(){
         BetterQueue<Integer> queue = new BetterQueue<>();
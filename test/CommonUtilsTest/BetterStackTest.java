@@ -1,6 +1,7 @@
 package CommonUtilsTest;
 
 import CommonUtils.BetterStack;
+import CommonUtils.StandardCapacityPolicy;
 import CommonUtilsTest.factories.IntTestFactory;
 import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
 import CommonUtilsTest.factories.IntTestFactory;
@@ -9,7 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
 import javax.swing.*;
+import java.util.ConcurrentModificationException;
 import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.jupiter.api.Assertions.*;
@@ -161,6 +166,436 @@ public class BetterStackTest {
         }
     }
 
+    /**
+     * Tests stacks built with a non-default capacity policy
+     */
+    @Nested
+    class CapacityPolicyTests {
+        /**
+         * FILO order must survive odd growth factors and hysteresis
+         */
+        @Test
+        void testFILO_CustomPolicy(){
+            StandardCapacityPolicy policy = new StandardCapacityPolicy(3, 1.5, 32, 0.4, 0.15, 3, true);
+            BetterStack<Integer> stack = new BetterStack<>(policy);
+            for(int i=0; i<100000; i++){
+                stack.push(i);
+            }
+            //oscillate around a size to exercise repeated grow/shrink decisions
+            for(int round=0; round<1000; round++){
+                for(int i=0; i<50; i++){
+                    stack.pop();
+                }
+                for(int i=0; i<50; i++){
+                    stack.push(100000 - 50 + i);
+                }
+            }
+            for(int i=100000-1; i>=0; i--){
+                assertEquals(i, stack.pop());
+            }
+            assertTrue(stack.isEmpty());
+        }
+
+        /**
+         * Null policy is rejected
+         */
+        @Test
+        void testNullPolicy(){
+            assertThrows(NullPointerException.class, () -> new BetterStack<Integer>(null));
+        }
+    }
+
+    /**
+     * Tests presizing, ensureCapacity, trimToSize and the footprint estimate
+     */
+    @Nested
+    class CapacityManagementTests {
+        /**
+         * Presizing is not a resize: a subclass's onResize hook is not called from the constructor
+         */
+        @Test
+        void testExpectedSizeDoesNotCallOnResize(){
+            int[] resizes = {0};
+            BetterStack<Integer> c = new BetterStack<>(1000) {
+                @Override
+                protected void onResize(int oldCapacity, int newCapacity) {
+                    resizes[0]++;
+                }
+            };
+            assertEquals(0, resizes[0]);
+            assertEquals(1000, c.capacity());
+            for(int i=0; i<1001; i++){
+                c.push(i);
+            }
+            assertEquals(1, resizes[0]);
+        }
+
+        /**
+         * A presized stack fills up without resizing
+         */
+        @Test
+        void testExpectedSize(){
+            BetterStack<Integer> s = new BetterStack<>(1000);
+            assertEquals(1000, s.capacity());
+            for(int i=0; i<1000; i++){
+                s.push(i);
+            }
+            assertEquals(1000, s.capacity());
+            for(int i=999; i>=0; i--){
+                assertEquals(i, s.pop());
+            }
+            assertTrue(s.isEmpty());
+        }
+
+        /**
+         * Small or zero expected sizes still start at the default capacity; negative ones are rejected
+         */
+        @Test
+        void testSmallExpectedSize(){
+            assertEquals(8, new BetterStack<Integer>(0).capacity());
+            assertEquals(8, new BetterStack<Integer>(5).capacity());
+            assertThrows(IllegalArgumentException.class, () -> new BetterStack<Integer>(-1));
+        }
+
+        /**
+         * ensureCapacity grows in one go and keeps the contents
+         */
+        @Test
+        void testEnsureCapacity(){
+            BetterStack<Integer> s = new BetterStack<>();
+            for(int i=0; i<6; i++){
+                s.push(i);
+            }
+            s.ensureCapacity(100);
+            assertEquals(128, s.capacity());
+            s.ensureCapacity(50);
+            assertEquals(128, s.capacity());
+            for(int i=6; i<128; i++){
+                s.push(i);
+            }
+            assertEquals(128, s.capacity());
+            for(int i=127; i>=0; i--){
+                assertEquals(i, s.pop());
+            }
+        }
+
+        /**
+         * trimToSize cuts the capacity to the size, and the stack keeps working afterwards
+         */
+        @Test
+        void testTrimToSize(){
+            BetterStack<Integer> s = new BetterStack<>(StandardCapacityPolicy.defaults().neverShrink());
+            for(int i=0; i<1000; i++){
+                s.push(i);
+            }
+            s.truncate(100);
+            assertEquals(1024, s.capacity());
+            long before = s.estimatedRetainedBytes();
+            s.trimToSize();
+            assertEquals(100, s.capacity());
+            assertTrue(s.estimatedRetainedBytes() < before);
+            for(int i=100; i<2000; i++){
+                s.push(i);
+            }
+            for(int i=1999; i>=0; i--){
+                assertEquals(i, s.pop());
+            }
+            /* an empty stack keeps one slot */
+            s.trimToSize();
+            assertEquals(1, s.capacity());
+            s.push(7);
+            s.push(8);
+            assertEquals(8, s.pop());
+            assertEquals(7, s.pop());
+        }
+
+        /**
+         * The footprint estimate follows the capacity, not the size, and counts both arrays
+         * during an incremental resize
+         */
+        @Test
+        void testEstimatedRetainedBytes(){
+            BetterStack<Integer> small = new BetterStack<>();
+            BetterStack<Integer> large = new BetterStack<>(1 << 16);
+            assertTrue(small.estimatedRetainedBytes() > 8 * 4);
+            assertTrue(large.estimatedRetainedBytes() >= (1 << 16) * 4L);
+            assertTrue(large.estimatedRetainedBytes() < (1 << 16) * 8L + 1024);
+            BetterStack<Integer> incremental = new BetterStack<>(StandardCapacityPolicy.defaults(), true);
+            for(int i=0; i<1025; i++){
+                incremental.push(i);
+            }
+            assertTrue(incremental.pendingMigration() > 0);
+            long during = incremental.estimatedRetainedBytes();
+            incremental.iterator();
+            assertEquals(0, incremental.pendingMigration());
+            assertTrue(incremental.estimatedRetainedBytes() < during);
+        }
+    }
+
+    /**
+     * Tests incremental (spread out) resizing
+     */
+    @Nested
+    @Timeout(value = 5000, unit = MILLISECONDS)
+    class IncrementalResizeTests {
+        /**
+         * FILO order must hold while elements are split between the old and new arrays
+         */
+        @Test
+        void testFILO_Incremental(){
+            StandardCapacityPolicy policy = new StandardCapacityPolicy(3, 1.5, 32, 0.4, 0.15, 3, true);
+            BetterStack<Integer> stack = new BetterStack<>(policy, true);
+            boolean sawMigration = false;
+            for(int i=0; i<100000; i++){
+                stack.push(i);
+                sawMigration |= stack.pendingMigration() > 0;
+            }
+            //pop deep into resizes in both directions, then refill
+            for(int round=0; round<20; round++){
+                int depth = 1 + (round * 7919) % 90000;
+                for(int i=0; i<depth; i++){
+                    assertEquals(100000 - 1 - i, stack.peek());
+                    assertEquals(100000 - 1 - i, stack.pop());
+                    sawMigration |= stack.pendingMigration() > 0;
+                }
+                for(int i=depth-1; i>=0; i--){
+                    stack.push(100000 - 1 - i);
+                }
+            }
+            for(int i=100000-1; i>=0; i--){
+                assertEquals(i, stack.pop());
+            }
+            assertTrue(stack.isEmpty());
+            assertTrue(sawMigration);
+        }
+
+        /**
+         * Bulk operations in the middle of a resize see every element
+         */
+        @Test
+        void testBulkDuringMigration(){
+            BetterStack<Integer> stack = new BetterStack<>(StandardCapacityPolicy.defaults(), true);
+            int n = 0;
+            while(stack.pendingMigration() == 0 || n < 1000){
+                stack.push(n++);
+            }
+            Integer[] out = new Integer[n];
+            assertEquals(n, stack.popN(out, n));
+            for(int i=0; i<n; i++){
+                assertEquals(i, out[i]);
+            }
+            assertEquals(0, stack.pendingMigration());
+            assertTrue(stack.isEmpty());
+        }
+
+        /**
+         * Builds a histogram of how many elements each push/pop moves while filling and
+         * draining n elements, and returns the largest bucket used
+         */
+        private int maxMovedPerOp(BetterStack<Integer> stack, int n, long[] histogram){
+            int max = 0;
+            for(int op=0; op<2*n; op++){
+                int before = stack.pendingMigration();
+                if(op < n){
+                    stack.push(op);
+                } else {
+                    assertEquals(2*n - 1 - op, stack.pop());
+                }
+                int moved = Integer.max(0, before - stack.pendingMigration());
+                histogram[Integer.min(moved, histogram.length - 1)]++;
+                max = Integer.max(max, moved);
+            }
+            return max;
+        }
+
+        /**
+         * No push/pop moves more than a handful of elements, however big the stack gets.
+         * Moved elements are counted instead of timing each operation, which would mostly measure
+         * GC and JIT noise; without incremental mode the largest resize here copies 2^19 elements.
+         */
+        @Test
+        void testMovedPerOpIsFlat(){
+            long[] histogram = new long[64];
+            int small = maxMovedPerOp(new BetterStack<>(StandardCapacityPolicy.defaults(), true), 1000, histogram);
+            int large = maxMovedPerOp(new BetterStack<>(StandardCapacityPolicy.defaults(), true), 1000000, histogram);
+            assertTrue(large <= 5, "moved " + large + " elements in one op");
+            assertTrue(large <= Integer.max(small, 5));
+            assertEquals(0, histogram[histogram.length - 1]);
+        }
+    }
+
+    /**
+     * Tests iterator, forEach, spliterator and stream
+     */
+    @Nested
+    @Timeout(value = 5000, unit = MILLISECONDS)
+    class IterationTests {
+        /**
+         * Builds a stack holding 0 .. n-1, n-1 on top
+         */
+        private BetterStack<Integer> filledStack(int n){
+            BetterStack<Integer> stack = new BetterStack<>();
+            for(int i=0; i<n; i++){
+                stack.push(i);
+            }
+            return stack;
+        }
+
+        /**
+         * Iterating goes bottom to top and pops nothing
+         */
+        @Test
+        void testIteratorOrder(){
+            BetterStack<Integer> stack = filledStack(1000);
+            int expected = 0;
+            for(Integer i : stack){
+                assertEquals(expected++, i);
+            }
+            assertEquals(1000, expected);
+            assertEquals(1000, stack.size());
+            assertEquals(999, stack.peek());
+            assertFalse(new BetterStack<Integer>().iterator().hasNext());
+        }
+
+        /**
+         * forEach visits the same elements as the iterator
+         */
+        @Test
+        void testForEach(){
+            BetterStack<Integer> stack = filledStack(1000);
+            int[] expected = {0};
+            stack.forEach(i -> assertEquals(expected[0]++, i));
+            assertEquals(1000, expected[0]);
+        }
+
+        /**
+         * Changing the stack while iterating is detected
+         */
+        @Test
+        void testFailFast(){
+            BetterStack<Integer> stack = filledStack(10);
+            Iterator<Integer> it = stack.iterator();
+            it.next();
+            stack.push(10);
+            assertThrows(ConcurrentModificationException.class, it::next);
+            assertThrows(ConcurrentModificationException.class, () -> stack.forEach(i -> stack.pop()));
+            Iterator<Integer> done = stack.iterator();
+            while(done.hasNext()){
+                done.next();
+            }
+            assertThrows(NoSuchElementException.class, done::next);
+        }
+
+        /**
+         * Iteration sees every element while an incremental resize is in progress
+         */
+        @Test
+        void testIterateDuringMigration(){
+            BetterStack<Integer> stack = new BetterStack<>(StandardCapacityPolicy.defaults(), true);
+            int n = 0;
+            while(stack.pendingMigration() == 0 || n < 1000){
+                stack.push(n++);
+            }
+            assertEquals((long)n * (n - 1) / 2, stack.stream().mapToLong(Integer::longValue).sum());
+        }
+
+        /**
+         * The spliterator is sized, splits in halves and covers every element exactly once
+         */
+        @Test
+        void testSpliterator(){
+            BetterStack<Integer> stack = filledStack(1001);
+            Spliterator<Integer> right = stack.spliterator();
+            assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+            Spliterator<Integer> left = right.trySplit();
+            assertNotNull(left);
+            assertEquals(500, left.estimateSize());
+            assertEquals(501, right.estimateSize());
+            int[] expected = {0};
+            left.forEachRemaining(i -> assertEquals(expected[0]++, i));
+            while(right.tryAdvance(i -> assertEquals(expected[0]++, i))){
+                //tryAdvance does the checking
+            }
+            assertEquals(1001, expected[0]);
+        }
+
+        /**
+         * A parallel stream over a large stack adds up correctly
+         */
+        @Test
+        void testParallelStream(){
+            BetterStack<Integer> stack = filledStack(1000000);
+            long expected = 1000000L * 999999 / 2;
+            assertEquals(expected, stack.stream().parallel().mapToLong(Integer::longValue).sum());
+            assertEquals(1000000, stack.stream().parallel().count());
+            assertEquals(1000000, stack.size());
+        }
+    }
+
+    /**
+     * Tests pushAll, popN and truncate
+     */
+    @Nested
+    class BulkTests {
+        /**
+         * popN undoes pushAll, and both agree with single pushes/pops
+         */
+        @Test
+        void testPushAllPopN(){
+            BetterStack<Integer> stack = new BetterStack<>();
+            Integer[] batch = new Integer[1000];
+            for(int i=0; i<batch.length; i++){
+                batch[i] = i;
+            }
+            stack.push(-1);
+            stack.pushAll(batch, 10, 990);
+            assertEquals(991, stack.size());
+            assertEquals(999, stack.peek());
+            Integer[] out = new Integer[1000];
+            assertEquals(500, stack.popN(out, 500));
+            assertEquals(500, out[0]);
+            assertEquals(999, out[499]);
+            assertEquals(499, stack.pop());
+            assertEquals(490, stack.popN(out, 1000));
+            assertEquals(-1, out[0]);
+            assertEquals(498, out[489]);
+            assertTrue(stack.isEmpty());
+            assertEquals(0, stack.popN(out, 10));
+        }
+
+        /**
+         * truncate drops the top of the stack and keeps the rest
+         */
+        @Test
+        void testTruncate(){
+            BetterStack<Integer> stack = new BetterStack<>();
+            for(int i=0; i<1000000; i++){
+                stack.push(i);
+            }
+            stack.truncate(10);
+            assertEquals(10, stack.size());
+            assertEquals(9, stack.peek());
+            stack.truncate(10);
+            assertEquals(10, stack.size());
+            assertThrows(IllegalArgumentException.class, () -> stack.truncate(11));
+            assertThrows(IllegalArgumentException.class, () -> stack.truncate(-1));
+            stack.truncate(0);
+            assertThrows(EmptyStackException.class, stack::pop);
+        }
+
+        /**
+         * pushAll must push nothing if any element is null, and check its range
+         */
+        @Test
+        void testPushAllRejects(){
+            BetterStack<Integer> stack = new BetterStack<>();
+            assertThrows(NullPointerException.class, () -> stack.pushAll(new Integer[]{1, null}, 0, 2));
+            assertThrows(IndexOutOfBoundsException.class, () -> stack.pushAll(new Integer[]{1, 2}, 2, 1));
+            assertTrue(stack.isEmpty());
+            assertThrows(IndexOutOfBoundsException.class, () -> stack.popN(new Integer[1], 2));
+        }
+    }
+
     /**
      * Tests exceptions from using BetterStack wrong
      */
@@ -0,0 +1,148 @@
+package CommonUtilsTest;
+
+import CommonUtils.BigBetterQueue;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BigBetterQueue.  Small pages stand in for the 2^31 elements a real big queue would
+ * need, so page and directory boundaries are crossed constantly.
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class BigBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BigBetterQueue<Integer> q = new BigBetterQueue<>();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(4L, q.size());
+        assertEquals(0, q.peek());
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+        assertThrows(NullPointerException.class, () -> q.add(null));
+    }
+
+    /**
+     * FIFO order and get() across page boundaries, while the directory grows and shrinks
+     * @param pageShift log2 of the page size
+     */
+    @ParameterizedTest(name = "Page shift = {0}")
+    @ValueSource(ints = {0, 1, 2, 10})
+    void testFIFO_AcrossPages(int pageShift){
+        BigBetterQueue<Integer> q = new BigBetterQueue<>(pageShift);
+        int next = 0, expected = 0;
+        for(int round=0; round<2000; round++){
+            int adds = round % 37, removes = round % 41;
+            for(int i=0; i<adds; i++){
+                q.add(next++);
+            }
+            for(int i=0; i<removes && !q.isEmpty(); i++){
+                assertEquals(expected, q.peek());
+                assertEquals(expected++, q.remove());
+            }
+            assertEquals(next - expected, q.size());
+            if(!q.isEmpty()){
+                assertEquals(expected, q.get(0));
+                assertEquals(next - 1, q.get(q.size() - 1));
+                assertEquals(expected + (int)(q.size() / 2), q.get(q.size() / 2));
+            }
+        }
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+    }
+
+    /**
+     * Pages are released as the front moves past them, and the emptied queue shrinks back
+     */
+    @Test
+    void testPagesReleased(){
+        BigBetterQueue<Integer> q = new BigBetterQueue<>(3);
+        for(int i=0; i<8 * 1000; i++){
+            q.add(i);
+        }
+        assertEquals(1000, q.pageCount());
+        long full = q.estimatedRetainedBytes();
+        for(int i=0; i<8 * 1000 - 1; i++){
+            q.remove();
+        }
+        /* the page holding the last element plus one spare */
+        assertEquals(2, q.pageCount());
+        assertTrue(q.estimatedRetainedBytes() < full / 100);
+    }
+
+    /**
+     * forEach visits front to back and get() rejects indices outside the queue
+     */
+    @Test
+    void testForEachAndGet(){
+        BigBetterQueue<Integer> q = new BigBetterQueue<>(2);
+        for(int i=0; i<50; i++){
+            q.add(i);
+        }
+        for(int i=0; i<7; i++){
+            q.remove();
+        }
+        ArrayList<Integer> seen = new ArrayList<>();
+        q.forEach(seen::add);
+        assertEquals(43, seen.size());
+        for(int i=0; i<43; i++){
+            assertEquals(i + 7, seen.get(i));
+            assertEquals(i + 7, q.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> q.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> q.get(43));
+    }
+
+    /**
+     * Constructor arguments are validated
+     */
+    @Test
+    void testBadArguments(){
+        assertThrows(IllegalArgumentException.class, () -> new BigBetterQueue<Integer>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new BigBetterQueue<Integer>(31));
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        BigBetterQueue<Long> q = new BigBetterQueue<>();
+
+        @Override
+        protected void add(long o) throws Exception { q.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+}
@@ -0,0 +1,144 @@
+package CommonUtilsTest;
+
+import CommonUtils.BigBetterStack;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.EmptyStackException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BigBetterStack.  Small pages stand in for the 2^31 elements a real big stack would
+ * need, so page and directory boundaries are crossed constantly.
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class BigBetterStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BigBetterStack<Integer> stack = new BigBetterStack<>();
+        stack.push(0); stack.push(3); stack.push(2); stack.push(1);
+        assertEquals(4L, stack.size());
+        assertEquals(1, stack.peek());
+        assertEquals(1, stack.pop());
+        assertEquals(2, stack.pop());
+        assertEquals(3, stack.pop());
+        assertEquals(0, stack.pop());
+        assertTrue(stack.isEmpty());
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+        assertThrows(NullPointerException.class, () -> stack.push(null));
+    }
+
+    /**
+     * LIFO order and get() while the stack goes up and down across page boundaries
+     * @param pageShift log2 of the page size
+     */
+    @ParameterizedTest(name = "Page shift = {0}")
+    @ValueSource(ints = {0, 1, 2, 10})
+    void testFILO_AcrossPages(int pageShift){
+        BigBetterStack<Integer> stack = new BigBetterStack<>(pageShift);
+        int top = 0;
+        for(int round=0; round<2000; round++){
+            int pushes = round % 37, pops = round % 41;
+            for(int i=0; i<pushes; i++){
+                stack.push(top++);
+            }
+            for(int i=0; i<pops && !stack.isEmpty(); i++){
+                assertEquals(top - 1, stack.peek());
+                assertEquals(--top, stack.pop());
+            }
+            assertEquals(top, stack.size());
+            for(long i=0; i<stack.size(); i += 1 + stack.size() / 5){
+                assertEquals((int) i, stack.get(i));
+            }
+        }
+        while(!stack.isEmpty()){
+            assertEquals(--top, stack.pop());
+        }
+        assertEquals(0, top);
+    }
+
+    /**
+     * Popping back down frees all but one page of slack
+     */
+    @Test
+    void testPagesReleased(){
+        BigBetterStack<Integer> stack = new BigBetterStack<>(3);
+        for(int i=0; i<8 * 1000; i++){
+            stack.push(i);
+        }
+        assertEquals(1000, stack.pageCount());
+        long full = stack.estimatedRetainedBytes();
+        for(int i=0; i<8 * 1000 - 1; i++){
+            stack.pop();
+        }
+        assertEquals(2, stack.pageCount());
+        assertTrue(stack.estimatedRetainedBytes() < full / 100);
+        assertEquals(0, stack.peek());
+    }
+
+    /**
+     * forEach visits bottom to top and get() rejects indices outside the stack
+     */
+    @Test
+    void testForEachAndGet(){
+        BigBetterStack<Integer> stack = new BigBetterStack<>(2);
+        for(int i=0; i<50; i++){
+            stack.push(i);
+        }
+        ArrayList<Integer> seen = new ArrayList<>();
+        stack.forEach(seen::add);
+        assertEquals(50, seen.size());
+        for(int i=0; i<50; i++){
+            assertEquals(i, seen.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.get(50));
+    }
+
+    /**
+     * Constructor arguments are validated
+     */
+    @Test
+    void testBadArguments(){
+        assertThrows(IllegalArgumentException.class, () -> new BigBetterStack<Integer>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new BigBetterStack<Integer>(31));
+    }
+
+    /**
+     * Test size, empty, push, pop
+     */
+    @Nested
+    @Timeout(value = 6000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemoveBack extends SizeEmptyBasicAddRemoveBackTestFactory {
+        BigBetterStack<Long> stack = new BigBetterStack<>();
+
+        @Override
+        protected void add(long o) throws Exception { stack.push(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { stack.pop(); }
+
+        @Override
+        protected long getSize() { return stack.size(); }
+
+        @Override
+        protected boolean isEmpty() { return stack.isEmpty(); }
+    }
+}
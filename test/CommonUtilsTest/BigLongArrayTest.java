@@ -0,0 +1,65 @@
+package CommonUtilsTest;
+
+import CommonUtils.BigLongArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BigLongArray
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class BigLongArrayTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BigLongArray array = new BigLongArray(3);
+        assertEquals(3, array.length());
+        assertEquals(0, array.get(2));
+        array.set(0, Long.MIN_VALUE);
+        array.set(2, Long.MAX_VALUE);
+        assertEquals(Long.MIN_VALUE, array.get(0));
+        assertEquals(0, array.get(1));
+        assertEquals(Long.MAX_VALUE, array.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.set(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BigLongArray(-1));
+    }
+
+    /**
+     * Pages are full except for the last, and writing through a page is seen by get() at the
+     * matching index
+     * @param length array length
+     */
+    @ParameterizedTest(name = "Length = {0}")
+    @ValueSource(longs = {0, 1, BigLongArray.PAGE_SIZE - 1, BigLongArray.PAGE_SIZE, 3L * BigLongArray.PAGE_SIZE + 17})
+    void testPages(long length){
+        BigLongArray array = new BigLongArray(length);
+        assertEquals((length + BigLongArray.PAGE_SIZE - 1) / BigLongArray.PAGE_SIZE, array.pageCount());
+        long total = 0;
+        for(int p=0; p<array.pageCount(); p++){
+            long[] page = array.page(p);
+            if(p < array.pageCount() - 1){
+                assertEquals(BigLongArray.PAGE_SIZE, page.length);
+            }
+            for(int i=0; i<page.length; i++){
+                page[i] = ((long) p << BigLongArray.PAGE_SHIFT) + i;
+            }
+            total += page.length;
+        }
+        assertEquals(length, total);
+        for(long i=0; i<length; i += 1 + length / 100){
+            assertEquals(i, array.get(i));
+        }
+        if(length > 0){
+            assertEquals(length - 1, array.get(length - 1));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package CommonUtilsTest;
+
+import CommonUtils.BoundedBetterQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests BoundedBetterQueue, single threaded and with blocking producers and consumers
+ */
+@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+public class BoundedBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(8);
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(4, q.size());
+        assertEquals(0, q.peek());
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+        assertTrue(q.isEmpty());
+    }
+
+    /**
+     * Capacity is rounded up to a power of two and enforced by tryAdd
+     */
+    @Test
+    void testBounded(){
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(5);
+        assertEquals(8, q.capacity());
+        assertEquals(2, new BoundedBetterQueue<Integer>(1).capacity());
+        for(int i=0; i<8; i++){
+            assertTrue(q.tryAdd(i));
+        }
+        assertFalse(q.tryAdd(8));
+        assertEquals(8, q.size());
+        assertEquals(0, q.remove());
+        assertTrue(q.tryAdd(8));
+        for(int i=1; i<=8; i++){
+            assertEquals(i, q.remove());
+        }
+        assertThrows(NullPointerException.class, () -> q.tryAdd(null));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedBetterQueue<Integer>(0));
+    }
+
+    /**
+     * Timed offer/poll give up once the time runs out, and not much earlier
+     */
+    @Test
+    void testTimeouts() throws InterruptedException {
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(2);
+        long start = System.nanoTime();
+        assertNull(q.poll(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(q.offer(1, 50, TimeUnit.MILLISECONDS));
+        assertTrue(q.offer(2, 50, TimeUnit.MILLISECONDS));
+        start = System.nanoTime();
+        assertFalse(q.offer(3, 50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, q.poll(0, TimeUnit.MILLISECONDS));
+        assertEquals(1, q.size());
+    }
+
+    /**
+     * Waiters of timed-out calls don't pile up, even behind a thread that keeps waiting, and
+     * that thread still gets its element
+     */
+    @Test
+    void testGivenUpWaitersAreCleaned() throws InterruptedException {
+        /* each of the two lists holds a few dozen given-up Waiters at most */
+        final int bound = 100;
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(2);
+        AtomicReference<Integer> taken = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                taken.set(q.take());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        consumer.start();
+        Thread.sleep(50);
+        for (int i = 0; i < 10000; i++) {
+            assertNull(q.poll(1, TimeUnit.NANOSECONDS));
+            assertTrue(q.queuedWaiters() <= bound, q.queuedWaiters() + " waiters");
+        }
+        q.add(7);
+        consumer.join();
+        assertEquals(7, taken.get());
+
+        q.add(0);
+        q.add(1);
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(q.offer(2, 1, TimeUnit.NANOSECONDS));
+            assertTrue(q.queuedWaiters() <= bound, q.queuedWaiters() + " waiters");
+        }
+        assertEquals(0, q.remove());
+        assertEquals(1, q.remove());
+    }
+
+    /**
+     * Two threads draining the same queue at once, one into an array and one into a sink,
+     * never store or count a null and get every element exactly once between them
+     */
+    @Test
+    @Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+    void testConcurrentDrain() throws InterruptedException {
+        final int ROUNDS = 10000, N = 64;
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(N);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger[] seen = new AtomicInteger[N];
+        int[][] counts = new int[2][ROUNDS];
+        Runnable refill = () -> {
+            for(int i=0; i<N; i++){
+                seen[i].set(0);
+                assertTrue(q.tryAdd(i));
+            }
+        };
+        for(int i=0; i<N; i++){
+            seen[i] = new AtomicInteger();
+        }
+        CyclicBarrier start = new CyclicBarrier(2);
+        CyclicBarrier done = new CyclicBarrier(2, refill);
+        refill.run();
+        Thread[] threads = new Thread[2];
+        for(int t=0; t<2; t++){
+            final int me = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    Integer[] out = new Integer[N];
+                    for(int round=0; round<ROUNDS; round++){
+                        start.await(5, TimeUnit.SECONDS);
+                        int n;
+                        if(round % 2 == me){
+                            n = q.drainTo(out, N);
+                        } else {
+                            int[] k = {0};
+                            n = q.drainTo(x -> out[k[0]++] = x, N);
+                        }
+                        for(int i=0; i<n; i++){
+                            assertNotNull(out[i], "null drained");
+                            assertEquals(1, seen[out[i]].incrementAndGet(), "drained twice: " + out[i]);
+                        }
+                        counts[me][round] = n;
+                        done.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (Throwable e){
+                    /* keep the first failure, not the other thread's broken barrier */
+                    failure.compareAndSet(null, e);
+                    start.reset();
+                    done.reset();
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Drainer failed: " + failure.get());
+        }
+        for(int round=0; round<ROUNDS; round++){
+            assertEquals(N, counts[0][round] + counts[1][round], "round " + round);
+        }
+    }
+
+    /**
+     * Draining a full queue wakes a waiting producer for every slot it frees
+     */
+    @Test
+    void testDrainWakesProducers() throws InterruptedException {
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(4);
+        for(int i=0; i<4; i++){
+            q.put(i);
+        }
+        Thread[] producers = new Thread[3];
+        for(int p=0; p<producers.length; p++){
+            final int item = 4 + p;
+            producers[p] = new Thread(() -> q.add(item));
+            producers[p].start();
+        }
+        Thread.sleep(100);
+        Integer[] out = new Integer[4];
+        assertEquals(4, q.drainTo(out, 4));
+        assertArrayEquals(new Integer[]{0, 1, 2, 3}, out);
+        for(Thread p : producers){
+            p.join();
+        }
+        assertEquals(3, q.size());
+        assertEquals(0, q.drainTo(out, 0));
+        assertEquals(3, q.drainTo(out, 4));
+        assertEquals(0, q.drainTo(out, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> q.drainTo(out, 5));
+    }
+
+    /**
+     * A full queue holds the producer back until the consumer makes room
+     */
+    @Test
+    void testPutBlocksUntilTake() throws InterruptedException {
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(2);
+        q.put(0);
+        q.put(1);
+        AtomicLong putDone = new AtomicLong();
+        Thread producer = new Thread(() -> {
+            try {
+                q.put(2);
+                putDone.set(System.nanoTime());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.start();
+        Thread.sleep(100);
+        assertEquals(0, putDone.get());
+        long taken = System.nanoTime();
+        assertEquals(0, q.take());
+        producer.join();
+        assertTrue(putDone.get() >= taken);
+        assertEquals(1, q.take());
+        assertEquals(2, q.take());
+    }
+
+    /**
+     * Interrupting a blocked take throws InterruptedException; add keeps waiting but keeps the flag
+     */
+    @Test
+    void testInterrupt() throws InterruptedException {
+        BoundedBetterQueue<Integer> q = new BoundedBetterQueue<>(2);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                q.take();
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        consumer.start();
+        Thread.sleep(50);
+        consumer.interrupt();
+        consumer.join();
+        assertInstanceOf(InterruptedException.class, thrown.get());
+
+        q.add(0);
+        q.add(1);
+        AtomicReference<Boolean> stillInterrupted = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            q.add(2);
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        producer.start();
+        Thread.sleep(50);
+        producer.interrupt();
+        Thread.sleep(50);
+        assertTrue(producer.isAlive());
+        assertEquals(0, q.remove());
+        producer.join();
+        assertTrue(stillInterrupted.get());
+        assertEquals(1, q.remove());
+        assertEquals(2, q.remove());
+    }
+
+    /**
+     * Several producers and consumers block on a tiny queue: every element arrives exactly once
+     * and each producer's elements arrive in order
+     * @param producers number of producer threads
+     * @param consumers number of consumer threads
+     */
+    @ParameterizedTest(name = "{0} producers, {1} consumers")
+    @CsvSource({"1, 1", "4, 1", "1, 4", "4, 4"})
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    void testBlockingStress(int producers, int consumers) throws InterruptedException {
+        final int PER_PRODUCER = 100000;
+        final int total = producers * PER_PRODUCER;
+        BoundedBetterQueue<Long> q = new BoundedBetterQueue<>(4);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong received = new AtomicLong();
+        AtomicLong sum = new AtomicLong();
+        long[][] lastSeen = new long[consumers][producers];
+
+        Thread[] threads = new Thread[producers + consumers];
+        for(int p=0; p<producers; p++){
+            final long id = p;
+            threads[p] = new Thread(() -> {
+                try {
+                    for(long i=0; i<PER_PRODUCER; i++){
+                        q.put(id * PER_PRODUCER + i);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+        }
+        final int share = total / consumers;
+        for(int c=0; c<consumers; c++){
+            final int id = c;
+            final int count = (c == consumers - 1) ? total - share * (consumers - 1) : share;
+            threads[producers + c] = new Thread(() -> {
+                try {
+                    long[] last = lastSeen[id];
+                    java.util.Arrays.fill(last, -1);
+                    for(int i=0; i<count; i++){
+                        long v = q.take();
+                        int from = (int)(v / PER_PRODUCER);
+                        long seq = v % PER_PRODUCER;
+                        assertTrue(seq > last[from], "producer " + from + " out of order");
+                        last[from] = seq;
+                        sum.addAndGet(v);
+                        received.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+        }
+        for(Thread t : threads){
+            t.start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail(failure.get());
+        }
+        assertEquals(total, received.get());
+        assertEquals((long)total * (total - 1) / 2, sum.get());
+        assertTrue(q.isEmpty());
+    }
+}
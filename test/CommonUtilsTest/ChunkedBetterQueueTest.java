@@ -0,0 +1,98 @@
+package CommonUtilsTest;
+
+import CommonUtils.ChunkedBetterQueue;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ChunkedBetterQueue
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class ChunkedBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        ChunkedBetterQueue<Integer> q = new ChunkedBetterQueue<>();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(0, q.peek());
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+        assertThrows(NullPointerException.class, () -> q.add(null));
+    }
+
+    /**
+     * FIFO order across chunk boundaries, including draining to empty at and between boundaries
+     * @param chunkSize elements per chunk
+     */
+    @ParameterizedTest(name = "Chunk size = {0}")
+    @ValueSource(ints = {1, 2, 3, 1024})
+    void testFIFO_AcrossChunks(int chunkSize){
+        ChunkedBetterQueue<Integer> q = new ChunkedBetterQueue<>(chunkSize, 2);
+        int next = 0, expected = 0;
+        for(int round=0; round<2000; round++){
+            int adds = round % 37, removes = round % 41;
+            for(int i=0; i<adds; i++){
+                q.add(next++);
+            }
+            for(int i=0; i<removes && !q.isEmpty(); i++){
+                assertEquals(expected, q.peek());
+                assertEquals(expected++, q.remove());
+            }
+            assertEquals(next - expected, q.size());
+        }
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+    }
+
+    /**
+     * Constructor arguments are validated
+     */
+    @Test
+    void testBadArguments(){
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedBetterQueue<Integer>(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedBetterQueue<Integer>(8, -1));
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        ChunkedBetterQueue<Long> q = new ChunkedBetterQueue<>();
+
+        @Override
+        protected void add(long o) throws Exception { q.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+}
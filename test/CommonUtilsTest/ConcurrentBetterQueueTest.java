@@ -0,0 +1,285 @@
+package CommonUtilsTest;
+
+import CommonUtils.ConcurrentBetterQueue;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ConcurrentBetterQueue, single threaded and with many producers and consumers
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class ConcurrentBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(4, q.size());
+        assertEquals(0, q.peek());
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+        assertTrue(q.isEmpty());
+        assertThrows(NullPointerException.class, () -> q.add(null));
+    }
+
+    /**
+     * Single threaded FIFO across many segments, interleaved so segments are retired while others fill
+     */
+    @Test
+    void testFIFO_ManySegments(){
+        ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+        int next = 0, expected = 0;
+        while(next < 1000000){
+            q.add(next++); q.add(next++); q.add(next++);
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next - expected, q.size());
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+        assertEquals(0, q.size());
+    }
+
+    /**
+     * Several producers and consumers: every element is removed exactly once, and each consumer
+     * sees each producer's elements in the order that producer added them
+     * @param producers number of producer threads
+     * @param consumers number of consumer threads
+     */
+    @ParameterizedTest(name = "{0} producers, {1} consumers")
+    @CsvSource({"1, 4", "4, 1", "4, 4"})
+    @Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+    void testManyThreadStress(int producers, int consumers) throws InterruptedException {
+        final int PER_PRODUCER = 250000;
+        final int TOTAL = producers * PER_PRODUCER;
+        ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+        AtomicInteger[] seen = new AtomicInteger[TOTAL];
+        for(int i=0; i<TOTAL; i++){
+            seen[i] = new AtomicInteger();
+        }
+        AtomicInteger removed = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] threads = new Thread[producers + consumers];
+        for(int p=0; p<producers; p++){
+            final int base = p * PER_PRODUCER;
+            threads[p] = new Thread(() -> {
+                for(int i=0; i<PER_PRODUCER; i++){
+                    q.add(base + i);
+                }
+            });
+        }
+        for(int c=0; c<consumers; c++){
+            threads[producers + c] = new Thread(() -> {
+                try {
+                    int[] lastPerProducer = new int[producers];
+                    java.util.Arrays.fill(lastPerProducer, -1);
+                    while(removed.get() < TOTAL){
+                        Integer x = q.remove();
+                        if(x == null){
+                            Thread.yield();
+                            continue;
+                        }
+                        removed.incrementAndGet();
+                        assertEquals(1, seen[x].incrementAndGet(), "removed twice: " + x);
+                        int producer = x / PER_PRODUCER;
+                        assertTrue(x > lastPerProducer[producer], "out of order: " + x);
+                        lastPerProducer[producer] = x;
+                    }
+                } catch (Throwable t){
+                    failure.set(t);
+                    removed.set(TOTAL);
+                }
+            });
+        }
+        for(Thread t : threads){
+            t.start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Consumer failed: " + failure.get());
+        }
+        for(int i=0; i<TOTAL; i++){
+            assertEquals(1, seen[i].get(), "lost element " + i);
+        }
+        assertTrue(q.isEmpty());
+        assertNull(q.remove());
+    }
+
+    /**
+     * Consumers spinning on an almost empty queue keep taking slots producers have claimed but
+     * not written yet.  Producers still get every element in, in order, and once everything is
+     * drained the slots given up along the way don't count towards size()
+     */
+    @Test
+    @Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+    void testSpinningConsumers() throws InterruptedException {
+        final int producers = 2, consumers = 6;
+        final int PER_PRODUCER = 200000;
+        final int TOTAL = producers * PER_PRODUCER;
+        ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+        AtomicInteger removed = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[producers + consumers];
+        for(int p=0; p<producers; p++){
+            final int base = p * PER_PRODUCER;
+            threads[p] = new Thread(() -> {
+                for(int i=0; i<PER_PRODUCER; i++){
+                    q.add(base + i);
+                }
+            });
+        }
+        for(int c=0; c<consumers; c++){
+            threads[producers + c] = new Thread(() -> {
+                try {
+                    int[] lastPerProducer = new int[producers];
+                    java.util.Arrays.fill(lastPerProducer, -1);
+                    while(removed.get() < TOTAL){
+                        Integer x = q.remove();
+                        if(x == null){
+                            continue;
+                        }
+                        removed.incrementAndGet();
+                        int producer = x / PER_PRODUCER;
+                        assertTrue(x > lastPerProducer[producer], "out of order: " + x);
+                        lastPerProducer[producer] = x;
+                    }
+                } catch (Throwable t){
+                    failure.set(t);
+                    removed.set(TOTAL);
+                }
+            });
+        }
+        for(Thread t : threads){
+            t.start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Consumer failed: " + failure.get());
+        }
+        assertEquals(TOTAL, removed.get());
+        assertEquals(0, q.size());
+        assertNull(q.remove());
+        q.add(-1);
+        q.add(-2);
+        assertEquals(2, q.size());
+        assertEquals(-1, q.remove());
+        assertEquals(-2, q.remove());
+        assertEquals(0, q.size());
+    }
+
+    /**
+     * Two threads draining the same queue at once never store or count a null: between them
+     * they get every element exactly once
+     */
+    @Test
+    @Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+    void testConcurrentDrain() throws Exception {
+        final int ROUNDS = 10000, N = 64;
+        ConcurrentBetterQueue<Integer> q = new ConcurrentBetterQueue<>();
+        CyclicBarrier start = new CyclicBarrier(2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger[] seen = new AtomicInteger[N];
+        int[][] counts = new int[2][ROUNDS];
+        Runnable refill = () -> {
+            for(int i=0; i<N; i++){
+                seen[i].set(0);
+                q.add(i);
+            }
+        };
+        for(int i=0; i<N; i++){
+            seen[i] = new AtomicInteger();
+        }
+        CyclicBarrier done = new CyclicBarrier(2, refill);
+        refill.run();
+        Thread[] threads = new Thread[2];
+        for(int t=0; t<2; t++){
+            final int me = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    Integer[] out = new Integer[N];
+                    for(int round=0; round<ROUNDS; round++){
+                        start.await(5, TimeUnit.SECONDS);
+                        int n;
+                        if(round % 2 == me){
+                            n = q.drainTo(out, N);
+                        } else {
+                            int[] k = {0};
+                            n = q.drainTo(x -> out[k[0]++] = x, N);
+                        }
+                        for(int i=0; i<n; i++){
+                            assertNotNull(out[i], "null drained");
+                            assertEquals(1, seen[out[i]].incrementAndGet(), "drained twice: " + out[i]);
+                        }
+                        counts[me][round] = n;
+                        done.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (Throwable e){
+                    /* keep the first failure, not the other thread's broken barrier */
+                    failure.compareAndSet(null, e);
+                    start.reset();
+                    done.reset();
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Drainer failed: " + failure.get());
+        }
+        for(int round=0; round<ROUNDS; round++){
+            assertEquals(N, counts[0][round] + counts[1][round], "round " + round);
+        }
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        ConcurrentBetterQueue<Long> q = new ConcurrentBetterQueue<>();
+
+        @Override
+        protected void add(long o) throws Exception { q.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+}
@@ -0,0 +1,220 @@
+package CommonUtilsTest;
+
+import CommonUtils.ConcurrentBetterStack;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ConcurrentBetterStack, single threaded and with many threads pushing and popping
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class ConcurrentBetterStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        ConcurrentBetterStack<Integer> stack = new ConcurrentBetterStack<>();
+        stack.push(0); stack.push(3); stack.push(2); stack.push(1);
+        assertEquals(4, stack.size());
+        assertEquals(1, stack.peek());
+        assertEquals(1, stack.pop());
+        assertEquals(2, stack.pop());
+        assertEquals(3, stack.pop());
+        assertEquals(0, stack.pop());
+        assertTrue(stack.isEmpty());
+        assertThrows(NullPointerException.class, () -> stack.push(null));
+    }
+
+    /**
+     * pop and peek keep BetterStack's exception contract
+     */
+    @Test
+    void testEmptyStackException(){
+        ConcurrentBetterStack<Long> stack = new ConcurrentBetterStack<>();
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+        for(long i=0; i<100000; i++){
+            stack.push(i);
+        }
+        for(long i=100000-1; i>=0; i--){
+            assertEquals(i, stack.pop());
+        }
+        assertEquals(0, stack.size());
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+    }
+
+    /**
+     * popN and truncate single threaded: stack order, short batches and the argument checks
+     */
+    @Test
+    void testPopNTruncate(){
+        ConcurrentBetterStack<Integer> stack = new ConcurrentBetterStack<>();
+        for(int i=0; i<10; i++){
+            stack.push(i);
+        }
+        Integer[] out = new Integer[8];
+        assertEquals(3, stack.popN(out, 3));
+        assertArrayEquals(new Integer[]{7, 8, 9}, Arrays.copyOf(out, 3));
+        assertEquals(7, stack.size());
+        stack.truncate(2);
+        assertEquals(2, stack.size());
+        assertEquals(1, stack.peek());
+        assertEquals(2, stack.popN(out, 8));
+        assertArrayEquals(new Integer[]{0, 1}, Arrays.copyOf(out, 2));
+        assertEquals(0, stack.popN(out, 8));
+        stack.truncate(0);
+        assertTrue(stack.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.popN(out, 9));
+        assertThrows(IllegalArgumentException.class, () -> stack.truncate(1));
+    }
+
+    /**
+     * Two threads emptying the same stack at once, with popN on both sides or popN against
+     * truncate: nobody gets an EmptyStackException, each batch is one run off the top, and
+     * nothing is lost or popped twice
+     */
+    @Test
+    @Timeout(value = 20000, unit = MILLISECONDS)
+    void testConcurrentPopNTruncate() throws InterruptedException {
+        final int ROUNDS = 10000, N = 64, BATCH = 40;
+        ConcurrentBetterStack<Integer> stack = new ConcurrentBetterStack<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int[][] counts = new int[2][ROUNDS];
+        int[][] firsts = new int[2][ROUNDS];
+        CyclicBarrier start = new CyclicBarrier(2);
+        CyclicBarrier done = new CyclicBarrier(2, () -> {
+            if(!stack.isEmpty()){
+                failure.compareAndSet(null, new AssertionError(stack.size() + " items left"));
+            }
+            for(int i=0; i<N; i++){
+                stack.push(i);
+            }
+        });
+        for(int i=0; i<N; i++){
+            stack.push(i);
+        }
+        Thread[] threads = new Thread[2];
+        for(int t=0; t<2; t++){
+            final int me = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    Integer[] out = new Integer[BATCH];
+                    for(int round=0; round<ROUNDS; round++){
+                        start.await(5, TimeUnit.SECONDS);
+                        if(me == 1 && round % 2 == 1){
+                            stack.truncate(0);
+                            counts[me][round] = -1;
+                        } else {
+                            int n = stack.popN(out, BATCH);
+                            for(int i=1; i<n; i++){
+                                assertEquals(out[i - 1] + 1, out[i], "not one run");
+                            }
+                            counts[me][round] = n;
+                            firsts[me][round] = (n == 0) ? -1 : out[0];
+                        }
+                        done.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (Throwable e){
+                    /* keep the first failure, not the other thread's broken barrier */
+                    failure.compareAndSet(null, e);
+                    start.reset();
+                    done.reset();
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Popper failed: " + failure.get());
+        }
+        for(int round=0; round<ROUNDS; round++){
+            if(round % 2 == 0){
+                /* 40 off the top, then the 24 below them, in either order */
+                int a = counts[0][round], b = counts[1][round];
+                assertEquals(N, a + b, "round " + round);
+                assertEquals(a == BATCH ? N - BATCH : 0, firsts[0][round], "round " + round);
+                assertEquals(b == BATCH ? N - BATCH : 0, firsts[1][round], "round " + round);
+            } else {
+                /* the popper either went first or found nothing left */
+                int a = counts[0][round];
+                assertTrue(a == 0 || (a == BATCH && firsts[0][round] == N - BATCH), "round " + round + ": " + a);
+            }
+        }
+    }
+
+    /**
+     * Threads push and pop concurrently: every pushed element is popped exactly once, and each
+     * thread's own elements come back in LIFO order relative to each other
+     * @param threads number of threads
+     */
+    @ParameterizedTest(name = "Threads = {0}")
+    @ValueSource(ints = {2, 8})
+    @Timeout(value = 20000, unit = MILLISECONDS)
+    void testManyThreadStress(int threads) throws InterruptedException {
+        final int PER_THREAD = 200000;
+        final int TOTAL = threads * PER_THREAD;
+        ConcurrentBetterStack<Integer> stack = new ConcurrentBetterStack<>();
+        AtomicInteger[] seen = new AtomicInteger[TOTAL];
+        for(int i=0; i<TOTAL; i++){
+            seen[i] = new AtomicInteger();
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] workers = new Thread[threads];
+        for(int t=0; t<threads; t++){
+            final int base = t * PER_THREAD;
+            workers[t] = new Thread(() -> {
+                try {
+                    //push two, pop one, so pushes and pops stay interleaved across threads
+                    for(int i=0; i<PER_THREAD; i+=2){
+                        stack.push(base + i);
+                        stack.push(base + i + 1);
+                        int x = stack.pop();
+                        assertEquals(1, seen[x].incrementAndGet(), "popped twice: " + x);
+                    }
+                } catch (Throwable e){
+                    failure.set(e);
+                }
+            });
+        }
+        for(Thread t : workers){
+            t.start();
+        }
+        for(Thread t : workers){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail("Worker failed: " + failure.get());
+        }
+        assertEquals(TOTAL / 2, stack.size());
+        //whatever is left must be per-thread LIFO and unseen
+        int[] lastPerThread = new int[threads];
+        java.util.Arrays.fill(lastPerThread, Integer.MAX_VALUE);
+        while(!stack.isEmpty()){
+            int x = stack.pop();
+            assertEquals(1, seen[x].incrementAndGet(), "popped twice: " + x);
+            int owner = x / PER_THREAD;
+            assertTrue(x < lastPerThread[owner], "out of order: " + x);
+            lastPerThread[owner] = x;
+        }
+        for(int i=0; i<TOTAL; i++){
+            assertEquals(1, seen[i].get(), "lost element " + i);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterQueue;
+import CommonUtils.BetterStack;
+import CommonUtils.ContainerSnapshots;
+import CommonUtils.ElementCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ContainerSnapshots and the built-in ElementCodecs
+ */
+@Timeout(value = 5000, unit = MILLISECONDS)
+public class ContainerSnapshotsTest {
+
+    /**
+     * A 12-byte element, so elements straddle the 1 MiB buffer boundary
+     */
+    private record Point(long id, int weight) {}
+
+    private static final ElementCodec<Point> POINT = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return 12;
+        }
+
+        @Override
+        public void encode(Point item, ByteBuffer dst) {
+            dst.putLong(item.id()).putInt(item.weight());
+        }
+
+        @Override
+        public Point decode(ByteBuffer src) {
+            return new Point(src.getLong(), src.getInt());
+        }
+    };
+
+    private static <E> byte[] snapshot(BetterQueue<E> queue, ElementCodec<? super E> codec) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContainerSnapshots.write(queue, codec, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static <E> byte[] snapshot(BetterStack<E> stack, ElementCodec<? super E> codec) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContainerSnapshots.write(stack, codec, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static ReadableByteChannel channel(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck() throws IOException {
+        BetterQueue<Long> queue = new BetterQueue<>();
+        queue.add(1L); queue.add(-2L); queue.add(Long.MAX_VALUE);
+        byte[] bytes = snapshot(queue, ElementCodec.LONG);
+        assertEquals(20 + 3 * 8, bytes.length);
+        BetterQueue<Long> copy = ContainerSnapshots.readQueue(channel(bytes), ElementCodec.LONG);
+        assertEquals(3, copy.size());
+        assertEquals(1L, copy.remove());
+        assertEquals(-2L, copy.remove());
+        assertEquals(Long.MAX_VALUE, copy.remove());
+        /* the original is untouched */
+        assertEquals(3, queue.size());
+    }
+
+    /**
+     * A wrapped queue is written front first, and restored into an exactly-sized array
+     */
+    @Test
+    void testQueueRoundTrip() throws IOException {
+        BetterQueue<Integer> queue = new BetterQueue<>();
+        for (int i = 0; i < 300000; i++) {
+            queue.add(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            queue.remove();
+        }
+        for (int i = 300000; i < 300500; i++) {
+            queue.add(i);
+        }
+        BetterQueue<Integer> copy = ContainerSnapshots.readQueue(channel(snapshot(queue, ElementCodec.INT)), ElementCodec.INT);
+        assertEquals(queue.size(), copy.size());
+        for (int i = 1000; i < 300500; i++) {
+            assertEquals(i, copy.remove());
+        }
+    }
+
+    /**
+     * A stack is written bottom first and comes back with the same top
+     */
+    @Test
+    void testStackRoundTrip() throws IOException {
+        BetterStack<Long> stack = new BetterStack<>();
+        for (long i = 0; i < 200000; i++) {
+            stack.push(i * 3);
+        }
+        BetterStack<Long> copy = ContainerSnapshots.readStack(channel(snapshot(stack, ElementCodec.LONG)), ElementCodec.LONG);
+        assertEquals(200000, copy.size());
+        for (long i = 199999; i >= 0; i--) {
+            assertEquals(i * 3, copy.pop());
+        }
+    }
+
+    /**
+     * Elements whose width doesn't divide the buffer size cross buffer boundaries intact
+     */
+    @Test
+    void testStraddlingElements() throws IOException {
+        BetterQueue<Point> queue = new BetterQueue<>();
+        for (int i = 0; i < 250000; i++) {
+            queue.add(new Point(i, -i));
+        }
+        BetterQueue<Point> copy = ContainerSnapshots.readQueue(channel(snapshot(queue, POINT)), POINT);
+        for (int i = 0; i < 250000; i++) {
+            assertEquals(new Point(i, -i), copy.remove());
+        }
+        assertTrue(copy.isEmpty());
+    }
+
+    /**
+     * Variable-width elements, including ones bigger than the buffer, keep their lengths
+     */
+    @Test
+    void testVariableWidth() throws IOException {
+        char[] huge = new char[3 << 20];
+        Arrays.fill(huge, 'x');
+        String[] items = {"", "a", "été", new String(huge), "after", "😀"};
+        BetterStack<String> stack = new BetterStack<>();
+        for (int round = 0; round < 3; round++) {
+            for (String item : items) {
+                stack.push(item);
+            }
+        }
+        BetterStack<String> copy = ContainerSnapshots.readStack(channel(snapshot(stack, ElementCodec.UTF8)), ElementCodec.UTF8);
+        assertEquals(stack.size(), copy.size());
+        while (!stack.isEmpty()) {
+            assertEquals(stack.pop(), copy.pop());
+        }
+    }
+
+    /**
+     * A snapshot can be decoded straight out of a buffer, which is left just past it
+     */
+    @Test
+    void testReadFromBuffer() throws IOException {
+        BetterQueue<Point> queue = new BetterQueue<>();
+        for (int i = 0; i < 100000; i++) {
+            queue.add(new Point(i, i % 13));
+        }
+        byte[] bytes = snapshot(queue, POINT);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 3);
+        buffer.put(bytes).put((byte) 1).put((byte) 2).put((byte) 3).flip();
+        BetterQueue<Point> copy = ContainerSnapshots.readQueue(buffer, POINT);
+        assertEquals(bytes.length, buffer.position());
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(new Point(i, i % 13), copy.remove());
+        }
+        assertThrows(EOFException.class, () -> ContainerSnapshots.readQueue(
+                ByteBuffer.wrap(bytes, 0, bytes.length - 5), POINT));
+    }
+
+    /**
+     * Empty containers round trip to empty containers
+     */
+    @Test
+    void testEmpty() throws IOException {
+        byte[] bytes = snapshot(new BetterQueue<Long>(), ElementCodec.LONG);
+        assertEquals(20, bytes.length);
+        assertTrue(ContainerSnapshots.readQueue(channel(bytes), ElementCodec.LONG).isEmpty());
+        bytes = snapshot(new BetterStack<String>(), ElementCodec.UTF8);
+        assertTrue(ContainerSnapshots.readStack(channel(bytes), ElementCodec.UTF8).isEmpty());
+    }
+
+    /**
+     * Snapshots of the wrong kind, with the wrong codec, or cut short are rejected
+     */
+    @Test
+    void testBadInput() throws IOException {
+        BetterQueue<Long> queue = new BetterQueue<>();
+        for (long i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+        byte[] bytes = snapshot(queue, ElementCodec.LONG);
+        assertThrows(IOException.class, () -> ContainerSnapshots.readStack(channel(bytes), ElementCodec.LONG));
+        assertThrows(IOException.class, () -> ContainerSnapshots.readQueue(channel(bytes), ElementCodec.INT));
+        assertThrows(EOFException.class, () -> ContainerSnapshots.readQueue(
+                channel(Arrays.copyOf(bytes, bytes.length - 1)), ElementCodec.LONG));
+        assertThrows(EOFException.class, () -> ContainerSnapshots.readQueue(channel(new byte[5]), ElementCodec.LONG));
+        assertThrows(IOException.class, () -> ContainerSnapshots.readQueue(channel(new byte[64]), ElementCodec.LONG));
+    }
+
+    /**
+     * A header claiming far more elements than follow fails with an IOException, from a channel
+     * and from memory, instead of presizing a huge container
+     */
+    @Test
+    void testCorruptCount() throws IOException {
+        for (ElementCodec<?> codec : new ElementCodec<?>[]{ElementCodec.LONG, ElementCodec.UTF8}) {
+            byte[] header = Arrays.copyOf(snapshot(new BetterQueue<Long>(), ElementCodec.LONG), 20);
+            ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(8, codec.width()).putLong(12, Integer.MAX_VALUE);
+            assertThrows(EOFException.class, () -> ContainerSnapshots.readQueue(channel(header), codec));
+            assertThrows(EOFException.class, () -> ContainerSnapshots.readQueue(ByteBuffer.wrap(header), codec));
+            /* a stack header with the same count */
+            ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 2);
+            assertThrows(EOFException.class, () -> ContainerSnapshots.readStack(channel(header), codec));
+        }
+    }
+
+    /**
+     * Taking many small snapshots on one thread reuses its buffer instead of allocating a new
+     * direct buffer every time
+     */
+    @Test
+    void testBufferReused() throws IOException {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct")).findFirst().orElseThrow();
+        BetterQueue<Long> queue = new BetterQueue<>();
+        queue.add(1L);
+        snapshot(queue, ElementCodec.LONG);
+        long before = direct.getCount();
+        for (int i = 0; i < 200; i++) {
+            byte[] bytes = snapshot(queue, ElementCodec.LONG);
+            assertEquals(1L, ContainerSnapshots.readQueue(channel(bytes), ElementCodec.LONG).remove());
+        }
+        assertTrue(direct.getCount() - before <= 1, (direct.getCount() - before) + " new direct buffers");
+    }
+
+    /**
+     * UTF8's encodedSize matches what String.getBytes produces, including multi-byte characters,
+     * surrogate pairs and unpaired surrogates
+     */
+    @Test
+    void testUtf8EncodedSize() throws IOException {
+        String[] strings = {"", "plain", "caf\u00e9", "\u20ac10", "\uD83D\uDE00 smile",
+                "lone \uD83D high", "lone \uDE00 low", "end \uD83D", "\uDE00\uD83D"};
+        BetterQueue<String> queue = new BetterQueue<>();
+        for (String string : strings) {
+            assertEquals(string.getBytes(StandardCharsets.UTF_8).length, ElementCodec.UTF8.encodedSize(string), string);
+            queue.add(string);
+        }
+        BetterQueue<String> copy = ContainerSnapshots.readQueue(channel(snapshot(queue, ElementCodec.UTF8)), ElementCodec.UTF8);
+        for (String string : strings) {
+            assertEquals(new String(string.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), copy.remove());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterQueue;
+import CommonUtils.CapacityPolicy;
+import CommonUtils.ContainerStats;
+import CommonUtils.InstrumentedBetterQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests InstrumentedBetterQueue
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class InstrumentedBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        InstrumentedBetterQueue<Integer> queue = new InstrumentedBetterQueue<>();
+        assertEquals(new ContainerStats(0, 0, 0, 0, 8, 0, 0), queue.stats());
+        for (int i = 0; i < 9; i++) {
+            queue.add(i);
+        }
+        /* the 9th add grew 8 -> 16 and copied the 8 elements already there */
+        assertEquals(new ContainerStats(1, 0, 8, 9, 16, 9, 0), queue.stats());
+        assertEquals(0, queue.remove());
+        assertEquals(1, queue.stats().removes());
+    }
+
+    /**
+     * Filling then draining counts every doubling and halving, and the copies stay amortized O(1)
+     */
+    @Test
+    void testFillDrain(){
+        InstrumentedBetterQueue<Integer> queue = new InstrumentedBetterQueue<>();
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i);
+        }
+        ContainerStats filled = queue.stats();
+        /* 8 -> 1024 is 7 doublings, copying 8 + 16 + ... + 512 elements */
+        assertEquals(7, filled.grows());
+        assertEquals(1016, filled.elementsCopied());
+        assertEquals(1024, filled.peakCapacity());
+        assertEquals(1000, filled.peakSize());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, queue.remove());
+        }
+        /* removing from an empty queue isn't a removal */
+        assertNull(queue.remove());
+        ContainerStats drained = queue.stats();
+        /* 1024 -> 16: the policy never shrinks a queue holding 8 or fewer elements */
+        assertEquals(6, drained.shrinks());
+        assertEquals(13, drained.resizes());
+        assertEquals(1000, drained.adds());
+        assertEquals(1000, drained.removes());
+        assertEquals(1000, drained.peakSize());
+        assertTrue(drained.copiesPerOperation() < 2, "copies per operation: " + drained.copiesPerOperation());
+    }
+
+    /**
+     * An incremental resize copies the same elements as an eager one, just spread out
+     */
+    @Test
+    void testIncrementalCopiesSameElements(){
+        InstrumentedBetterQueue<Integer> eager = new InstrumentedBetterQueue<>(CapacityPolicy.defaultPolicy(), false);
+        InstrumentedBetterQueue<Integer> incremental = new InstrumentedBetterQueue<>(CapacityPolicy.defaultPolicy(), true);
+        for (int i = 0; i < 10000; i++) {
+            eager.add(i);
+            incremental.add(i);
+        }
+        assertEquals(eager.stats().grows(), incremental.stats().grows());
+        assertEquals(eager.stats().elementsCopied(),
+                incremental.stats().elementsCopied() + incremental.pendingMigration());
+        /* iterating finishes the move */
+        incremental.iterator();
+        assertEquals(eager.stats(), incremental.stats());
+    }
+
+    /**
+     * Bulk adds and drains are counted by element
+     */
+    @Test
+    void testBulkOperations(){
+        InstrumentedBetterQueue<Integer> queue = new InstrumentedBetterQueue<>();
+        Integer[] items = new Integer[100];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i;
+        }
+        queue.addAll(items, 0, 100);
+        /* one resize straight to 128, copying nothing since the queue was empty */
+        assertEquals(new ContainerStats(1, 0, 0, 100, 128, 100, 0), queue.stats());
+        assertEquals(30, queue.drainTo(new Integer[30], 30));
+        assertEquals(30, queue.stats().removes());
+        assertThrows(IllegalStateException.class, () -> queue.drainTo(x -> {
+            if (x == 40) {
+                throw new IllegalStateException();
+            }
+        }, 70));
+        /* 30..40 were handed out before sink threw */
+        assertEquals(41, queue.stats().removes());
+        assertEquals(59, queue.size());
+    }
+
+    /**
+     * resetStats zeroes the counts and restarts the peaks from the current state
+     */
+    @Test
+    void testResetStats(){
+        InstrumentedBetterQueue<Integer> queue = new InstrumentedBetterQueue<>();
+        for (int i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+        for (int i = 0; i < 50; i++) {
+            queue.remove();
+        }
+        queue.resetStats();
+        assertEquals(new ContainerStats(0, 0, 0, 50, 64, 0, 0), queue.stats());
+        queue.add(100);
+        assertEquals(new ContainerStats(0, 0, 0, 51, 64, 1, 0), queue.stats());
+    }
+
+    /**
+     * Counting doesn't change how the queue behaves
+     */
+    @Test
+    void testSameBehaviourAsBetterQueue(){
+        Random random = new Random(251);
+        BetterQueue<Integer> plain = new BetterQueue<>();
+        InstrumentedBetterQueue<Integer> counted = new InstrumentedBetterQueue<>();
+        long adds = 0, removes = 0;
+        int peak = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (random.nextInt(5) < 3) {
+                plain.add(i);
+                counted.add(i);
+                adds++;
+                peak = Integer.max(peak, plain.size());
+            } else {
+                Integer expected = plain.remove();
+                assertEquals(expected, counted.remove());
+                if (expected != null) {
+                    removes++;
+                }
+            }
+            assertEquals(plain.size(), counted.size());
+        }
+        ContainerStats stats = counted.stats();
+        assertEquals(adds, stats.adds());
+        assertEquals(removes, stats.removes());
+        assertEquals(peak, stats.peakSize());
+    }
+}
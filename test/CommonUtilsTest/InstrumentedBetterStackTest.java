@@ -0,0 +1,149 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterStack;
+import CommonUtils.CapacityPolicy;
+import CommonUtils.ContainerStats;
+import CommonUtils.InstrumentedBetterStack;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.EmptyStackException;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests InstrumentedBetterStack
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class InstrumentedBetterStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        InstrumentedBetterStack<Integer> stack = new InstrumentedBetterStack<>();
+        assertEquals(new ContainerStats(0, 0, 0, 0, 8, 0, 0), stack.stats());
+        for (int i = 0; i < 9; i++) {
+            stack.push(i);
+        }
+        /* the 9th push grew 8 -> 16 and copied the 8 elements already there */
+        assertEquals(new ContainerStats(1, 0, 8, 9, 16, 9, 0), stack.stats());
+        assertEquals(8, stack.pop());
+        assertEquals(1, stack.stats().removes());
+    }
+
+    /**
+     * Filling then draining counts every doubling and halving, and the copies stay amortized O(1)
+     */
+    @Test
+    void testFillDrain(){
+        InstrumentedBetterStack<Integer> stack = new InstrumentedBetterStack<>();
+        for (int i = 0; i < 1000; i++) {
+            stack.push(i);
+        }
+        ContainerStats filled = stack.stats();
+        /* 8 -> 1024 is 7 doublings, copying 8 + 16 + ... + 512 elements */
+        assertEquals(7, filled.grows());
+        assertEquals(1016, filled.elementsCopied());
+        assertEquals(1024, filled.peakCapacity());
+        assertEquals(1000, filled.peakSize());
+        for (int i = 999; i >= 0; i--) {
+            assertEquals(i, stack.pop());
+        }
+        /* a failed pop isn't a pop */
+        assertThrows(EmptyStackException.class, stack::pop);
+        ContainerStats drained = stack.stats();
+        /* 1024 -> 16: the policy never shrinks a stack holding 8 or fewer elements */
+        assertEquals(6, drained.shrinks());
+        assertEquals(1000, drained.adds());
+        assertEquals(1000, drained.removes());
+        assertTrue(drained.copiesPerOperation() < 2, "copies per operation: " + drained.copiesPerOperation());
+    }
+
+    /**
+     * An incremental resize copies the same elements as an eager one, just spread out
+     */
+    @Test
+    void testIncrementalCopiesSameElements(){
+        InstrumentedBetterStack<Integer> eager = new InstrumentedBetterStack<>(CapacityPolicy.defaultPolicy(), false);
+        InstrumentedBetterStack<Integer> incremental = new InstrumentedBetterStack<>(CapacityPolicy.defaultPolicy(), true);
+        for (int i = 0; i < 10000; i++) {
+            eager.push(i);
+            incremental.push(i);
+        }
+        assertEquals(eager.stats().grows(), incremental.stats().grows());
+        assertEquals(eager.stats().elementsCopied(),
+                incremental.stats().elementsCopied() + incremental.pendingMigration());
+        /* iterating finishes the move */
+        incremental.iterator();
+        assertEquals(eager.stats(), incremental.stats());
+    }
+
+    /**
+     * Bulk pushes and pops are counted by element, popN exactly once
+     */
+    @Test
+    void testBulkOperations(){
+        InstrumentedBetterStack<Integer> stack = new InstrumentedBetterStack<>();
+        Integer[] items = new Integer[100];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i;
+        }
+        stack.pushAll(items, 0, 100);
+        /* one resize straight to 128, copying nothing since the stack was empty */
+        assertEquals(new ContainerStats(1, 0, 0, 100, 128, 100, 0), stack.stats());
+        assertEquals(30, stack.popN(new Integer[30], 30));
+        assertEquals(30, stack.stats().removes());
+        stack.truncate(50);
+        assertEquals(50, stack.stats().removes());
+        assertEquals(100, stack.stats().adds());
+    }
+
+    /**
+     * resetStats zeroes the counts and restarts the peaks from the current state
+     */
+    @Test
+    void testResetStats(){
+        InstrumentedBetterStack<Integer> stack = new InstrumentedBetterStack<>();
+        for (int i = 0; i < 100; i++) {
+            stack.push(i);
+        }
+        for (int i = 0; i < 50; i++) {
+            stack.pop();
+        }
+        stack.resetStats();
+        assertEquals(new ContainerStats(0, 0, 0, 50, 64, 0, 0), stack.stats());
+        stack.push(100);
+        assertEquals(new ContainerStats(0, 0, 0, 51, 64, 1, 0), stack.stats());
+    }
+
+    /**
+     * Counting doesn't change how the stack behaves
+     */
+    @Test
+    void testSameBehaviourAsBetterStack(){
+        Random random = new Random(251);
+        BetterStack<Integer> plain = new BetterStack<>();
+        InstrumentedBetterStack<Integer> counted = new InstrumentedBetterStack<>();
+        long pushes = 0, pops = 0;
+        int peak = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (plain.isEmpty() || random.nextInt(5) < 3) {
+                plain.push(i);
+                counted.push(i);
+                pushes++;
+                peak = Integer.max(peak, plain.size());
+            } else {
+                assertEquals(plain.pop(), counted.pop());
+                pops++;
+            }
+            assertEquals(plain.size(), counted.size());
+        }
+        ContainerStats stats = counted.stats();
+        assertEquals(pushes, stats.adds());
+        assertEquals(pops, stats.removes());
+        assertEquals(peak, stats.peakSize());
+    }
+}
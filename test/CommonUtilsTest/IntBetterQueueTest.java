@@ -0,0 +1,109 @@
+package CommonUtilsTest;
+
+import CommonUtils.IntBetterQueue;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests IntBetterQueue
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class IntBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        IntBetterQueue q = new IntBetterQueue();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+    }
+
+    /**
+     * Edge values should come back untouched
+     */
+    @ParameterizedTest(name = "Valid num = {0}")
+    @ValueSource(ints = {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 65535})
+    void testValidNums(int num){
+        IntBetterQueue q = new IntBetterQueue();
+        q.add(num);
+        assertEquals(num, q.peek());
+        assertEquals(num, q.remove());
+    }
+
+    /**
+     * peek and remove throw on an empty queue, since there is no null to return
+     */
+    @Test
+    void testEmptyThrows(){
+        IntBetterQueue q = new IntBetterQueue();
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::remove);
+        for(int i=0; i<100; i++){
+            q.add(i);
+        }
+        for(int i=0; i<100; i++){
+            q.remove();
+        }
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::remove);
+    }
+
+    /**
+     * Tests ordered add/remove with FIFO, interleaved so that the ring wraps while resizing
+     */
+    @Test
+    void testFIFO_WrappedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        IntBetterQueue q = new IntBetterQueue();
+        int next = 0, expected = 0;
+        while(next < MAX_NUM_TO_ADD){
+            q.add(next++); q.add(next++); q.add(next++);
+            assertEquals(expected++, q.remove());
+        }
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+        assertEquals(0, q.size());
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        IntBetterQueue q = new IntBetterQueue();
+
+        @Override
+        protected void add(long o) throws Exception { q.add((int)o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+}
@@ -0,0 +1,106 @@
+package CommonUtilsTest;
+
+import CommonUtils.IntBetterStack;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.EmptyStackException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests IntBetterStack
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class IntBetterStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        IntBetterStack stack = new IntBetterStack();
+        stack.push(0); stack.push(3); stack.push(2); stack.push(1);
+        assertEquals(1, stack.pop());
+        assertEquals(2, stack.pop());
+        assertEquals(3, stack.pop());
+        assertEquals(0, stack.pop());
+    }
+
+    /**
+     * Edge values should come back untouched
+     */
+    @ParameterizedTest(name = "Valid num = {0}")
+    @ValueSource(ints = {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 65535})
+    void testValidNums(int num){
+        IntBetterStack stack = new IntBetterStack();
+        stack.push(num);
+        assertEquals(num, stack.peek());
+        assertEquals(num, stack.pop());
+    }
+
+    /**
+     * Tests ordered add/remove with FILO (aka stack)
+     */
+    @Test
+    void testFILO_OrderedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        IntBetterStack stack = new IntBetterStack();
+        for(int i=0; i<MAX_NUM_TO_ADD; i++){
+            stack.push(i);
+        }
+        for(int i=MAX_NUM_TO_ADD-1; i>=0; i--){
+            assertEquals(i, stack.pop());
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * Tests pop and peek exceptions on a "used" stack
+     */
+    @Test
+    void testEmptyStackException(){
+        IntBetterStack stack = new IntBetterStack();
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+        for(int i=0; i<1000; i++){
+            stack.push(i);
+        }
+        for(int i=0; i<1000; i++){
+            stack.pop();
+        }
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+    }
+
+    /**
+     * Test size, empty, push, pop
+     */
+    @Nested
+    @Timeout(value = 6000, unit = MILLISECONDS)
+    class SizeEmptyAddRemoveBack extends SizeEmptyBasicAddRemoveBackTestFactory {
+        IntBetterStack stack = new IntBetterStack();
+
+        @Override
+        protected void add(long o) throws Exception { stack.push((int)o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { stack.pop(); }
+
+        @Override
+        protected long getSize() { return stack.size(); }
+
+        @Override
+        protected boolean isEmpty() { return stack.isEmpty(); }
+    }
+}
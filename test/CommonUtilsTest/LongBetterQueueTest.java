@@ -0,0 +1,169 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongBetterQueue;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests LongBetterQueue
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class LongBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        LongBetterQueue q = new LongBetterQueue();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+    }
+
+    /**
+     * Values that don't fit in an int should come back untouched
+     */
+    @ParameterizedTest(name = "Valid num = {0}")
+    @ValueSource(longs = {0, -1, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40})
+    void testValidNums(long num){
+        LongBetterQueue q = new LongBetterQueue();
+        q.add(num);
+        assertEquals(num, q.peek());
+        assertEquals(num, q.remove());
+    }
+
+    /**
+     * peek and remove throw on an empty queue, since there is no null to return
+     */
+    @Test
+    void testEmptyThrows(){
+        LongBetterQueue q = new LongBetterQueue();
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::remove);
+        for(int i=0; i<100; i++){
+            q.add(i);
+        }
+        for(int i=0; i<100; i++){
+            q.remove();
+        }
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::remove);
+    }
+
+    /**
+     * Tests ordered add/remove with FIFO, interleaved so that the ring wraps while resizing
+     */
+    @Test
+    void testFIFO_WrappedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        LongBetterQueue q = new LongBetterQueue();
+        long next = 0, expected = 0;
+        while(next < MAX_NUM_TO_ADD){
+            q.add(next++); q.add(next++); q.add(next++);
+            assertEquals(expected++, q.remove());
+        }
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+        assertEquals(0, q.size());
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        LongBetterQueue q = new LongBetterQueue();
+
+        @Override
+        protected void add(long o) throws Exception { q.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+
+    /**
+     * Tests presizing, ensureCapacity, trimToSize and the footprint estimate
+     */
+    @Nested
+    class CapacityManagementTests {
+        /**
+         * A presized queue fills up (and wraps around) without resizing
+         */
+        @Test
+        void testExpectedSize(){
+            LongBetterQueue q = new LongBetterQueue(1000);
+            assertEquals(1000, q.capacity());
+            for(int i=0; i<1000; i++){
+                q.add(i);
+            }
+            for(int i=1000; i<5000; i++){
+                assertEquals(i - 1000, q.remove());
+                q.add(i);
+                assertEquals(1000, q.capacity());
+            }
+            for(int i=4000; i<5000; i++){
+                assertEquals(i, q.remove());
+            }
+            assertThrows(IllegalArgumentException.class, () -> new LongBetterQueue(-1));
+            assertEquals(8, new LongBetterQueue(3).capacity());
+        }
+
+        /**
+         * ensureCapacity grows in one go; trimToSize cuts the capacity back to the size
+         */
+        @Test
+        void testEnsureCapacityAndTrim(){
+            LongBetterQueue q = new LongBetterQueue();
+            for(int i=0; i<6; i++){
+                q.add(i);
+            }
+            q.remove(); q.remove(); q.remove();
+            for(int i=6; i<10; i++){
+                q.add(i);
+            }
+            q.ensureCapacity(100);
+            assertEquals(128, q.capacity());
+            long before = q.estimatedRetainedBytes();
+            assertTrue(before >= 128 * 8);
+            q.trimToSize();
+            assertEquals(7, q.capacity());
+            assertTrue(q.estimatedRetainedBytes() < before);
+            for(int i=10; i<20; i++){
+                q.add(i);
+            }
+            for(int i=3; i<20; i++){
+                assertEquals(i, q.remove());
+            }
+            q.trimToSize();
+            assertEquals(1, q.capacity());
+            q.add(42);
+            assertEquals(42, q.remove());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongBetterStack;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.EmptyStackException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests LongBetterStack
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class LongBetterStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        LongBetterStack stack = new LongBetterStack();
+        stack.push(0); stack.push(3); stack.push(2); stack.push(1);
+        assertEquals(1, stack.pop());
+        assertEquals(2, stack.pop());
+        assertEquals(3, stack.pop());
+        assertEquals(0, stack.pop());
+    }
+
+    /**
+     * Values that don't fit in an int should come back untouched
+     */
+    @ParameterizedTest(name = "Valid num = {0}")
+    @ValueSource(longs = {0, -1, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40})
+    void testValidNums(long num){
+        LongBetterStack stack = new LongBetterStack();
+        stack.push(num);
+        assertEquals(num, stack.peek());
+        assertEquals(num, stack.pop());
+    }
+
+    /**
+     * Tests ordered add/remove with FILO (aka stack)
+     */
+    @Test
+    void testFILO_OrderedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        LongBetterStack stack = new LongBetterStack();
+        for(long i=0; i<MAX_NUM_TO_ADD; i++){
+            stack.push(i);
+        }
+        for(long i=MAX_NUM_TO_ADD-1; i>=0; i--){
+            assertEquals(i, stack.pop());
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * Tests pop and peek exceptions on a "used" stack
+     */
+    @Test
+    void testEmptyStackException(){
+        LongBetterStack stack = new LongBetterStack();
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+        for(long i=0; i<1000; i++){
+            stack.push(i);
+        }
+        for(long i=0; i<1000; i++){
+            stack.pop();
+        }
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::peek);
+    }
+
+    /**
+     * Test size, empty, push, pop
+     */
+    @Nested
+    @Timeout(value = 6000, unit = MILLISECONDS)
+    class SizeEmptyAddRemoveBack extends SizeEmptyBasicAddRemoveBackTestFactory {
+        LongBetterStack stack = new LongBetterStack();
+
+        @Override
+        protected void add(long o) throws Exception { stack.push(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { stack.pop(); }
+
+        @Override
+        protected long getSize() { return stack.size(); }
+
+        @Override
+        protected boolean isEmpty() { return stack.isEmpty(); }
+    }
+}
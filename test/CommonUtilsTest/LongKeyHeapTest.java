@@ -0,0 +1,168 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongKeyHeap;
+import CommonUtils.StandardCapacityPolicy;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests LongKeyHeap
+ */
+@Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+public class LongKeyHeapTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        LongKeyHeap h = new LongKeyHeap();
+        h.insert(7, 30); h.insert(3, 10); h.insert(100, Long.MIN_VALUE); h.insert(0, Long.MAX_VALUE);
+        assertEquals(4, h.size());
+        assertEquals(100, h.peekId());
+        assertEquals(Long.MIN_VALUE, h.peekKey());
+        assertEquals(100, h.removeMin());
+        assertEquals(3, h.removeMin());
+        assertEquals(7, h.removeMin());
+        assertEquals(0, h.removeMin());
+        assertThrows(NoSuchElementException.class, h::removeMin);
+        assertThrows(NoSuchElementException.class, h::peekKey);
+        assertThrows(IllegalArgumentException.class, () -> h.insert(-1, 0));
+        h.insert(5, 5);
+        assertThrows(IllegalArgumentException.class, () -> h.insert(5, 6));
+    }
+
+    /**
+     * Dijkstra on a random graph matches Bellman-Ford, for several arities
+     * @param arity children per node
+     */
+    @ParameterizedTest(name = "Arity = {0}")
+    @ValueSource(ints = {2, 4, 8})
+    void testDijkstra(int arity){
+        final int V = 2000, E = 20000;
+        Random random = new Random(arity);
+        int[] from = new int[E], to = new int[E];
+        long[] weight = new long[E];
+        for(int e=0; e<E; e++){
+            from[e] = random.nextInt(V);
+            to[e] = random.nextInt(V);
+            weight[e] = random.nextInt(1000);
+        }
+        //reference distances
+        long[] expected = new long[V];
+        java.util.Arrays.fill(expected, Long.MAX_VALUE);
+        expected[0] = 0;
+        for(boolean changed = true; changed; ){
+            changed = false;
+            for(int e=0; e<E; e++){
+                if(expected[from[e]] != Long.MAX_VALUE && expected[from[e]] + weight[e] < expected[to[e]]){
+                    expected[to[e]] = expected[from[e]] + weight[e];
+                    changed = true;
+                }
+            }
+        }
+        //Dijkstra with decreaseKey, scanning the edge list per settled vertex
+        int[][] adjacency = new int[V][];
+        int[] degree = new int[V];
+        for(int e=0; e<E; e++){ degree[from[e]]++; }
+        for(int v=0; v<V; v++){ adjacency[v] = new int[degree[v]]; degree[v] = 0; }
+        for(int e=0; e<E; e++){ adjacency[from[e]][degree[from[e]]++] = e; }
+        long[] dist = new long[V];
+        java.util.Arrays.fill(dist, Long.MAX_VALUE);
+        LongKeyHeap h = new LongKeyHeap(arity, StandardCapacityPolicy.defaults());
+        h.insert(0, 0);
+        while(!h.isEmpty()){
+            long d = h.peekKey();
+            int v = h.removeMin();
+            dist[v] = d;
+            for(int e : adjacency[v]){
+                int w = to[e];
+                long nd = d + weight[e];
+                if(dist[w] != Long.MAX_VALUE){
+                    continue;
+                }
+                if(!h.contains(w)){
+                    h.insert(w, nd);
+                } else if(nd < h.keyOf(w)){
+                    h.decreaseKey(w, nd);
+                }
+            }
+        }
+        assertArrayEquals(expected, dist);
+    }
+
+    /**
+     * remove(id), decreaseKey errors and insertAll (both bottom-up and one by one)
+     */
+    @Test
+    void testRemoveAndInsertAll(){
+        LongKeyHeap h = new LongKeyHeap(3, StandardCapacityPolicy.defaults());
+        int[] ids = new int[100000];
+        long[] keys = new long[100000];
+        for(int i=0; i<ids.length; i++){
+            ids[i] = i;
+            keys[i] = (i * 7919L) % 100003;
+        }
+        h.insertAll(ids, keys, 0, 50000);
+        h.insertAll(ids, keys, 50000, 10);
+        assertThrows(IllegalArgumentException.class, () -> h.insertAll(new int[]{200000, 200000}, new long[2], 0, 2));
+        assertFalse(h.contains(200000));
+        assertThrows(IllegalArgumentException.class, () -> h.insertAll(ids, keys, 0, 1));
+        assertEquals(50010, h.size());
+        for(int i=0; i<50010; i+=2){
+            assertTrue(h.remove(i));
+            assertFalse(h.remove(i));
+        }
+        assertThrows(NoSuchElementException.class, () -> h.decreaseKey(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> h.decreaseKey(1, Long.MAX_VALUE));
+        long previous = Long.MIN_VALUE;
+        int count = 0;
+        while(!h.isEmpty()){
+            long k = h.peekKey();
+            int id = h.removeMin();
+            assertEquals(1, id % 2);
+            assertEquals(keys[id], k);
+            assertTrue(k >= previous);
+            previous = k;
+            count++;
+        }
+        assertEquals(25005, count);
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        LongKeyHeap h = new LongKeyHeap();
+        int nextId = 0;
+
+        @Override
+        protected void add(long o) throws Exception { h.insert(nextId++, o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { h.removeMin(); }
+
+        @Override
+        protected long getSize() { return h.size(); }
+
+        @Override
+        protected boolean isEmpty() { return h.isEmpty(); }
+    }
+}
@@ -0,0 +1,143 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongPairStack;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.EmptyStackException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests LongPairStack
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class LongPairStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        LongPairStack stack = new LongPairStack();
+        stack.pushPair(0, 10); stack.pushPair(1, 11); stack.pushPair(2, 12);
+        assertEquals(2, stack.topFirst());
+        assertEquals(12, stack.topSecond());
+        stack.pop();
+        assertEquals(1, stack.topFirst());
+        assertEquals(11, stack.topSecond());
+        stack.pop();
+        assertEquals(0, stack.topFirst());
+        assertEquals(10, stack.topSecond());
+        stack.pop();
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * setTopSecond changes only the second value of the top pair
+     */
+    @Test
+    void testSetTopSecond(){
+        LongPairStack stack = new LongPairStack();
+        stack.pushPair(5, 50);
+        stack.pushPair(6, 60);
+        stack.setTopSecond(Long.MIN_VALUE);
+        assertEquals(6, stack.topFirst());
+        assertEquals(Long.MIN_VALUE, stack.topSecond());
+        assertEquals(2, stack.size());
+        stack.pop();
+        assertEquals(5, stack.topFirst());
+        assertEquals(50, stack.topSecond());
+    }
+
+    /**
+     * Pairs keep their two values together across many resizes
+     */
+    @Test
+    void testFILO_OrderedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        LongPairStack stack = new LongPairStack();
+        for(long i=0; i<MAX_NUM_TO_ADD; i++){
+            stack.pushPair(i, -i * 3);
+        }
+        for(long i=MAX_NUM_TO_ADD-1; i>=0; i--){
+            assertEquals(i, stack.topFirst());
+            assertEquals(-i * 3, stack.topSecond());
+            stack.pop();
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * Going up and down across page boundaries keeps every pair, including ones updated in place
+     */
+    @Test
+    void testAcrossPageBoundaries(){
+        LongPairStack stack = new LongPairStack();
+        long top = 0;
+        for(int round=0; round<200; round++){
+            int pushes = 1000 + (round % 7) * 997, pops = 1000 + (round % 5) * 1201;
+            for(int i=0; i<pushes; i++){
+                stack.pushPair(top, top);
+                stack.setTopSecond(-top);
+                top++;
+            }
+            for(int i=0; i<pops && !stack.isEmpty(); i++){
+                top--;
+                assertEquals(top, stack.topFirst());
+                assertEquals(-top, stack.topSecond());
+                stack.pop();
+            }
+            assertEquals(top, stack.size());
+        }
+    }
+
+    /**
+     * Tests exceptions on an empty, "used" stack
+     */
+    @Test
+    void testEmptyStackException(){
+        LongPairStack stack = new LongPairStack();
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::topFirst);
+        for(long i=0; i<1000; i++){
+            stack.pushPair(i, i);
+        }
+        for(long i=0; i<1000; i++){
+            stack.pop();
+        }
+        assertThrows(EmptyStackException.class, stack::pop);
+        assertThrows(EmptyStackException.class, stack::topFirst);
+        assertThrows(EmptyStackException.class, stack::topSecond);
+        assertThrows(EmptyStackException.class, () -> stack.setTopSecond(1));
+    }
+
+    /**
+     * Test size, empty, push, pop
+     */
+    @Nested
+    @Timeout(value = 6000, unit = MILLISECONDS)
+    class SizeEmptyAddRemoveBack extends SizeEmptyBasicAddRemoveBackTestFactory {
+        LongPairStack stack = new LongPairStack();
+
+        @Override
+        protected void add(long o) throws Exception { stack.pushPair(o, o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { stack.pop(); }
+
+        @Override
+        protected long getSize() { return stack.size(); }
+
+        @Override
+        protected boolean isEmpty() { return stack.isEmpty(); }
+    }
+}
@@ -0,0 +1,138 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongBetterQueue;
+import CommonUtils.MonotonicLongQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests MonotonicLongQueue
+ */
+@Timeout(value = 2000, unit = MILLISECONDS)
+public class MonotonicLongQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        MonotonicLongQueue q = new MonotonicLongQueue();
+        q.add(5); q.add(5); q.add(200); q.add(100000);
+        assertEquals(4, q.size());
+        assertEquals(5, q.peek());
+        assertEquals(5, q.remove());
+        assertEquals(5, q.remove());
+        assertEquals(200, q.peek());
+        assertEquals(200, q.remove());
+        assertEquals(100000, q.remove());
+        assertTrue(q.isEmpty());
+    }
+
+    /**
+     * Gaps of every varint length, including the full 64-bit range, decode exactly
+     */
+    @Test
+    void testExtremeGaps(){
+        MonotonicLongQueue q = new MonotonicLongQueue(10, 0);
+        long[] values = {Long.MIN_VALUE, Long.MIN_VALUE, -1, 0, 127, 128, 16511, 16512,
+                1L << 35, 1L << 56, (1L << 62) + 1, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (long value : values) {
+            q.add(value);
+        }
+        for (long value : values) {
+            assertEquals(value, q.peek());
+            assertEquals(value, q.remove());
+        }
+        /* a gap of 2^64 - 1, the longest varint there is */
+        q.add(Long.MIN_VALUE);
+        q.add(Long.MAX_VALUE);
+        assertEquals(Long.MIN_VALUE, q.remove());
+        assertEquals(Long.MAX_VALUE, q.remove());
+    }
+
+    /**
+     * Interleaved adds and removes across many chunks match a plain long queue
+     */
+    @Test
+    void testAgainstLongBetterQueue(){
+        Random random = new Random(251);
+        MonotonicLongQueue q = new MonotonicLongQueue(16, 2);
+        LongBetterQueue expected = new LongBetterQueue();
+        long time = -1000;
+        for (int i = 0; i < 200000; i++) {
+            if (random.nextInt(3) != 0) {
+                int bits = random.nextInt(40);
+                time += random.nextLong() >>> (64 - bits - 1) >>> 1;
+                q.add(time);
+                expected.add(time);
+            } else if (!expected.isEmpty()) {
+                assertEquals(expected.peek(), q.peek());
+                assertEquals(expected.remove(), q.remove());
+            }
+            assertEquals(expected.size(), q.size());
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.remove(), q.remove());
+        }
+        assertTrue(q.isEmpty());
+    }
+
+    /**
+     * An emptied queue accepts any value again; a non-empty one rejects decreasing values
+     */
+    @Test
+    void testMonotonicity(){
+        MonotonicLongQueue q = new MonotonicLongQueue();
+        q.add(100);
+        assertThrows(IllegalArgumentException.class, () -> q.add(99));
+        q.add(100);
+        assertEquals(2, q.size());
+        q.remove();
+        q.remove();
+        q.add(-5);
+        assertEquals(-5, q.peek());
+        assertThrows(IllegalArgumentException.class, () -> new MonotonicLongQueue(9, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MonotonicLongQueue(16, -1));
+    }
+
+    /**
+     * Closely spaced timestamps take about a byte each, an eighth of a long[]
+     */
+    @Test
+    void testCompact(){
+        MonotonicLongQueue q = new MonotonicLongQueue();
+        LongBetterQueue plain = new LongBetterQueue();
+        Random random = new Random(7);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < 1000000; i++) {
+            time += random.nextInt(100);
+            q.add(time);
+            plain.add(time);
+        }
+        assertTrue(q.estimatedRetainedBytes() < 1100000, "bytes: " + q.estimatedRetainedBytes());
+        assertTrue(q.estimatedRetainedBytes() * 6 < plain.estimatedRetainedBytes());
+        for (int i = 0; i < 1000000; i++) {
+            assertEquals(plain.remove(), q.remove());
+        }
+        /* only the head chunk and the free-list are left */
+        assertTrue(q.estimatedRetainedBytes() < 5 * 4200 + 200, "bytes: " + q.estimatedRetainedBytes());
+    }
+
+    /**
+     * Empty queues throw
+     */
+    @Test
+    void testEmpty(){
+        MonotonicLongQueue q = new MonotonicLongQueue();
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::remove);
+        q.add(1);
+        q.remove();
+        assertThrows(NoSuchElementException.class, q::remove);
+    }
+}
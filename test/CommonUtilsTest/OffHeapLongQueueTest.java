@@ -0,0 +1,147 @@
+package CommonUtilsTest;
+
+import CommonUtils.LongBetterQueue;
+import CommonUtils.OffHeapLongQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests OffHeapLongQueue
+ */
+@Timeout(value = 2000, unit = MILLISECONDS)
+public class OffHeapLongQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        try (OffHeapLongQueue q = new OffHeapLongQueue()) {
+            q.add(1); q.add(-2); q.add(Long.MAX_VALUE);
+            assertEquals(3, q.size());
+            assertEquals(1, q.peek());
+            assertEquals(1, q.remove());
+            assertEquals(-2, q.remove());
+            assertEquals(Long.MAX_VALUE, q.remove());
+            assertTrue(q.isEmpty());
+        }
+    }
+
+    /**
+     * FIFO order survives growing, shrinking and wrapping around, same as LongBetterQueue
+     */
+    @Test
+    void testAgainstLongBetterQueue(){
+        Random random = new Random(251);
+        LongBetterQueue expected = new LongBetterQueue();
+        try (OffHeapLongQueue q = new OffHeapLongQueue()) {
+            for (int round = 0; round < 20; round++) {
+                int adds = random.nextInt(20000);
+                for (int i = 0; i < adds; i++) {
+                    long value = random.nextLong();
+                    q.add(value);
+                    expected.add(value);
+                }
+                int removes = random.nextInt(expected.size() + 1);
+                for (int i = 0; i < removes; i++) {
+                    assertEquals(expected.peek(), q.peek());
+                    assertEquals(expected.remove(), q.remove());
+                }
+                assertEquals(expected.size(), q.size());
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.remove(), q.remove());
+            }
+        }
+    }
+
+    /**
+     * Capacity follows the BetterQueue rules: start at 8, double when full, halve below half full
+     */
+    @Test
+    void testCapacity(){
+        try (OffHeapLongQueue q = new OffHeapLongQueue()) {
+            assertEquals(8, q.capacity());
+            assertEquals(64, q.offHeapBytes());
+            for (int i = 0; i < 1000; i++) {
+                q.add(i);
+            }
+            assertEquals(1024, q.capacity());
+            long heap = q.estimatedRetainedBytes();
+            for (int i = 0; i < 900; i++) {
+                q.remove();
+            }
+            assertEquals(128, q.capacity());
+            /* the heap footprint doesn't depend on the contents */
+            assertEquals(heap, q.estimatedRetainedBytes());
+            for (int i = 0; i < 92; i++) {
+                q.remove();
+            }
+            assertEquals(16, q.capacity());
+        }
+    }
+
+    /**
+     * A closed queue refuses to work; closing twice is harmless
+     */
+    @Test
+    void testClose(){
+        OffHeapLongQueue q = new OffHeapLongQueue();
+        q.add(5);
+        q.close();
+        assertEquals(0, q.capacity());
+        assertEquals(0, q.offHeapBytes());
+        assertThrows(IllegalStateException.class, () -> q.add(1));
+        assertThrows(IllegalStateException.class, q::peek);
+        assertThrows(IllegalStateException.class, q::remove);
+        q.close();
+    }
+
+    /**
+     * A confined queue belongs to its thread; a shared one can be handed to another thread
+     */
+    @Test
+    void testThreads() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (OffHeapLongQueue confined = new OffHeapLongQueue(false);
+             OffHeapLongQueue shared = new OffHeapLongQueue(true)) {
+            confined.add(1);
+            shared.add(2);
+            Thread other = new Thread(() -> {
+                try {
+                    assertThrows(WrongThreadException.class, confined::peek);
+                    assertEquals(2, shared.remove());
+                    for (int i = 0; i < 100; i++) {
+                        shared.add(i);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            other.start();
+            other.join();
+            assertNull(failure.get());
+            assertEquals(1, confined.remove());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, shared.remove());
+            }
+        }
+    }
+
+    /**
+     * Empty queues throw
+     */
+    @Test
+    void testEmpty(){
+        try (OffHeapLongQueue q = new OffHeapLongQueue()) {
+            assertThrows(NoSuchElementException.class, q::peek);
+            assertThrows(NoSuchElementException.class, q::remove);
+        }
+    }
+}
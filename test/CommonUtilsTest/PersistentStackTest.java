@@ -0,0 +1,130 @@
+package CommonUtilsTest;
+
+import CommonUtils.PersistentStack;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests PersistentStack
+ */
+@Timeout(value = 700, unit = MILLISECONDS)
+public class PersistentStackTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        PersistentStack<Integer> empty = PersistentStack.empty();
+        PersistentStack<Integer> stack = empty.push(0).push(1).push(2);
+        assertEquals(3, stack.size());
+        assertEquals(2, stack.peek());
+        assertEquals(1, stack.pop().peek());
+        assertEquals(0, stack.pop().pop().peek());
+        assertTrue(stack.pop().pop().pop().isEmpty());
+        /* nothing changed */
+        assertEquals(2, stack.peek());
+        assertTrue(empty.isEmpty());
+    }
+
+    /**
+     * Branches grown from the same snapshot don't see each other
+     */
+    @Test
+    void testBranches(){
+        PersistentStack<String> base = PersistentStack.<String>empty().push("a").push("b");
+        PersistentStack<String> left = base.push("left");
+        PersistentStack<String> right = base.pop().push("right");
+        PersistentStack<String> replaced = base.withTop("c");
+        assertEquals("left", left.peek());
+        assertEquals("b", left.pop().peek());
+        assertEquals("right", right.peek());
+        assertEquals("a", right.pop().peek());
+        assertEquals("c", replaced.peek());
+        assertEquals(2, replaced.size());
+        assertEquals("b", base.peek());
+        assertEquals(2, base.size());
+    }
+
+    /**
+     * A push shares the whole old version, and popping it gives that version back
+     */
+    @Test
+    void testStructuralSharing(){
+        PersistentStack<Integer> stack = PersistentStack.empty();
+        for (int i = 0; i < 100; i++) {
+            stack = stack.push(i);
+        }
+        assertSame(stack, stack.push(100).pop());
+        assertSame(PersistentStack.empty(), PersistentStack.<Integer>empty().push(1).pop());
+    }
+
+    /**
+     * FILO order over a deep stack, and iteration doesn't recurse
+     */
+    @Test
+    void testFILO_Deep(){
+        final int N = 1000000;
+        PersistentStack<Integer> stack = PersistentStack.empty();
+        for (int i = 0; i < N; i++) {
+            stack = stack.push(i);
+        }
+        assertEquals(N, stack.size());
+        int[] next = {N - 1};
+        stack.forEach(x -> assertEquals(next[0]--, x));
+        assertEquals(-1, next[0]);
+        Iterator<Integer> it = stack.iterator();
+        for (int i = N - 1; i >= 0; i--) {
+            assertTrue(it.hasNext());
+            assertEquals(i, it.next());
+        }
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+        for (int i = N - 1; i >= 0; i--) {
+            assertEquals(i, stack.peek());
+            stack = stack.pop();
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    /**
+     * Many snapshots of one growing stack each keep their own contents
+     */
+    @Test
+    void testSnapshots(){
+        List<PersistentStack<Integer>> snapshots = new ArrayList<>();
+        PersistentStack<Integer> stack = PersistentStack.empty();
+        for (int i = 0; i < 1000; i++) {
+            snapshots.add(stack);
+            stack = (i % 3 == 2) ? stack.pop() : stack.push(i);
+        }
+        for (PersistentStack<Integer> snapshot : snapshots) {
+            int count = 0;
+            for (int ignored : snapshot) {
+                count++;
+            }
+            assertEquals(snapshot.size(), count);
+        }
+    }
+
+    /**
+     * Empty stacks and null items are rejected
+     */
+    @Test
+    void testExceptions(){
+        PersistentStack<Integer> empty = PersistentStack.empty();
+        assertThrows(EmptyStackException.class, empty::pop);
+        assertThrows(EmptyStackException.class, empty::peek);
+        assertThrows(EmptyStackException.class, () -> empty.withTop(1));
+        assertThrows(NullPointerException.class, () -> empty.push(null));
+        assertThrows(NullPointerException.class, () -> empty.push(1).withTop(null));
+    }
+}
@@ -0,0 +1,121 @@
+package CommonUtilsTest;
+
+import CommonUtils.PowerOfTwoBetterQueue;
+import CommonUtilsTest.factories.IntTestFactory;
+import CommonUtilsTest.factories.SizeEmptyBasicAddRemoveBackTestFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests PowerOfTwoBetterQueue
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class PowerOfTwoBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        PowerOfTwoBetterQueue<Integer> q = new PowerOfTwoBetterQueue<>();
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+    }
+
+    /**
+     * Test null pointer exception required on add
+     */
+    @Test
+    void NullPointerAddTest(){
+        PowerOfTwoBetterQueue<Integer> q = new PowerOfTwoBetterQueue<>();
+        assertThrows(NullPointerException.class, () -> q.add(null));
+    }
+
+    /**
+     * Capacity must stay a power of two through growing and shrinking
+     */
+    @Test
+    void testCapacityStaysPowerOfTwo(){
+        PowerOfTwoBetterQueue<Integer> q = new PowerOfTwoBetterQueue<>();
+        assertEquals(8, q.capacity());
+        for(int i=0; i<100000; i++){
+            q.add(i);
+            assertEquals(0, q.capacity() & (q.capacity() - 1));
+            assertTrue(q.capacity() >= q.size());
+        }
+        assertEquals(1 << 17, q.capacity());
+        while(!q.isEmpty()){
+            q.remove();
+            assertEquals(0, q.capacity() & (q.capacity() - 1));
+        }
+        //same rule as BetterQueue: stops shrinking once size <= initial capacity
+        assertTrue(q.capacity() <= 16);
+    }
+
+    /**
+     * Tests ordered add/remove with FIFO, interleaved so that the ring wraps while resizing
+     */
+    @Test
+    void testFIFO_WrappedAddRemove(){
+        final int MAX_NUM_TO_ADD = 1000000;
+        PowerOfTwoBetterQueue<Integer> q = new PowerOfTwoBetterQueue<>();
+        int next = 0, expected = 0;
+        while(next < MAX_NUM_TO_ADD){
+            q.add(next++); q.add(next++); q.add(next++);
+            assertEquals(expected++, q.remove());
+        }
+        while(!q.isEmpty()){
+            assertEquals(expected++, q.remove());
+        }
+        assertEquals(next, expected);
+    }
+
+    /**
+     * Tests add, remove with edge values
+     */
+    @Nested
+    class AddRemoveInt extends IntTestFactory {
+        @Override
+        protected int setGetField(int num) throws Exception {
+            PowerOfTwoBetterQueue<Integer> q = new PowerOfTwoBetterQueue<>();
+            q.add(num);
+            return q.remove();
+        }
+    }
+
+    /**
+     * Tests size, empty, add, remove
+     */
+    @Nested
+    @Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+    class SizeEmptyAddRemove extends SizeEmptyBasicAddRemoveBackTestFactory {
+        PowerOfTwoBetterQueue<Long> q = new PowerOfTwoBetterQueue<>();
+
+        @Override
+        protected void add(long o) throws Exception { q.add(o); }
+
+        @Override
+        protected void removeParameterized(long o) throws Exception { /*nothing here on purpose, see below function*/ }
+
+        @Override
+        protected boolean getTestParameterizedRemove() { return false; }
+
+        @Override
+        protected void removeBack() throws Exception { q.remove(); }
+
+        @Override
+        protected long getSize() { return q.size(); }
+
+        @Override
+        protected boolean isEmpty() { return q.isEmpty(); }
+    }
+}
@@ -0,0 +1,310 @@
+package CommonUtilsTest;
+
+import CommonUtils.BetterQueue;
+import CommonUtils.ElementCodec;
+import CommonUtils.SpillingBetterQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests SpillingBetterQueue
+ */
+@Timeout(value = 5000, unit = MILLISECONDS)
+public class SpillingBetterQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private Set<Path> filesSet(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private long filesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck() throws IOException {
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 8, this.dir)) {
+            for (int i = 0; i < 100; i++) {
+                q.add(i);
+                assertTrue(q.inMemorySize() <= 8);
+            }
+            assertEquals(100, q.size());
+            assertTrue(q.spilledSegments() > 0);
+            assertEquals(q.spilledSegments(), filesIn(this.dir));
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, q.peek());
+                assertEquals(i, q.remove());
+                assertTrue(q.inMemorySize() <= 8);
+            }
+            assertNull(q.remove());
+            assertNull(q.peek());
+            /* consumed segments are deleted */
+            assertEquals(0, filesIn(this.dir));
+        }
+    }
+
+    /**
+     * Below the budget nothing touches the disk
+     */
+    @Test
+    void testNoSpillWithinBudget() throws IOException {
+        try (SpillingBetterQueue<Long> q = new SpillingBetterQueue<>(ElementCodec.LONG, 1000, this.dir)) {
+            for (long i = 0; i < 750; i++) {
+                q.add(i);
+            }
+            assertEquals(0, q.spilledSegments());
+            assertEquals(0, filesIn(this.dir));
+            for (long i = 0; i < 750; i++) {
+                assertEquals(i, q.remove());
+            }
+        }
+    }
+
+    /**
+     * Interleaved adds and removes keep FIFO order and the memory budget
+     */
+    @Test
+    void testAgainstBetterQueue() {
+        Random random = new Random(251);
+        BetterQueue<Long> expected = new BetterQueue<>();
+        try (SpillingBetterQueue<Long> q = new SpillingBetterQueue<>(ElementCodec.LONG, 64, this.dir)) {
+            for (int i = 0; i < 100000; i++) {
+                if (random.nextInt(100) < 55) {
+                    long value = random.nextLong();
+                    q.add(value);
+                    expected.add(value);
+                } else {
+                    assertEquals(expected.peek(), q.peek());
+                    assertEquals(expected.remove(), q.remove());
+                }
+                assertEquals(expected.size(), q.size());
+                assertTrue(q.inMemorySize() <= 64);
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.remove(), q.remove());
+            }
+            assertTrue(q.isEmpty());
+        }
+    }
+
+    /**
+     * Variable-width elements spill and come back intact
+     */
+    @Test
+    void testVariableWidth() {
+        try (SpillingBetterQueue<String> q = new SpillingBetterQueue<>(ElementCodec.UTF8, 10, this.dir)) {
+            for (int i = 0; i < 1000; i++) {
+                q.add("item " + i + "é".repeat(i % 7));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("item " + i + "é".repeat(i % 7), q.remove());
+            }
+        }
+    }
+
+    /**
+     * close deletes the segments left over; a closed queue refuses to work
+     */
+    @Test
+    void testClose() throws IOException {
+        SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 4, this.dir);
+        for (int i = 0; i < 1000; i++) {
+            q.add(i);
+        }
+        assertTrue(filesIn(this.dir) > 0);
+        q.remove();
+        q.close();
+        assertEquals(0, filesIn(this.dir));
+        assertTrue(q.isEmpty());
+        assertThrows(IllegalStateException.class, () -> q.add(1));
+        assertThrows(IllegalStateException.class, q::remove);
+        q.close();
+    }
+
+    /**
+     * A segment that can't be read fails every remove until it can, and is never skipped
+     */
+    @Test
+    void testUnreadableSegment() throws IOException {
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 8, this.dir)) {
+            int i = 0;
+            while (q.spilledSegments() < 1) {
+                q.add(i++);
+            }
+            Set<Path> before = filesSet(this.dir);
+            while (q.spilledSegments() < 2) {
+                q.add(i++);
+            }
+            Set<Path> after = filesSet(this.dir);
+            after.removeAll(before);
+            assertEquals(1, after.size());
+            for (int k = 0; k < 100; k++) {
+                q.add(i++);
+            }
+            /* the second segment, which nothing has mapped yet, loses all but a few bytes */
+            Path second = after.iterator().next();
+            byte[] contents = Files.readAllBytes(second);
+            Files.write(second, Arrays.copyOf(contents, 10));
+            int expected = 0;
+            UncheckedIOException failure = null;
+            while (failure == null) {
+                try {
+                    assertEquals(expected, q.remove());
+                    expected++;
+                } catch (UncheckedIOException e) {
+                    failure = e;
+                }
+            }
+            /* front and the first segment came out before the second one failed */
+            assertEquals(8, expected);
+            int size = q.size();
+            for (int k = 0; k < 3; k++) {
+                assertThrows(UncheckedIOException.class, q::remove);
+                assertThrows(UncheckedIOException.class, q::peek);
+                assertEquals(size, q.size());
+            }
+            Files.write(second, contents);
+            while (expected < i) {
+                assertEquals(expected++, q.remove());
+            }
+            assertTrue(q.isEmpty());
+        }
+    }
+
+    /**
+     * An add whose spill fails adds nothing, so retrying it neither loses nor duplicates the item
+     */
+    @Test
+    void testFailedSpill() throws IOException {
+        Path spillDir = Files.createDirectory(this.dir.resolve("spill"));
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 8, spillDir)) {
+            Files.delete(spillDir);
+            int i = 0;
+            UncheckedIOException failure = null;
+            while (failure == null) {
+                try {
+                    q.add(i);
+                    i++;
+                } catch (UncheckedIOException e) {
+                    failure = e;
+                }
+            }
+            assertEquals(8, i);
+            for (int k = 0; k < 3; k++) {
+                assertThrows(UncheckedIOException.class, () -> q.add(8));
+                assertEquals(8, q.size());
+                assertEquals(8, q.inMemorySize());
+            }
+            Files.createDirectory(spillDir);
+            q.add(i++);
+            assertEquals(1, q.spilledSegments());
+            for (int k = 0; k < i; k++) {
+                assertEquals(k, q.remove());
+            }
+            assertTrue(q.isEmpty());
+            assertNull(q.remove());
+            assertEquals(0, filesIn(spillDir));
+        }
+    }
+
+    /**
+     * A segment that fails halfway through writing is deleted again
+     */
+    @Test
+    void testFailedWriteLeavesNoFile() throws IOException {
+        ElementCodec<Integer> picky = new ElementCodec<>() {
+            @Override
+            public int width() {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void encode(Integer item, ByteBuffer dst) {
+                if (item == 13) { throw new IllegalStateException("unlucky"); }
+                dst.putInt(item);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer src) {
+                return src.getInt();
+            }
+        };
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(picky, 8, this.dir)) {
+            int i = 0;
+            IllegalStateException failure = null;
+            while (failure == null) {
+                try {
+                    q.add(i);
+                    i++;
+                } catch (IllegalStateException e) {
+                    failure = e;
+                }
+            }
+            assertEquals(i, q.size());
+            assertEquals(q.spilledSegments(), filesIn(this.dir));
+            for (int k = 0; k < i; k++) {
+                assertEquals(k, q.remove());
+            }
+            assertEquals(0, filesIn(this.dir));
+        }
+    }
+
+    /**
+     * Spilling reuses the thread's snapshot buffer instead of allocating one per segment
+     */
+    @Test
+    void testSpillReusesBuffer() {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct")).findFirst().orElseThrow();
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 8, this.dir)) {
+            for (int i = 0; i < 20; i++) {
+                q.add(i);
+            }
+            long before = direct.getCount();
+            for (int i = 20; i < 2000; i++) {
+                q.add(i);
+            }
+            assertTrue(q.spilledSegments() > 400);
+            assertTrue(direct.getCount() - before <= 1, (direct.getCount() - before) + " new direct buffers");
+        }
+    }
+
+    /**
+     * Bad arguments are rejected
+     */
+    @Test
+    void testExceptions() {
+        assertThrows(IllegalArgumentException.class, () -> new SpillingBetterQueue<>(ElementCodec.INT, 1, this.dir));
+        assertThrows(NullPointerException.class, () -> new SpillingBetterQueue<>(null, 8, this.dir));
+        try (SpillingBetterQueue<Integer> q = new SpillingBetterQueue<>(ElementCodec.INT, 8, this.dir)) {
+            assertThrows(NullPointerException.class, () -> q.add(null));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package CommonUtilsTest;
+
+import CommonUtils.SpscBetterQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests SpscBetterQueue, single threaded and with one producer and one consumer thread
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class SpscBetterQueueTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        SpscBetterQueue<Integer> q = new SpscBetterQueue<>(8);
+        q.add(0); q.add(3); q.add(2); q.add(1);
+        assertEquals(4, q.size());
+        assertEquals(0, q.peek());
+        assertEquals(0, q.remove());
+        assertEquals(3, q.remove());
+        assertEquals(2, q.remove());
+        assertEquals(1, q.remove());
+        assertNull(q.remove());
+        assertNull(q.peek());
+        assertTrue(q.isEmpty());
+    }
+
+    /**
+     * Capacity is rounded up to a power of two and enforced
+     */
+    @Test
+    void testBounded(){
+        SpscBetterQueue<Integer> q = new SpscBetterQueue<>(5);
+        assertEquals(8, q.capacity());
+        for(int i=0; i<8; i++){
+            assertTrue(q.offer(i));
+        }
+        assertFalse(q.offer(8));
+        assertThrows(IllegalStateException.class, () -> q.add(8));
+        assertEquals(8, q.size());
+        assertEquals(0, q.remove());
+        assertTrue(q.offer(8));
+        for(int i=1; i<=8; i++){
+            assertEquals(i, q.remove());
+        }
+        assertThrows(NullPointerException.class, () -> q.add(null));
+        assertThrows(IllegalArgumentException.class, () -> new SpscBetterQueue<Integer>(0));
+    }
+
+    /**
+     * One producer thread, one consumer thread: every element arrives exactly once and in order
+     * @param capacity queue capacity; small capacities force the full/empty slow paths constantly
+     */
+    @ParameterizedTest(name = "Capacity = {0}")
+    @ValueSource(ints = {1, 64, 1 << 14})
+    @Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+    void testTwoThreadStress(int capacity) throws InterruptedException {
+        final int N = 1000000;
+        SpscBetterQueue<Integer> q = new SpscBetterQueue<>(capacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() -> {
+            for(int i=0; i<N; i++){
+                while(!q.offer(i)){
+                    Thread.yield();
+                }
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            try {
+                int expected = 0;
+                while(expected < N){
+                    Integer x = q.remove();
+                    if(x == null){
+                        Thread.yield();
+                        continue;
+                    }
+                    assertEquals(expected++, x);
+                }
+            } catch (Throwable t){
+                failure.set(t);
+            }
+        });
+        producer.start();
+        consumer.start();
+        producer.join();
+        consumer.join();
+        if(failure.get() != null){
+            fail("Consumer failed: " + failure.get());
+        }
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+    }
+}
@@ -0,0 +1,87 @@
+package CommonUtilsTest;
+
+import CommonUtils.CapacityPolicy;
+import CommonUtils.StandardCapacityPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests StandardCapacityPolicy's growth and shrink arithmetic
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class StandardCapacityPolicyTest {
+    /**
+     * The default policy must keep the original BetterQueue/BetterStack rules
+     */
+    @Test
+    void testDefaultMatchesOriginalRules(){
+        CapacityPolicy p = CapacityPolicy.defaultPolicy();
+        assertEquals(8, p.initialCapacity());
+        assertEquals(16, p.grow(8));
+        assertEquals(1 << 30, p.grow(1 << 29));
+        //doubling would overflow, so add 32 instead
+        assertEquals((1 << 30) + 32, p.grow(1 << 30));
+        assertThrows(OutOfMemoryError.class, () -> p.grow(Integer.MAX_VALUE - 31));
+        //shrink only below half full, and never while holding <= 8 elements
+        assertEquals(64, p.shrink(32, 64));
+        assertEquals(32, p.shrink(31, 64));
+        assertEquals(64, p.shrink(8, 64));
+        assertEquals(16, p.shrink(9, 32));
+    }
+
+    /**
+     * Hysteresis moves the shrink trigger down without changing the shrink target
+     */
+    @Test
+    void testHysteresis(){
+        StandardCapacityPolicy p = StandardCapacityPolicy.defaults().withHysteresis(0.25);
+        assertEquals(1024, p.shrink(511, 1024));
+        assertEquals(1024, p.shrink(256, 1024));
+        assertEquals(512, p.shrink(255, 1024));
+    }
+
+    /**
+     * Minimum capacity and never-shrink
+     */
+    @Test
+    void testMinCapacityAndNeverShrink(){
+        StandardCapacityPolicy p = StandardCapacityPolicy.defaults().withMinCapacity(100);
+        assertEquals(100, p.initialCapacity());
+        assertEquals(200, p.shrink(150, 400));
+        //holding no more than the minimum, so stay put
+        assertEquals(400, p.shrink(100, 400));
+
+        StandardCapacityPolicy never = StandardCapacityPolicy.defaults().neverShrink();
+        assertEquals(1 << 20, never.shrink(9, 1 << 20));
+    }
+
+    /**
+     * Small growth factors must still make progress
+     */
+    @Test
+    void testSmallIncreaseFactor(){
+        StandardCapacityPolicy p = new StandardCapacityPolicy(1, 1.1, 32, 0.5, 0, 1, true);
+        int cap = p.initialCapacity();
+        for(int i=0; i<100; i++){
+            int next = p.grow(cap);
+            assertTrue(next > cap);
+            cap = next;
+        }
+    }
+
+    /**
+     * Out of range parameters are rejected
+     */
+    @Test
+    void testValidation(){
+        StandardCapacityPolicy p = StandardCapacityPolicy.defaults();
+        assertThrows(IllegalArgumentException.class, () -> p.withIncreaseFactor(1));
+        assertThrows(IllegalArgumentException.class, () -> p.withDecreaseFactor(1));
+        assertThrows(IllegalArgumentException.class, () -> p.withHysteresis(0.5));
+        assertThrows(IllegalArgumentException.class, () -> p.withMinCapacity(0));
+    }
+}
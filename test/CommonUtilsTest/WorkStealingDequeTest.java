@@ -0,0 +1,127 @@
+package CommonUtilsTest;
+
+import CommonUtils.WorkStealingDeque;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests WorkStealingDeque, single threaded and with an owner racing several thieves
+ */
+@Timeout(value = 700, unit = TimeUnit.MILLISECONDS)
+public class WorkStealingDequeTest {
+    /**
+     * Very basic check.  Failing this should fail all other tests.
+     */
+    @Test
+    void sanityCheck(){
+        WorkStealingDeque<Integer> d = new WorkStealingDeque<>(2);
+        d.push(0); d.push(1); d.push(2); d.push(3);
+        assertEquals(4, d.size());
+        assertEquals(3, d.pop());
+        assertEquals(0, d.steal());
+        assertEquals(2, d.pop());
+        assertEquals(1, d.steal());
+        assertNull(d.pop());
+        assertNull(d.steal());
+        assertTrue(d.isEmpty());
+        assertThrows(NullPointerException.class, () -> d.push(null));
+        assertThrows(IllegalArgumentException.class, () -> new WorkStealingDeque<Integer>(0));
+    }
+
+    /**
+     * Growing keeps every element in place, seen from both ends
+     */
+    @Test
+    void testGrowWrapped(){
+        WorkStealingDeque<Integer> d = new WorkStealingDeque<>(4);
+        int stolen = 0;
+        for(int i=0; i<100000; i++){
+            d.push(i);
+            if(i % 3 == 0){
+                assertEquals(stolen++, d.steal());
+            }
+        }
+        int top = 100000 - 1;
+        while(!d.isEmpty()){
+            assertEquals(top--, d.pop());
+        }
+        assertEquals(stolen - 1, top);
+    }
+
+    /**
+     * The owner pushes tasks and pops some of them while thieves steal the rest: every task
+     * must be run exactly once
+     * @param thieves number of thief threads
+     */
+    @ParameterizedTest(name = "{0} thieves")
+    @ValueSource(ints = {1, 3, 8})
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    void testNoTaskLostOrRunTwice(int thieves) throws InterruptedException {
+        final int N = 500000;
+        WorkStealingDeque<Integer> d = new WorkStealingDeque<>(2);
+        AtomicIntegerArray runs = new AtomicIntegerArray(N);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean ownerDone = new AtomicBoolean();
+
+        Thread[] thiefThreads = new Thread[thieves];
+        for(int t=0; t<thieves; t++){
+            thiefThreads[t] = new Thread(() -> {
+                try {
+                    while(true){
+                        Integer task = d.steal();
+                        if(task != null){
+                            runs.incrementAndGet(task);
+                        } else if(ownerDone.get()){
+                            return;
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            thiefThreads[t].start();
+        }
+
+        //owner: push in bursts, then work through part of its own deque (races thieves for the last task)
+        int next = 0;
+        while(next < N){
+            int burst = Integer.min(N - next, 1 + (next % 97));
+            for(int i=0; i<burst; i++){
+                d.push(next++);
+            }
+            for(int i=0; i<burst / 2 + 1; i++){
+                Integer task = d.pop();
+                if(task == null){
+                    break;
+                }
+                runs.incrementAndGet(task);
+            }
+        }
+        Integer task;
+        while((task = d.pop()) != null){
+            runs.incrementAndGet(task);
+        }
+        ownerDone.set(true);
+        for(Thread t : thiefThreads){
+            t.join();
+        }
+        if(failure.get() != null){
+            fail(failure.get());
+        }
+        for(int i=0; i<N; i++){
+            assertEquals(1, runs.get(i), "task " + i);
+        }
+        assertTrue(d.isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package DronesTest;
+
+import CommonUtils.BetterQueue;
+import CommonUtils.BigLongArray;
+import Drones.CleanSwordKernel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests CleanSwordKernel
+ */
+@Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+public class CleanSwordKernelTest {
+
+    /**
+     * The queue-of-swords loop the kernel replaces, as the reference
+     */
+    private static long[] reference(long[] processingTimes, long[] requestTimes, long cleaningTime) {
+        BetterQueue<long[]> swords = new BetterQueue<>();
+        for (long processingTime : processingTimes) {
+            swords.add(new long[]{0, processingTime});
+        }
+        long[] filled = new long[requestTimes.length];
+        long currentTime = 0;
+        for (int j = 0; j < requestTimes.length; j++) {
+            swords.add(new long[]{requestTimes[j], cleaningTime});
+            long[] sword = swords.remove();
+            currentTime = Math.max(currentTime, sword[0]) + sword[1];
+            filled[j] = Math.max(requestTimes[j], currentTime);
+        }
+        return filled;
+    }
+
+    private static BigLongArray column(long[] values) {
+        BigLongArray column = new BigLongArray(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    private static long[] randomRequests(Random random, int count) {
+        long[] requests = new long[count];
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            /* bursts and idle stretches, so the cleaner both falls behind and catches up */
+            time += ((i / 500) % 2 == 0) ? random.nextInt(3) : random.nextInt(15);
+            requests[i] = time;
+        }
+        return requests;
+    }
+
+    /**
+     * Matches the reference whatever the number of initial swords and however the requests are
+     * split into blocks, including ring sizes spanning several BigLongArray pages
+     * @param numSwords number of swords in the queue at the start
+     */
+    @ParameterizedTest(name = "{0} swords")
+    @ValueSource(ints = {0, 1, 2, 7, 1000, BigLongArray.PAGE_SIZE + 3, 150000})
+    void testMatchesReference(int numSwords) {
+        Random random = new Random(numSwords);
+        long[] swords = new long[numSwords];
+        for (int i = 0; i < numSwords; i++) {
+            swords[i] = 1 + random.nextInt(6);
+        }
+        long[] requests = randomRequests(random, 200000);
+        long[] expected = reference(swords, requests, 4);
+
+        CleanSwordKernel kernel = new CleanSwordKernel(column(swords), 4);
+        long[] in = new long[5000], filled = new long[5000], waits = new long[5000];
+        int done = 0;
+        while (done < requests.length) {
+            int length = Integer.min(requests.length - done, 1 + random.nextInt(in.length));
+            System.arraycopy(requests, done, in, 0, length);
+            kernel.process(in, filled, waits, length);
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[done + i], filled[i], "request " + (done + i));
+                assertEquals(expected[done + i] - requests[done + i], waits[i], "request " + (done + i));
+            }
+            done += length;
+        }
+        assertEquals(requests.length, kernel.processed());
+    }
+
+    /**
+     * Once warmed up, process allocates nothing on the calling thread
+     */
+    @Test
+    void testProcessAllocatesNothing() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final int block = 1 << 12;
+        long[] swords = new long[3000];
+        Arrays.fill(swords, 5);
+        CleanSwordKernel kernel = new CleanSwordKernel(column(swords), 5);
+        long[] requests = randomRequests(new Random(1), block);
+        long[] filled = new long[block], waits = new long[block];
+        for (int i = 0; i < 2000; i++) {
+            kernel.process(requests, filled, waits, block);
+            for (int j = 0; j < block; j++) {
+                requests[j] += block;
+            }
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100; i++) {
+            kernel.process(requests, filled, waits, block);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        /* 409600 requests; anything per request would be megabytes */
+        assertTrue(allocated < 1024, "process allocated " + allocated + " bytes");
+    }
+}
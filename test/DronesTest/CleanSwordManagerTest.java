@@ -6,16 +6,22 @@ import Drones.CleanSwordManagerInterface.CleanSwordTimes;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
@@ -99,6 +105,78 @@ public class CleanSwordManagerTest {
         compareAnswer(trueAns, ans, "Test case: " + inputFile);
     }
 
+    /**
+     * forEachCleaningTime hands over the same cleaning times, in the same order and with
+     * consecutive indices, as getCleaningTimes
+     */
+    @DisplayName("Streaming results match the list for Story 1")
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("testFileProvider")
+    void runFilesStreaming(File file) {
+        String inputFile = file.getPath();
+        ArrayList<CleanSwordTimes> expected = manager.getCleaningTimes(inputFile);
+        ArrayList<CleanSwordTimes> streamed = new ArrayList<>();
+        long count = manager.forEachCleaningTime(inputFile, (index, timeFilled, timeToFulfill) -> {
+            assertEquals(streamed.size(), index);
+            streamed.add(new CleanSwordTimes(timeFilled, timeToFulfill));
+        });
+        assertEquals(expected.size(), count);
+        compareAnswer(expected, streamed, "Streaming test case: " + inputFile);
+    }
+
+    /**
+     * The parallel scan gives the answer files' results too
+     */
+    @DisplayName("File-based tests for Story 1, parallel scan")
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("testFileProvider")
+    void runFilesParallel(File file) {
+        String inputFile = file.getPath();
+        ArrayList<CleanSwordTimes> expected = manager.getCleaningTimes(inputFile);
+        ArrayList<CleanSwordTimes> ans = new CleanSwordManager(ForkJoinPool.commonPool()).getCleaningTimes(inputFile);
+        compareAnswer(expected, ans, "Parallel test case: " + inputFile);
+    }
+
+    /**
+     * The parallel scan matches the sequential loop on inputs spanning many pages, whether the
+     * initial swords run out early, late or never
+     *
+     * @param numSwords number of swords in the queue at the start
+     * @param dir directory for the generated input
+     */
+    @ParameterizedTest(name = "{0} swords")
+    @ValueSource(longs = {0, 1, 1000, 150000, 400000})
+    void testParallelMatchesSequential(long numSwords, @TempDir Path dir) throws IOException {
+        final int numRequests = 300000;
+        Random random = new Random(numSwords);
+        File input = dir.resolve("swords.in").toFile();
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(input)))) {
+            out.println(numSwords + " " + numRequests + " 3");
+            for (long i = 0; i < numSwords; i++) {
+                out.println(1 + random.nextInt(6));
+            }
+            long time = 0;
+            for (int i = 0; i < numRequests; i++) {
+                /* bursts and idle stretches, so the cleaner both falls behind and catches up */
+                time += ((i / 20000) % 2 == 0) ? random.nextInt(3) : random.nextInt(12);
+                out.println(time);
+            }
+        }
+        ArrayList<CleanSwordTimes> expected = manager.getCleaningTimes(input.getPath());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CleanSwordManager parallel = new CleanSwordManager(pool);
+            compareAnswer(expected, parallel.getCleaningTimes(input.getPath()), "Parallel, " + numSwords + " swords");
+            long[] next = {0};
+            long count = parallel.forEachCleaningTime(input.getPath(), (index, timeFilled, timeToFulfill) -> {
+                assertEquals(next[0]++, index);
+            });
+            assertEquals(numRequests, count);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Compares answer and prints detailed information if wrong
      *
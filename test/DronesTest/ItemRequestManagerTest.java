@@ -15,6 +15,7 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
@@ -99,6 +100,22 @@ public class ItemRequestManagerTest {
         compareAnswer(trueAns, ans, "Test case: " + inputFile);
     }
 
+    /**
+     * forEachRetrievalTime hands over the same retrieval times, in the same order, as getRetrievalTimes
+     */
+    @DisplayName("Streaming results match the list for Story 2")
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("testFileProvider")
+    void runFilesStreaming(File file) {
+        String inputFile = file.getPath();
+        ArrayList<ItemRetrievalTimes> expected = manager.getRetrievalTimes(inputFile);
+        ArrayList<ItemRetrievalTimes> streamed = new ArrayList<>();
+        long count = manager.forEachRetrievalTime(inputFile,
+                (index, timeFilled) -> streamed.add(new ItemRetrievalTimes(index, timeFilled)));
+        assertEquals(expected.size(), count);
+        compareAnswer(expected, streamed, "Streaming test case: " + inputFile);
+    }
+
     /**
      * Compares answer and prints detailed information if wrong
      *
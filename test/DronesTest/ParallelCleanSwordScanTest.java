@@ -0,0 +1,91 @@
+package DronesTest;
+
+import CommonUtils.BigLongArray;
+import Drones.CleanSwordKernel;
+import Drones.ParallelCleanSwordScan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests ParallelCleanSwordScan against the sequential CleanSwordKernel
+ */
+@Timeout(value = 9000, unit = TimeUnit.MILLISECONDS)
+public class ParallelCleanSwordScanTest {
+
+    private static BigLongArray column(long[] values) {
+        BigLongArray column = new BigLongArray(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    private static long[] randomRequests(Random random, int count) {
+        long[] requests = new long[count];
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            /* bursts and idle stretches, so the cleaner both falls behind and catches up */
+            time += ((i / 500) % 2 == 0) ? random.nextInt(3) : random.nextInt(15);
+            requests[i] = time;
+        }
+        return requests;
+    }
+
+    /**
+     * Gives the kernel's results, in order, whatever the number of initial swords, including
+     * more swords than requests and swords spanning several pages
+     * @param numSwords number of swords in the queue at the start
+     */
+    @ParameterizedTest(name = "{0} swords")
+    @ValueSource(ints = {0, 1, 7, 1000, BigLongArray.PAGE_SIZE + 3, 400000})
+    void testMatchesKernel(int numSwords) {
+        Random random = new Random(numSwords);
+        long[] swords = new long[numSwords];
+        for (int i = 0; i < numSwords; i++) {
+            swords[i] = 1 + random.nextInt(6);
+        }
+        long[] requests = randomRequests(random, 300000);
+        long[] expected = new long[requests.length], waits = new long[requests.length];
+        /* the scan only reads its columns; the kernel takes its own copy over as the ring */
+        BigLongArray processingTimes = column(swords);
+        new CleanSwordKernel(column(swords), 4).process(requests, expected, waits, requests.length);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            long[] index = {0};
+            long count = new ParallelCleanSwordScan(processingTimes, column(requests), 4).run(pool, (i, filled, wait) -> {
+                assertEquals(index[0]++, i);
+                assertEquals(expected[(int) i], filled, "request " + i);
+                assertEquals(waits[(int) i], wait, "request " + i);
+            });
+            assertEquals(requests.length, count);
+            assertEquals(requests.length, index[0]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A null sink only computes the times; no requests gives no times
+     */
+    @Test
+    void testNullSinkAndNoRequests() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            BigLongArray swords = column(new long[]{3, 1, 2});
+            BigLongArray requests = column(randomRequests(new Random(3), 100000));
+            assertEquals(100000, new ParallelCleanSwordScan(swords, requests, 2).run(pool, null));
+            assertEquals(0, new ParallelCleanSwordScan(swords, new BigLongArray(0), 2).run(pool, (i, filled, wait) -> fail()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}